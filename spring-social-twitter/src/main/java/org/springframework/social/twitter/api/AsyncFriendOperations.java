@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the reading operations of {@link FriendOperations}.
+ * Cursors start at -1, as in {@link FriendOperations}.
+ */
+public interface AsyncFriendOperations {
+
+	/**
+	 * @see FriendOperations#getFriendsInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<TwitterProfile>> getFriendsInCursor(long userId, long cursor);
+
+	/**
+	 * @see FriendOperations#getFriendsInCursor(String, long)
+	 */
+	CompletableFuture<CursoredList<TwitterProfile>> getFriendsInCursor(String screenName, long cursor);
+
+	/**
+	 * @see FriendOperations#getFriendIdsInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<Long>> getFriendIdsInCursor(long userId, long cursor);
+
+	/**
+	 * @see FriendOperations#getFriendIdsInCursor(String, long)
+	 */
+	CompletableFuture<CursoredList<Long>> getFriendIdsInCursor(String screenName, long cursor);
+
+	/**
+	 * @see FriendOperations#getFollowersInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<TwitterProfile>> getFollowersInCursor(long userId, long cursor);
+
+	/**
+	 * @see FriendOperations#getFollowersInCursor(String, long)
+	 */
+	CompletableFuture<CursoredList<TwitterProfile>> getFollowersInCursor(String screenName, long cursor);
+
+	/**
+	 * @see FriendOperations#getFollowerIdsInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<Long>> getFollowerIdsInCursor(long userId, long cursor);
+
+	/**
+	 * @see FriendOperations#getFollowerIdsInCursor(String, long)
+	 */
+	CompletableFuture<CursoredList<Long>> getFollowerIdsInCursor(String screenName, long cursor);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the reading operations of {@link ListOperations}.
+ */
+public interface AsyncListOperations {
+
+	/**
+	 * @see ListOperations#getLists(long)
+	 */
+	CompletableFuture<List<UserList>> getLists(long userId);
+
+	/**
+	 * @see ListOperations#getLists(String)
+	 */
+	CompletableFuture<List<UserList>> getLists(String screenName);
+
+	/**
+	 * @see ListOperations#getList(long)
+	 */
+	CompletableFuture<UserList> getList(long listId);
+
+	/**
+	 * @see ListOperations#getListStatuses(long, int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getListStatuses(long listId, int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see ListOperations#getListMembersInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<TwitterProfile>> getListMembersInCursor(long listId, long cursor);
+
+	/**
+	 * @see ListOperations#getMembershipsInCursor(long, long)
+	 */
+	CompletableFuture<CursoredList<UserList>> getMembershipsInCursor(long userId, long cursor);
+
+}
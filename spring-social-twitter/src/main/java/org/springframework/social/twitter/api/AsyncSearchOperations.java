@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the tweet search operations of {@link SearchOperations}.
+ */
+public interface AsyncSearchOperations {
+
+	/**
+	 * @see SearchOperations#search(String)
+	 */
+	CompletableFuture<SearchResults> search(String query);
+
+	/**
+	 * @see SearchOperations#search(String, int, long, long)
+	 */
+	CompletableFuture<SearchResults> search(String query, int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see SearchOperations#search(SearchParameters)
+	 */
+	CompletableFuture<SearchResults> search(SearchParameters searchParameters);
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the reading operations of {@link TimelineOperations}.
+ */
+public interface AsyncTimelineOperations {
+
+	/**
+	 * @see TimelineOperations#getHomeTimeline(int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getHomeTimeline(int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see TimelineOperations#getUserTimeline(int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getUserTimeline(int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see TimelineOperations#getUserTimeline(String)
+	 */
+	CompletableFuture<List<Tweet>> getUserTimeline(String screenName);
+
+	/**
+	 * @see TimelineOperations#getUserTimeline(String, int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getUserTimeline(String screenName, int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see TimelineOperations#getUserTimeline(long)
+	 */
+	CompletableFuture<List<Tweet>> getUserTimeline(long userId);
+
+	/**
+	 * @see TimelineOperations#getUserTimeline(long, int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getUserTimeline(long userId, int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see TimelineOperations#getMentions(int, long, long)
+	 */
+	CompletableFuture<List<Tweet>> getMentions(int pageSize, long sinceId, long maxId);
+
+	/**
+	 * @see TimelineOperations#getStatus(long)
+	 */
+	CompletableFuture<Tweet> getStatus(long tweetId);
+
+	/**
+	 * @see TimelineOperations#getRetweets(long, int)
+	 */
+	CompletableFuture<List<Tweet>> getRetweets(long tweetId, int count);
+
+	/**
+	 * @see TimelineOperations#getFavorites(long, int)
+	 */
+	CompletableFuture<List<Tweet>> getFavorites(long userId, int pageSize);
+
+	/**
+	 * @see TimelineOperations#getFavorites(String, int)
+	 */
+	CompletableFuture<List<Tweet>> getFavorites(String screenName, int pageSize);
+
+}
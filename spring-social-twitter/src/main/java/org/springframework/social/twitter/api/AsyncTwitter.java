@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import org.springframework.social.twitter.api.advertising.AsyncStatisticsOperations;
+import org.springframework.web.client.AsyncRestOperations;
+
+/**
+ * Asynchronous counterpart of {@link Twitter}, for fanning out many calls at once.
+ * Each operation starts its request and returns a {@link java.util.concurrent.CompletableFuture} of what the matching
+ * {@link Twitter} operation would have returned; the future completes with the same exceptions the blocking operation would have thrown.
+ * Missing authorization is still thrown straight away.
+ * Implemented by AsyncTwitterTemplate.
+ */
+public interface AsyncTwitter {
+
+	/**
+	 * @return the portion of the Twitter API containing the tweet and timeline operations.
+	 */
+	AsyncTimelineOperations timelineOperations();
+
+	/**
+	 * @return the portion of the Twitter API containing the user operations.
+	 */
+	AsyncUserOperations userOperations();
+
+	/**
+	 * @return the portion of the Twitter API containing the friends and followers operations.
+	 */
+	AsyncFriendOperations friendOperations();
+
+	/**
+	 * @return the portion of the Twitter API containing the search operations.
+	 */
+	AsyncSearchOperations searchOperations();
+
+	/**
+	 * @return the portion of the Twitter API containing the user list operations.
+	 */
+	AsyncListOperations listOperations();
+
+	/**
+	 * @return the portion of the Twitter API containing the advertising statistics operations.
+	 */
+	AsyncStatisticsOperations statisticsOperations();
+
+	/**
+	 * Returns the underlying {@link AsyncRestOperations} object, which signs its requests as the blocking Twitter does.
+	 * Allows for requests to Twitter resources not covered by the operations.
+	 */
+	AsyncRestOperations asyncRestOperations();
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of the reading operations of {@link UserOperations}.
+ */
+public interface AsyncUserOperations {
+
+	/**
+	 * @see UserOperations#getUserProfile()
+	 */
+	CompletableFuture<TwitterProfile> getUserProfile();
+
+	/**
+	 * @see UserOperations#getUserProfile(String)
+	 */
+	CompletableFuture<TwitterProfile> getUserProfile(String screenName);
+
+	/**
+	 * @see UserOperations#getUserProfile(long)
+	 */
+	CompletableFuture<TwitterProfile> getUserProfile(long userId);
+
+	/**
+	 * @see UserOperations#getUsers(long...)
+	 */
+	CompletableFuture<List<TwitterProfile>> getUsers(long... userIds);
+
+	/**
+	 * @see UserOperations#getUsers(String...)
+	 */
+	CompletableFuture<List<TwitterProfile>> getUsers(String... screenNames);
+
+	/**
+	 * @see UserOperations#searchForUsers(String, int, int)
+	 */
+	CompletableFuture<List<TwitterProfile>> searchForUsers(String query, int page, int pageSize);
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link StreamListener} that receives tweets and deletes in batches rather than one call at a time,
+ * for sinks such as database inserts or index writes that are far cheaper in bulk.
+ * <p>
+ * A batch is delivered once it holds {@link #getMaxBatchSize()} messages, or once its first message has waited {@link #getMaxBatchDelay()} milliseconds,
+ * whichever comes first. Any other message, such as a limit notice, is delivered on its own after the batches collected before it.
+ * Within a batch window tweets are delivered before deletes, so a delete is never seen ahead of the tweet it refers to.
+ * </p>
+ */
+public abstract class BatchingStreamListener implements StreamListener {
+
+	private final int maxBatchSize;
+
+	private final long maxBatchDelay;
+
+	/**
+	 * Creates a listener delivering batches of at most 500 messages, held for no longer than 50 milliseconds.
+	 */
+	protected BatchingStreamListener() {
+		this(DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_DELAY);
+	}
+
+	/**
+	 * @param maxBatchSize the largest number of tweets, or of deletes, delivered in one call
+	 * @param maxBatchDelay the longest time in milliseconds a message waits for its batch to fill
+	 */
+	protected BatchingStreamListener(int maxBatchSize, long maxBatchDelay) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		Assert.isTrue(maxBatchDelay >= 0, "'maxBatchDelay' must not be negative");
+		this.maxBatchSize = maxBatchSize;
+		this.maxBatchDelay = maxBatchDelay;
+	}
+
+	/**
+	 * Called with a batch of tweets available on the stream, in the order they arrived.
+	 * @param tweets the tweets
+	 */
+	public abstract void onTweets(List<Tweet> tweets);
+
+	/**
+	 * Called with a batch of delete messages available on the stream, in the order they arrived.
+	 * Hands each delete to {@link #onDelete(StreamDeleteEvent)} unless overridden.
+	 * @param deleteEvents the delete events
+	 */
+	public void onDeletes(List<StreamDeleteEvent> deleteEvents) {
+		for (StreamDeleteEvent deleteEvent : deleteEvents) {
+			onDelete(deleteEvent);
+		}
+	}
+
+	/**
+	 * Hands the tweet to {@link #onTweets(List)} as a batch of one.
+	 * Only called if the listener is used where batching isn't available.
+	 */
+	public void onTweet(Tweet tweet) {
+		onTweets(Collections.singletonList(tweet));
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public long getMaxBatchDelay() {
+		return maxBatchDelay;
+	}
+
+	public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+	public static final long DEFAULT_MAX_BATCH_DELAY = 50;
+
+}
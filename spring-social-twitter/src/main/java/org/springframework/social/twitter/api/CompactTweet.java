@@ -0,0 +1,364 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A read-only copy of a {@link Tweet} laid out to take as little heap as it can, for applications that keep a great many tweets in memory.
+ * <p>
+ * Numbers, flags and the creation date are kept as primitives, the source and language are interned, and the entities are kept in
+ * exactly sized arrays rather than five linked lists. Tweets copied by the same {@link TweetCompactor} share a single
+ * {@link TwitterProfile} for each author. Fields Twitter sent that the model doesn't know, kept in {@link Tweet#getExtraData()}, aren't copied.
+ * </p>
+ * <p>
+ * The getters return what the Tweet's did; {@link #toTweet()} turns it back into a Tweet for code that needs one.
+ * </p>
+ */
+public final class CompactTweet implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long NO_ID = Long.MIN_VALUE;
+
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private static final int NO_COUNT = Integer.MIN_VALUE;
+
+	private static final int RETWEETED = 1;
+
+	private static final int FAVORITED = 1 << 1;
+
+	private static final int TRUNCATED_KNOWN = 1 << 2;
+
+	private static final int TRUNCATED = 1 << 3;
+
+	private static final int POSSIBLY_SENSITIVE_KNOWN = 1 << 4;
+
+	private static final int POSSIBLY_SENSITIVE = 1 << 5;
+
+	private static final int NO_ENTITIES = 1 << 6;
+
+	private static final UrlEntity[] NO_URLS = {};
+
+	private static final HashTagEntity[] NO_HASH_TAGS = {};
+
+	private static final MentionEntity[] NO_MENTIONS = {};
+
+	private static final MediaEntity[] NO_MEDIA = {};
+
+	private static final TickerSymbolEntity[] NO_TICKER_SYMBOLS = {};
+
+	private final long id;
+
+	private final String text;
+
+	private final long createdAt;
+
+	private final long fromUserId;
+
+	private final String fromUser;
+
+	private final String profileImageUrl;
+
+	private final long toUserId;
+
+	private final long inReplyToStatusId;
+
+	private final long inReplyToUserId;
+
+	private final String inReplyToScreenName;
+
+	private final String languageCode;
+
+	private final String source;
+
+	private final int retweetCount;
+
+	private final int favoriteCount;
+
+	private final int flags;
+
+	private final CompactTweet retweetedStatus;
+
+	private final TwitterProfile user;
+
+	private final UrlEntity[] urls;
+
+	private final HashTagEntity[] hashTags;
+
+	private final MentionEntity[] mentions;
+
+	private final MediaEntity[] media;
+
+	private final TickerSymbolEntity[] tickerSymbols;
+
+	CompactTweet(Tweet tweet, TwitterProfile user, CompactTweet retweetedStatus) {
+		this.id = tweet.getId();
+		this.text = tweet.getText();
+		this.createdAt = tweet.getCreatedAt() != null ? tweet.getCreatedAt().getTime() : NO_DATE;
+		this.fromUserId = tweet.getFromUserId();
+		// the profile's own strings, where they're the same, so that every tweet by the user shares them
+		this.fromUser = user != null && equal(user.getScreenName(), tweet.getFromUser()) ? user.getScreenName() : tweet.getFromUser();
+		this.profileImageUrl = user != null && equal(user.getProfileImageUrl(), tweet.getProfileImageUrl()) ? user.getProfileImageUrl() : tweet.getProfileImageUrl();
+		this.toUserId = toPrimitive(tweet.getToUserId());
+		this.inReplyToStatusId = toPrimitive(tweet.getInReplyToStatusId());
+		this.inReplyToUserId = toPrimitive(tweet.getInReplyToUserId());
+		this.inReplyToScreenName = tweet.getInReplyToScreenName();
+		this.languageCode = intern(tweet.getLanguageCode());
+		this.source = intern(tweet.getSource());
+		this.retweetCount = tweet.getRetweetCount() != null ? tweet.getRetweetCount() : NO_COUNT;
+		this.favoriteCount = tweet.getFavoriteCount() != null ? tweet.getFavoriteCount() : NO_COUNT;
+		int flags = 0;
+		if (tweet.isRetweeted()) {
+			flags |= RETWEETED;
+		}
+		if (tweet.isFavorited()) {
+			flags |= FAVORITED;
+		}
+		if (tweet.isTruncated() != null) {
+			flags |= tweet.isTruncated() ? TRUNCATED_KNOWN | TRUNCATED : TRUNCATED_KNOWN;
+		}
+		if (tweet.isPossiblySensitive() != null) {
+			flags |= tweet.isPossiblySensitive() ? POSSIBLY_SENSITIVE_KNOWN | POSSIBLY_SENSITIVE : POSSIBLY_SENSITIVE_KNOWN;
+		}
+		Entities entities = tweet.getEntities();
+		if (entities == null) {
+			flags |= NO_ENTITIES;
+			entities = new Entities(null, null, null, null, null);
+		}
+		this.flags = flags;
+		this.retweetedStatus = retweetedStatus;
+		this.user = user;
+		this.urls = entities.hasUrls() ? entities.getUrls().toArray(NO_URLS) : emptyOrNull(entities.getUrls(), NO_URLS);
+		this.hashTags = entities.hasTags() ? entities.getHashTags().toArray(NO_HASH_TAGS) : emptyOrNull(entities.getHashTags(), NO_HASH_TAGS);
+		this.mentions = entities.hasMentions() ? entities.getMentions().toArray(NO_MENTIONS) : emptyOrNull(entities.getMentions(), NO_MENTIONS);
+		this.media = entities.hasMedia() ? entities.getMedia().toArray(NO_MEDIA) : emptyOrNull(entities.getMedia(), NO_MEDIA);
+		this.tickerSymbols = entities.hasTickerSymbols() ? entities.getTickerSymbols().toArray(NO_TICKER_SYMBOLS) : emptyOrNull(entities.getTickerSymbols(), NO_TICKER_SYMBOLS);
+	}
+
+	/**
+	 * Copies a tweet on its own, keeping its profile as it is.
+	 * Use a {@link TweetCompactor} to copy many tweets, so that their authors' profiles are shared.
+	 * @param tweet the tweet to copy
+	 * @return the compact copy, or null if the tweet is null
+	 */
+	public static CompactTweet of(Tweet tweet) {
+		if (tweet == null) {
+			return null;
+		}
+		return new CompactTweet(tweet, tweet.getUser(), of(tweet.getRetweetedStatus()));
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the unmodified text of the tweet, which for a retweet is the text of the original tweet
+	 * @see Tweet#getUnmodifiedText()
+	 */
+	public String getUnmodifiedText() {
+		return isRetweet() ? retweetedStatus.getText() : getText();
+	}
+
+	/**
+	 * @return the time the tweet was created, as a new Date each time, or null if it isn't known
+	 */
+	public Date getCreatedAt() {
+		return createdAt != NO_DATE ? new Date(createdAt) : null;
+	}
+
+	public String getFromUser() {
+		return fromUser;
+	}
+
+	public long getFromUserId() {
+		return fromUserId;
+	}
+
+	public String getProfileImageUrl() {
+		return profileImageUrl;
+	}
+
+	public Long getToUserId() {
+		return toBoxed(toUserId);
+	}
+
+	public Long getInReplyToStatusId() {
+		return toBoxed(inReplyToStatusId);
+	}
+
+	public Long getInReplyToUserId() {
+		return toBoxed(inReplyToUserId);
+	}
+
+	public String getInReplyToScreenName() {
+		return inReplyToScreenName;
+	}
+
+	public String getLanguageCode() {
+		return languageCode;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public Integer getRetweetCount() {
+		return retweetCount != NO_COUNT ? retweetCount : null;
+	}
+
+	public Integer getFavoriteCount() {
+		return favoriteCount != NO_COUNT ? favoriteCount : null;
+	}
+
+	public boolean isRetweeted() {
+		return (flags & RETWEETED) != 0;
+	}
+
+	public boolean isFavorited() {
+		return (flags & FAVORITED) != 0;
+	}
+
+	public Boolean isTruncated() {
+		return (flags & TRUNCATED_KNOWN) != 0 ? (flags & TRUNCATED) != 0 : null;
+	}
+
+	public Boolean isPossiblySensitive() {
+		return (flags & POSSIBLY_SENSITIVE_KNOWN) != 0 ? (flags & POSSIBLY_SENSITIVE) != 0 : null;
+	}
+
+	public boolean isRetweet() {
+		return retweetedStatus != null;
+	}
+
+	public CompactTweet getRetweetedStatus() {
+		return retweetedStatus;
+	}
+
+	/**
+	 * @return the author's profile, which tweets copied by the same {@link TweetCompactor} share
+	 */
+	public TwitterProfile getUser() {
+		return user;
+	}
+
+	public List<UrlEntity> getUrls() {
+		return asList(urls);
+	}
+
+	public List<HashTagEntity> getHashTags() {
+		return asList(hashTags);
+	}
+
+	public List<MentionEntity> getMentions() {
+		return asList(mentions);
+	}
+
+	public List<MediaEntity> getMedia() {
+		return asList(media);
+	}
+
+	public List<TickerSymbolEntity> getTickerSymbols() {
+		return asList(tickerSymbols);
+	}
+
+	public boolean hasUrls() {
+		return urls != null && urls.length > 0;
+	}
+
+	public boolean hasTags() {
+		return hashTags != null && hashTags.length > 0;
+	}
+
+	public boolean hasMentions() {
+		return mentions != null && mentions.length > 0;
+	}
+
+	public boolean hasMedia() {
+		return media != null && media.length > 0;
+	}
+
+	/**
+	 * @return a new Entities holding the tweet's entities, or null if the tweet had none
+	 */
+	public Entities getEntities() {
+		if ((flags & NO_ENTITIES) != 0) {
+			return null;
+		}
+		return new Entities(toList(urls), toList(hashTags), toList(mentions), toList(media), toList(tickerSymbols));
+	}
+
+	/**
+	 * @return a new Tweet with everything this copy kept
+	 */
+	public Tweet toTweet() {
+		Tweet tweet = new Tweet(id, text, getCreatedAt(), fromUser, profileImageUrl, getToUserId(), fromUserId, languageCode, source);
+		tweet.setInReplyToStatusId(getInReplyToStatusId());
+		tweet.setInReplyToUserId(getInReplyToUserId());
+		tweet.setInReplyToScreenName(inReplyToScreenName);
+		tweet.setRetweetCount(getRetweetCount());
+		tweet.setFavoriteCount(getFavoriteCount());
+		tweet.setRetweeted(isRetweeted());
+		tweet.setFavorited(isFavorited());
+		tweet.setTruncated(isTruncated());
+		tweet.setPossiblySensitive(isPossiblySensitive());
+		tweet.setRetweetedStatus(retweetedStatus != null ? retweetedStatus.toTweet() : null);
+		tweet.setUser(user);
+		tweet.setEntities(getEntities());
+		return tweet;
+	}
+
+	private static <T> List<T> asList(T[] entities) {
+		return entities != null && entities.length > 0 ? Collections.unmodifiableList(Arrays.asList(entities)) : Collections.<T>emptyList();
+	}
+
+	private static <T> List<T> toList(T[] entities) {
+		return entities != null ? new ArrayList<T>(Arrays.asList(entities)) : null;
+	}
+
+	// Entities hands out the empty list in place of one Twitter left out, which is kept as null here to be handed back the same way
+	private static <T> T[] emptyOrNull(List<T> entities, T[] empty) {
+		return entities == Collections.<T>emptyList() ? null : empty;
+	}
+
+	private static long toPrimitive(Long id) {
+		return id != null ? id : NO_ID;
+	}
+
+	private static Long toBoxed(long id) {
+		return id != NO_ID ? id : null;
+	}
+
+	private static String intern(String text) {
+		return text != null ? text.intern() : null;
+	}
+
+	private static boolean equal(String first, String second) {
+		return first != null ? first.equals(second) : second == null;
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * What a request does when the rate limit of its endpoint has no calls left in the current window.
+ */
+public enum RateLimitPolicy {
+
+	/**
+	 * Wait for the window to reset, unless that's further off than the longest wait allowed, and then go ahead.
+	 */
+	WAIT,
+
+	/**
+	 * Don't go ahead: throw a {@link TwitterRateLimitExceededException} straight away, carrying the time the window resets at
+	 * for the caller to reschedule the request for.
+	 */
+	FAIL_FAST
+
+}
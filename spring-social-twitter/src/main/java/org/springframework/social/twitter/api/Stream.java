@@ -24,5 +24,13 @@ public interface Stream {
 	void open();
 	
 	void close();
+
+	/**
+	 * @return a snapshot of the stream's throughput, queues, latencies and connection state;
+	 * {@link StreamMetrics#EMPTY} unless the stream keeps metrics, as the streams StreamingTemplate opens do
+	 */
+	default StreamMetrics getMetrics() {
+		return StreamMetrics.EMPTY;
+	}
 	
 }
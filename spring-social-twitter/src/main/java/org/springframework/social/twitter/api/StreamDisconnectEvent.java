@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * Notice sent by Twitter just before it closes a stream connection.
+ */
+public class StreamDisconnectEvent extends TwitterObject {
+
+	private final int code;
+
+	private final String streamName;
+
+	private final String reason;
+
+	public StreamDisconnectEvent(int code, String streamName, String reason) {
+		this.code = code;
+		this.streamName = streamName;
+		this.reason = reason;
+	}
+
+	/**
+	 * @return Twitter's code for why the stream is being disconnected (e.g., 4 for a stalled connection, 7 for a duplicate connection)
+	 */
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * @return the name of the stream being disconnected
+	 */
+	public String getStreamName() {
+		return streamName;
+	}
+
+	/**
+	 * @return a human readable description of the reason
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.Date;
+
+/**
+ * A user stream event, such as a follow, a favorite or a change to a list.
+ */
+public class StreamEvent extends TwitterObject {
+
+	private final String eventName;
+
+	private final TwitterProfile source;
+
+	private final TwitterProfile target;
+
+	private final Tweet targetTweet;
+
+	private final UserList targetList;
+
+	private final Date createdAt;
+
+	public StreamEvent(String eventName, TwitterProfile source, TwitterProfile target, Tweet targetTweet, UserList targetList, Date createdAt) {
+		this.eventName = eventName;
+		this.source = source;
+		this.target = target;
+		this.targetTweet = targetTweet;
+		this.targetList = targetList;
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * @return the name of the event as sent by Twitter (e.g., "follow", "favorite", "list_member_added")
+	 */
+	public String getEventName() {
+		return eventName;
+	}
+
+	/**
+	 * @return the user who performed the action
+	 */
+	public TwitterProfile getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the user the action was performed on
+	 */
+	public TwitterProfile getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the tweet the action was performed on, or null if the event isn't about a tweet
+	 */
+	public Tweet getTargetTweet() {
+		return targetTweet;
+	}
+
+	/**
+	 * @return the list the action was performed on, or null if the event isn't about a list
+	 */
+	public UserList getTargetList() {
+		return targetList;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+}
@@ -15,10 +15,11 @@
  */
 package org.springframework.social.twitter.api;
 
-
+import java.util.List;
 
 /**
  * Listener interface for clients consuming data from a Twitter stream.
+ * Only tweets, deletes, limits and warnings must be handled; the remaining callbacks do nothing unless overridden.
  * @author Craig Walls
  */
 public interface StreamListener {
@@ -46,5 +47,42 @@ public interface StreamListener {
 	 * @param warningEvent a warning event
 	 */
 	void onWarning(StreamWarningEvent warningEvent);
-	
+
+	/**
+	 * Called when geolocation data should be stripped from a range of a user's tweets.
+	 * @param scrubGeoEvent a scrub geo event
+	 */
+	default void onScrubGeo(StreamScrubGeoEvent scrubGeoEvent) {}
+
+	/**
+	 * Called when a tweet has been withheld in certain countries.
+	 * @param statusWithheldEvent a status withheld event
+	 */
+	default void onStatusWithheld(StreamStatusWithheldEvent statusWithheldEvent) {}
+
+	/**
+	 * Called when a user has been withheld in certain countries.
+	 * @param userWithheldEvent a user withheld event
+	 */
+	default void onUserWithheld(StreamUserWithheldEvent userWithheldEvent) {}
+
+	/**
+	 * Called when Twitter announces it is about to close the stream connection.
+	 * The stream reconnects on its own; this is informational.
+	 * @param disconnectEvent a disconnect event
+	 */
+	default void onDisconnect(StreamDisconnectEvent disconnectEvent) {}
+
+	/**
+	 * Called at the start of a user stream with the IDs of the users the authenticating user follows.
+	 * @param friendIds the IDs of the user's friends
+	 */
+	default void onFriends(List<Long> friendIds) {}
+
+	/**
+	 * Called when a user stream event, such as a follow or a favorite, is available on the stream.
+	 * @param event a user stream event
+	 */
+	default void onEvent(StreamEvent event) {}
+
 }
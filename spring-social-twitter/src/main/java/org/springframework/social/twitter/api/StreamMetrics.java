@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.io.Serializable;
+
+/**
+ * A point-in-time snapshot of a stream's throughput, queues, latencies and connection state.
+ * Counts cover the whole life of the stream, across reconnects.
+ */
+public final class StreamMetrics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The metrics of a stream that doesn't keep any: every count is zero and the stream isn't known to be connected.
+	 */
+	public static final StreamMetrics EMPTY = new StreamMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, false, 0);
+
+	private final long messagesReceived;
+
+	private final double messagesPerSecond;
+
+	private final long messagesParsed;
+
+	private final long parseErrors;
+
+	private final long meanParseNanos;
+
+	private final long maxParseNanos;
+
+	private final long listenerCalls;
+
+	private final long meanListenerNanos;
+
+	private final long maxListenerNanos;
+
+	private final int dispatcherQueueDepth;
+
+	private final int listenerQueueDepth;
+
+	private final long backpressureDropped;
+
+	private final long listenerDropped;
+
+	private final long limitNotices;
+
+	private final long limitedTweets;
+
+	private final long reconnects;
+
+	private final boolean connected;
+
+	private final long backoffMillis;
+
+	public StreamMetrics(long messagesReceived, double messagesPerSecond, long messagesParsed, long parseErrors, long meanParseNanos, long maxParseNanos,
+			long listenerCalls, long meanListenerNanos, long maxListenerNanos, int dispatcherQueueDepth, int listenerQueueDepth,
+			long backpressureDropped, long listenerDropped, long limitNotices, long limitedTweets, long reconnects, boolean connected, long backoffMillis) {
+		this.messagesReceived = messagesReceived;
+		this.messagesPerSecond = messagesPerSecond;
+		this.messagesParsed = messagesParsed;
+		this.parseErrors = parseErrors;
+		this.meanParseNanos = meanParseNanos;
+		this.maxParseNanos = maxParseNanos;
+		this.listenerCalls = listenerCalls;
+		this.meanListenerNanos = meanListenerNanos;
+		this.maxListenerNanos = maxListenerNanos;
+		this.dispatcherQueueDepth = dispatcherQueueDepth;
+		this.listenerQueueDepth = listenerQueueDepth;
+		this.backpressureDropped = backpressureDropped;
+		this.listenerDropped = listenerDropped;
+		this.limitNotices = limitNotices;
+		this.limitedTweets = limitedTweets;
+		this.reconnects = reconnects;
+		this.connected = connected;
+		this.backoffMillis = backoffMillis;
+	}
+
+	/**
+	 * @return the number of messages read off the connection, keep-alives aside
+	 */
+	public long getMessagesReceived() {
+		return messagesReceived;
+	}
+
+	/**
+	 * @return the rate messages were received at over roughly the last second, or longer if metrics are read less often
+	 */
+	public double getMessagesPerSecond() {
+		return messagesPerSecond;
+	}
+
+	/**
+	 * @return the number of messages mapped to model objects by the dispatcher
+	 */
+	public long getMessagesParsed() {
+		return messagesParsed;
+	}
+
+	/**
+	 * @return the number of messages that couldn't be mapped and were skipped
+	 */
+	public long getParseErrors() {
+		return parseErrors;
+	}
+
+	public long getMeanParseNanos() {
+		return meanParseNanos;
+	}
+
+	public long getMaxParseNanos() {
+		return maxParseNanos;
+	}
+
+	/**
+	 * @return the number of listener callbacks made, summed over every listener; a batch counts as one call
+	 */
+	public long getListenerCalls() {
+		return listenerCalls;
+	}
+
+	public long getMeanListenerNanos() {
+		return meanListenerNanos;
+	}
+
+	public long getMaxListenerNanos() {
+		return maxListenerNanos;
+	}
+
+	/**
+	 * @return the number of messages waiting between the connection and the dispatcher
+	 */
+	public int getDispatcherQueueDepth() {
+		return dispatcherQueueDepth;
+	}
+
+	/**
+	 * @return the number of messages waiting to be delivered, summed over every listener
+	 */
+	public int getListenerQueueDepth() {
+		return listenerQueueDepth;
+	}
+
+	/**
+	 * @return the number of messages discarded by the backpressure policy
+	 */
+	public long getBackpressureDropped() {
+		return backpressureDropped;
+	}
+
+	/**
+	 * @return the number of messages discarded by the listener overflow policy, summed over every listener
+	 */
+	public long getListenerDropped() {
+		return listenerDropped;
+	}
+
+	/**
+	 * @return the number of limit notices received, each also delivered to {@link StreamListener#onLimit(int)}
+	 */
+	public long getLimitNotices() {
+		return limitNotices;
+	}
+
+	/**
+	 * @return the number of undelivered tweets given by the most recent limit notice
+	 */
+	public long getLimitedTweets() {
+		return limitedTweets;
+	}
+
+	/**
+	 * @return the number of times the stream has connected again after its first connection
+	 */
+	public long getReconnects() {
+		return reconnects;
+	}
+
+	/**
+	 * @return true if the stream currently has a connection open
+	 */
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * @return how long the stream is waiting before its next attempt to connect, or 0 if it isn't backing off
+	 */
+	public long getBackoffMillis() {
+		return backoffMillis;
+	}
+
+}
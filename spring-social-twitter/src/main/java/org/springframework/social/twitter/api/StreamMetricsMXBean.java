@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * The management interface a stream's metrics are exported through when the StreamingTemplate that opened it was given an MBean server.
+ * The attributes of one poll are read from the same {@link StreamMetrics} snapshot.
+ */
+public interface StreamMetricsMXBean {
+
+	long getMessagesReceived();
+
+	double getMessagesPerSecond();
+
+	long getMessagesParsed();
+
+	long getParseErrors();
+
+	long getMeanParseNanos();
+
+	long getMaxParseNanos();
+
+	long getListenerCalls();
+
+	long getMeanListenerNanos();
+
+	long getMaxListenerNanos();
+
+	int getDispatcherQueueDepth();
+
+	int getListenerQueueDepth();
+
+	long getBackpressureDropped();
+
+	long getListenerDropped();
+
+	long getLimitNotices();
+
+	long getLimitedTweets();
+
+	long getReconnects();
+
+	boolean isConnected();
+
+	long getBackoffMillis();
+
+}
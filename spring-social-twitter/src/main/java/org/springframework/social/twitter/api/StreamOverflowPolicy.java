@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * What a stream does when a bounded queue between two of its stages is full.
+ */
+public enum StreamOverflowPolicy {
+
+	/**
+	 * Wait for room, holding up the stage that feeds the queue. Nothing is lost.
+	 */
+	BLOCK,
+
+	/**
+	 * Discard the oldest queued message to make room for the new one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Discard the new message.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Once the queue is three-quarters full, keep only one in every N new messages and discard the rest,
+	 * thinning out a burst instead of cutting it off. N is the stream's sample rate.
+	 * Messages that still don't fit are discarded.
+	 */
+	SAMPLE
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * Notice that geolocation data should be stripped from a range of a user's tweets.
+ */
+public class StreamScrubGeoEvent extends TwitterObject {
+
+	private final long userId;
+
+	private final long upToStatusId;
+
+	public StreamScrubGeoEvent(long userId, long upToStatusId) {
+		this.userId = userId;
+		this.upToStatusId = upToStatusId;
+	}
+
+	/**
+	 * @return the ID of the user whose tweets should be scrubbed
+	 */
+	public long getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return the ID of the most recent tweet to scrub; all of the user's tweets up to and including this one are affected
+	 */
+	public long getUpToStatusId() {
+		return upToStatusId;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.List;
+
+/**
+ * Notice that a user's content has been withheld in certain countries.
+ */
+public class StreamUserWithheldEvent extends TwitterObject {
+
+	private final long userId;
+
+	private final List<String> withheldInCountries;
+
+	public StreamUserWithheldEvent(long userId, List<String> withheldInCountries) {
+		this.userId = userId;
+		this.withheldInCountries = withheldInCountries;
+	}
+
+	/**
+	 * @return the ID of the withheld user
+	 */
+	public long getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return the two-letter codes of the countries the user is withheld in
+	 */
+	public List<String> getWithheldInCountries() {
+		return withheldInCountries;
+	}
+
+}
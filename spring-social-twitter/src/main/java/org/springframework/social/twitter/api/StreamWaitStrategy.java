@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+/**
+ * Strategies available to a stream's dispatcher thread while it waits for the reader to hand off the next message.
+ */
+public enum StreamWaitStrategy {
+
+	/**
+	 * Spin briefly, then park the dispatcher thread until the reader publishes a message.
+	 * Lowest CPU usage; the right choice for most applications.
+	 */
+	BLOCKING,
+
+	/**
+	 * Spin briefly, then repeatedly yield the dispatcher thread.
+	 * Lower latency than {@link #BLOCKING} at the cost of some CPU while the stream is idle.
+	 */
+	YIELDING,
+
+	/**
+	 * Spin continuously on the handoff buffer.
+	 * Lowest latency, but keeps one core busy for as long as the stream is open.
+	 */
+	BUSY_SPIN
+
+}
@@ -71,4 +71,48 @@ public interface StreamingOperations {
 	
 	Stream user(UserStreamParameters parameters, List<StreamListener> listeners);
 
+	/**
+	 * Sets how a stream's dispatcher thread waits for the reader to hand off the next message.
+	 * Applies to streams opened after this call. Defaults to {@link StreamWaitStrategy#BLOCKING}.
+	 * @param waitStrategy the wait strategy for the handoff between reader and dispatcher
+	 * @throws UnsupportedOperationException if the streams of this implementation can't be tuned
+	 */
+	default void setWaitStrategy(StreamWaitStrategy waitStrategy) {
+		throw new UnsupportedOperationException("Wait strategy isn't configurable");
+	}
+
+	/**
+	 * Sets how many messages read off the connection may wait for the stream's dispatcher.
+	 * Applies to streams opened after this call. Defaults to 8192.
+	 * @param capacity the maximum number of messages waiting between the connection and the dispatcher
+	 * @throws UnsupportedOperationException if the streams of this implementation can't be tuned
+	 */
+	default void setBackpressureQueueCapacity(int capacity) {
+		throw new UnsupportedOperationException("Backpressure isn't configurable");
+	}
+
+	/**
+	 * Sets what happens when messages arrive faster than the stream's dispatcher takes them.
+	 * With {@link StreamOverflowPolicy#BLOCK}, the default, the connection stops being read until there is room,
+	 * which Twitter eventually answers by disconnecting a stream that falls too far behind.
+	 * The other policies keep reading and discard messages instead; each stream counts every message it discards
+	 * in {@link StreamMetrics#getBackpressureDropped()}, read through {@link Stream#getMetrics()}.
+	 * Applies to streams opened after this call.
+	 * @param policy the policy applied between the connection and the dispatcher
+	 * @throws UnsupportedOperationException if the streams of this implementation can't be tuned
+	 */
+	default void setBackpressurePolicy(StreamOverflowPolicy policy) {
+		throw new UnsupportedOperationException("Backpressure isn't configurable");
+	}
+
+	/**
+	 * Sets how many messages {@link StreamOverflowPolicy#SAMPLE} keeps under load: one in every sampleRate.
+	 * Applies to both the backpressure and listener queues of streams opened after this call. Defaults to 10.
+	 * @param sampleRate the N in "keep one in every N"
+	 * @throws UnsupportedOperationException if the streams of this implementation can't be tuned
+	 */
+	default void setSampleRate(int sampleRate) {
+		throw new UnsupportedOperationException("Backpressure isn't configurable");
+	}
+
 }
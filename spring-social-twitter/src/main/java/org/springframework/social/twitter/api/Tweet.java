@@ -15,8 +15,11 @@
  */
 package org.springframework.social.twitter.api;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Date;
+import java.util.function.Supplier;
 
 /**
  * Represents a Twitter status update (e.g., a "tweet").
@@ -46,6 +49,7 @@ public class Tweet extends TwitterObject implements Serializable {
     private Boolean truncated;
     private Boolean possiblySensitive;
     private Entities entities;
+    private transient volatile Supplier<Entities> lazyEntities;
     private TwitterProfile user;
 
     public Tweet(
@@ -223,39 +227,63 @@ public class Tweet extends TwitterObject implements Serializable {
     }
 
     public Entities getEntities() {
+        if (this.lazyEntities != null) {
+            synchronized (this) {
+                Supplier<Entities> supplier = this.lazyEntities;
+                if (supplier != null) {
+                    this.entities = supplier.get();
+                    this.lazyEntities = null;
+                }
+            }
+        }
         return this.entities;
     }
 
     public void setEntities(final Entities ent) {
         this.entities = ent;
+        this.lazyEntities = null;
+    }
+
+    /**
+     * Defers building the tweet's entities until {@link #getEntities()} is first called, for consumers that mostly never look at them.
+     * The supplier is called at most once, even if several threads ask for the entities at the same time.
+     * @param supplier builds the tweet's entities, or returns null if it has none
+     */
+    public void setLazyEntities(final Supplier<Entities> supplier) {
+        this.entities = null;
+        this.lazyEntities = supplier;
     }
 
     public boolean hasMentions() {
-        if (this.entities == null) {
+        Entities entities = getEntities();
+        if (entities == null) {
             return false;
         }
-        return !this.entities.getMentions().isEmpty();
+        return !entities.getMentions().isEmpty();
     }
 
     public boolean hasMedia() {
-        if (this.entities == null) {
+        Entities entities = getEntities();
+        if (entities == null) {
             return false;
         }
-        return !this.entities.getMedia().isEmpty();
+        return !entities.getMedia().isEmpty();
     }
 
     public boolean hasUrls() {
-        if (this.entities == null) {
+        Entities entities = getEntities();
+        if (entities == null) {
             return false;
         }
-        return !this.entities.getUrls().isEmpty();
+        return !entities.getUrls().isEmpty();
     }
 
     public boolean hasTags() {
-        if (this.entities == null) {
+        Entities entities = getEntities();
+        if (entities == null) {
             return false;
         }
-        return !this.entities.getHashTags().isEmpty();
+        return !entities.getHashTags().isEmpty();
     }
 
     public TwitterProfile getUser() {
@@ -305,7 +333,8 @@ public class Tweet extends TwitterObject implements Serializable {
         if (createdAt != null ? !createdAt.equals(tweet.createdAt) : tweet.createdAt != null) {
             return false;
         }
-        if (entities != null ? !entities.equals(tweet.entities) : tweet.entities != null) {
+        Entities entities = getEntities();
+        if (entities != null ? !entities.equals(tweet.getEntities()) : tweet.getEntities() != null) {
             return false;
         }
         if (fromUser != null ? !fromUser.equals(tweet.fromUser) : tweet.fromUser != null) {
@@ -365,8 +394,14 @@ public class Tweet extends TwitterObject implements Serializable {
         result = 31 * result + (retweetCount != null ? retweetCount.hashCode() : 0);
         result = 31 * result + (retweeted ? 1 : 0);
         result = 31 * result + (retweetedStatus != null ? retweetedStatus.hashCode() : 0);
+        Entities entities = getEntities();
         result = 31 * result + (entities != null ? entities.hashCode() : 0);
         result = 31 * result + (user != null ? user.hashCode() : 0);
         return result;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getEntities(); // lazy entities aren't serializable until they're built
+        out.defaultWriteObject();
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Copies tweets into {@link CompactTweet}s, sharing one {@link TwitterProfile} between every tweet by the same author.
+ * <p>
+ * The first profile seen for a user is kept and handed to that user's later tweets for as long as their screen name, name and
+ * profile image stay the same, so counts such as the number of followers are those of the first tweet kept.
+ * A changed profile replaces the kept one for the tweets that follow. Up to a given number of users are kept;
+ * past that, the tweets of users not yet seen keep their own profiles.
+ * It's thread-safe.
+ * </p>
+ */
+public class TweetCompactor {
+
+	private static final int DEFAULT_MAX_PROFILES = 1000000;
+
+	private final ConcurrentMap<Long, TwitterProfile> profiles = new ConcurrentHashMap<Long, TwitterProfile>();
+
+	private final int maxProfiles;
+
+	/**
+	 * Creates a compactor that keeps the profiles of up to a million users.
+	 */
+	public TweetCompactor() {
+		this(DEFAULT_MAX_PROFILES);
+	}
+
+	/**
+	 * @param maxProfiles the most users whose profiles are kept to be shared
+	 */
+	public TweetCompactor(int maxProfiles) {
+		this.maxProfiles = maxProfiles;
+	}
+
+	/**
+	 * @param tweet the tweet to copy
+	 * @return the compact copy, or null if the tweet is null
+	 */
+	public CompactTweet compact(Tweet tweet) {
+		if (tweet == null) {
+			return null;
+		}
+		return new CompactTweet(tweet, share(tweet.getUser()), compact(tweet.getRetweetedStatus()));
+	}
+
+	/**
+	 * @return the number of users whose profiles are kept
+	 */
+	public int getProfileCount() {
+		return profiles.size();
+	}
+
+	/**
+	 * Forgets the kept profiles. Tweets copied before keep the profiles they were given.
+	 */
+	public void clear() {
+		profiles.clear();
+	}
+
+	private TwitterProfile share(TwitterProfile profile) {
+		if (profile == null) {
+			return null;
+		}
+		Long userId = profile.getId();
+		TwitterProfile kept = profiles.get(userId);
+		if (kept == null) {
+			if (profiles.size() >= maxProfiles) {
+				return profile;
+			}
+			kept = profiles.putIfAbsent(userId, profile);
+			if (kept == null) {
+				return profile;
+			}
+		}
+		if (sameAuthor(kept, profile)) {
+			return kept;
+		}
+		profiles.replace(userId, kept, profile);
+		return profile;
+	}
+
+	private static boolean sameAuthor(TwitterProfile kept, TwitterProfile profile) {
+		return equal(kept.getScreenName(), profile.getScreenName()) && equal(kept.getName(), profile.getName())
+				&& equal(kept.getProfileImageUrl(), profile.getProfileImageUrl());
+	}
+
+	private static boolean equal(String first, String second) {
+		return first != null ? first.equals(second) : second == null;
+	}
+
+}
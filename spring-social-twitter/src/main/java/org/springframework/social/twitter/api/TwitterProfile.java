@@ -353,7 +353,7 @@ public class TwitterProfile extends TwitterObject implements Serializable {
 		if (this == o) {
 			return true;
 		}
-		if (o == null || getClass() != o.getClass()) {
+		if (!(o instanceof TwitterProfile)) {
 			return false;
 		}
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api;
+
+import org.springframework.social.RateLimitExceededException;
+
+/**
+ * Exception indicating that a rate limit has been exceeded, carrying the limit's status as Twitter's x-rate-limit-* headers
+ * gave it, so that the request can be retried once the window resets.
+ */
+@SuppressWarnings("serial")
+public class TwitterRateLimitExceededException extends RateLimitExceededException {
+
+	private final RateLimitStatus rateLimitStatus;
+
+	public TwitterRateLimitExceededException(RateLimitStatus rateLimitStatus) {
+		super("twitter");
+		this.rateLimitStatus = rateLimitStatus;
+	}
+
+	/**
+	 * @return the status of the limit that was exceeded, or null if the response didn't say
+	 */
+	public RateLimitStatus getRateLimitStatus() {
+		return rateLimitStatus;
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.advertising;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link StatisticsOperations}.
+ */
+public interface AsyncStatisticsOperations {
+
+    /**
+     * @see StatisticsOperations#byAccounts(String, StatisticsOfAccountQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byAccounts(String accountId, StatisticsOfAccountQuery query);
+
+    /**
+     * @see StatisticsOperations#byCampaigns(String, StatisticsOfCampaignQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byCampaigns(String accountId, StatisticsOfCampaignQuery query);
+
+    /**
+     * @see StatisticsOperations#byCampaign(String, String, StatisticsOfCampaignQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byCampaign(String accountId, String campaignId, StatisticsOfCampaignQuery query);
+
+    /**
+     * @see StatisticsOperations#byFundingInstruments(String, StatisticsOfFundingInstrumentQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byFundingInstruments(String accountId, StatisticsOfFundingInstrumentQuery query);
+
+    /**
+     * @see StatisticsOperations#byFundingInstrument(String, String, StatisticsOfFundingInstrumentQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byFundingInstrument(String accountId, String fundingInstrumentId, StatisticsOfFundingInstrumentQuery query);
+
+    /**
+     * @see StatisticsOperations#byLineItems(String, StatisticsOfLineItemQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byLineItems(String accountId, StatisticsOfLineItemQuery query);
+
+    /**
+     * @see StatisticsOperations#byLineItem(String, String, StatisticsOfLineItemQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byLineItem(String accountId, String lineItemId, StatisticsOfLineItemQuery query);
+
+    /**
+     * @see StatisticsOperations#byPromotedAccounts(String, StatisticsOfPromotedAccountQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byPromotedAccounts(String accountId, StatisticsOfPromotedAccountQuery query);
+
+    /**
+     * @see StatisticsOperations#byPromotedAccount(String, String, StatisticsOfPromotedAccountQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byPromotedAccount(String accountId, String promotedAccountId, StatisticsOfPromotedAccountQuery query);
+
+    /**
+     * @see StatisticsOperations#byPromotedTweets(String, StatisticsOfPromotedTweetQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byPromotedTweets(String accountId, StatisticsOfPromotedTweetQuery query);
+
+    /**
+     * @see StatisticsOperations#byPromotedTweet(String, String, StatisticsOfPromotedTweetQuery)
+     */
+    CompletableFuture<List<StatisticsSnapshot>> byPromotedTweet(String accountId, String promotedTweetId, StatisticsOfPromotedTweetQuery query);
+
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.social.twitter.api.advertising;
 
+import java.math.BigDecimal;
+
 /**
  * Possible metrics that can be retrieved in a {@link StatisticsSnapshot}.
  * 
@@ -768,4 +770,11 @@ public enum StatisticsMetric {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * @return whether the metric is an amount of money, which Twitter sends as a whole number of micros (millionths of the currency's unit)
+     */
+    public boolean isMicroAmount() {
+        return valueType == BigDecimal.class || name().endsWith("_micro");
+    }
 }
@@ -17,7 +17,7 @@ package org.springframework.social.twitter.api.advertising;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 import org.springframework.social.twitter.api.TwitterObject;
@@ -32,7 +32,7 @@ public class StatisticsSnapshot extends TwitterObject {
     private final String id;
     private final StatisticsSegmentation segmentation;
     private final StatisticsGranularity granularity;
-    private final Map<StatisticsMetric, StatisticsSnapshotMetric> metrics = new HashMap<StatisticsMetric, StatisticsSnapshotMetric>();
+    private final Map<StatisticsMetric, StatisticsSnapshotMetric> metrics = new EnumMap<StatisticsMetric, StatisticsSnapshotMetric>(StatisticsMetric.class);
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
 
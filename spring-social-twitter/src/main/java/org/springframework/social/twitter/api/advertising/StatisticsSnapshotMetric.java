@@ -15,23 +15,55 @@
  */
 package org.springframework.social.twitter.api.advertising;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import org.springframework.social.twitter.api.TwitterObject;
 
 /**
  * Represents a metric that has been retrieved by the Ads statistics endpoint.
+ * <p>
+ * The entries are kept as a primitive series: counts in a long[] (or a double[] once any of them has decimals),
+ * amounts of money as the exact number of micros Twitter sent, and breakdowns as arrays of keys and values.
+ * {@link #entries()} boxes them into the Long, Float, BigDecimal and Map.Entry values it has always returned;
+ * {@link #size()}, {@link #getLong(int)}, {@link #getDouble(int)} and {@link #getAmount(int)} read them without boxing.
+ * </p>
  * 
  * @author Hudson Mendes
  */
 public class StatisticsSnapshotMetric extends TwitterObject {
+    private static final long[] NO_LONGS = {};
+    private static final String[] NO_STRINGS = {};
+
     private final StatisticsMetric name;
-    private final List<Object> entries;
+    private final int size;
+    private final long[] longs;
+    private final double[] doubles;
+    private final BitSet decimals;
+    private final String[] keys;
+    private final String[] values;
+    private final Object[] entries;
 
     public StatisticsSnapshotMetric(StatisticsMetric name, List<Object> entries) {
+        this(name, fill(new Builder(name), entries), entries.toArray());
+    }
+
+    private StatisticsSnapshotMetric(StatisticsMetric name, Builder builder, Object[] entries) {
+        boolean breakdown = builder != null && builder.keys != NO_STRINGS;
+        boolean decimal = builder != null && builder.doubles != null;
         this.name = name;
-        this.entries = new ArrayList<>(entries);
+        this.size = entries != null ? entries.length : builder.size;
+        this.longs = builder != null && !breakdown && !decimal ? Arrays.copyOf(builder.longs, builder.size) : null;
+        this.doubles = decimal ? Arrays.copyOf(builder.doubles, builder.size) : null;
+        this.decimals = decimal ? (BitSet) builder.decimals.clone() : null;
+        this.keys = breakdown ? Arrays.copyOf(builder.keys, builder.size) : null;
+        this.values = breakdown ? Arrays.copyOf(builder.values, builder.size) : null;
+        this.entries = entries;
     }
 
     public StatisticsMetricFamily getFamily() {
@@ -48,8 +80,191 @@ public class StatisticsSnapshotMetric extends TwitterObject {
 
     @SuppressWarnings("unchecked")
     public <TEntry> List<TEntry> entries() {
-        List<TEntry> casted = new ArrayList<>();
-        this.entries.forEach(i -> casted.add((TEntry) i));
+        List<TEntry> casted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            casted.add((TEntry) entry(i));
+        }
         return casted;
     }
+
+    /**
+     * @return the number of entries, as {@link #entries()} would list them
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the entry's position
+     * @return a count, with any decimals dropped, or the exact number of micros of an amount of money
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        if (longs != null) {
+            return longs[index];
+        }
+        if (doubles != null) {
+            return (long) doubles[index];
+        }
+        throw notNumbers();
+    }
+
+    /**
+     * @param index the entry's position
+     * @return a count, or an amount of money in the currency's units
+     */
+    public double getDouble(int index) {
+        checkIndex(index);
+        if (doubles != null) {
+            return doubles[index];
+        }
+        if (longs != null) {
+            return name.isMicroAmount() ? longs[index] / 1000000.00 : longs[index];
+        }
+        throw notNumbers();
+    }
+
+    /**
+     * Unlike the BigDecimal {@link #entries()} holds, which is rounded through a double, this is exactly the amount Twitter sent.
+     * @param index the entry's position
+     * @return an amount of money in the currency's units
+     */
+    public BigDecimal getAmount(int index) {
+        if (!name.isMicroAmount()) {
+            throw new IllegalStateException(name + " isn't an amount of money");
+        }
+        return BigDecimal.valueOf(getLong(index), 6);
+    }
+
+    private Object entry(int index) {
+        if (entries != null) {
+            return entries[index];
+        }
+        if (keys != null) {
+            return new AbstractMap.SimpleEntry<String, String>(keys[index], values[index]);
+        }
+        if (doubles != null) {
+            return decimals.get(index) ? (Object) (float) doubles[index] : (Object) (long) doubles[index];
+        }
+        if (name.getValueType() == BigDecimal.class) {
+            // rounded as BigDecimalMicroAmountDeserializer rounds them
+            return new BigDecimal(longs[index] / 1000000.00).round(MathContext.DECIMAL32);
+        }
+        return longs[index];
+    }
+
+    private IllegalStateException notNumbers() {
+        return new IllegalStateException("The entries of " + name + " aren't numbers");
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    // entries given as objects are kept as they are, and as a series too where they're all numbers, so that they can be read the same way
+    private static Builder fill(Builder builder, List<Object> entries) {
+        for (Object entry : entries) {
+            if (!(entry instanceof Number)) {
+                return null;
+            }
+            if (entry instanceof BigDecimal && builder.name.isMicroAmount()) {
+                builder.addMicroAmount(((BigDecimal) entry).movePointRight(6).longValue());
+            }
+            else if (entry instanceof Long || entry instanceof Integer) {
+                builder.addCount(((Number) entry).longValue());
+            }
+            else {
+                builder.addDecimal(((Number) entry).doubleValue());
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Builds a metric entry by entry, straight into its primitive series.
+     */
+    public static final class Builder {
+        private final StatisticsMetric name;
+        private int size;
+        private long[] longs = NO_LONGS;
+        private double[] doubles;
+        private BitSet decimals;
+        private String[] keys = NO_STRINGS;
+        private String[] values = NO_STRINGS;
+
+        public Builder(StatisticsMetric name) {
+            this.name = name;
+        }
+
+        public Builder addCount(long count) {
+            checkNumbers(keys == NO_STRINGS);
+            if (doubles != null) {
+                return add(count, false);
+            }
+            ensureLongs();
+            longs[size++] = count;
+            return this;
+        }
+
+        /**
+         * Adds a count that Twitter wrote with decimals, which {@link StatisticsSnapshotMetric#entries()} gives back as a Float.
+         */
+        public Builder addDecimal(double count) {
+            checkNumbers(keys == NO_STRINGS);
+            if (doubles == null) {
+                doubles = new double[Math.max(longs.length, 8)];
+                decimals = new BitSet();
+                for (int i = 0; i < size; i++) {
+                    doubles[i] = longs[i];
+                }
+            }
+            return add(count, true);
+        }
+
+        /**
+         * Adds an amount of money as the whole number of micros Twitter sent, which is kept exactly.
+         */
+        public Builder addMicroAmount(long micros) {
+            return addCount(micros);
+        }
+
+        public Builder addBreakdown(String key, String value) {
+            checkNumbers(keys != NO_STRINGS || size == 0);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(size * 2, 8));
+                values = Arrays.copyOf(values, keys.length);
+            }
+            keys[size] = key;
+            values[size++] = value;
+            return this;
+        }
+
+        public StatisticsSnapshotMetric build() {
+            return new StatisticsSnapshotMetric(name, this, null);
+        }
+
+        private Builder add(double count, boolean decimal) {
+            if (size == doubles.length) {
+                doubles = Arrays.copyOf(doubles, size * 2);
+            }
+            decimals.set(size, decimal);
+            doubles[size++] = count;
+            return this;
+        }
+
+        // a metric is either a series of numbers or a breakdown, never both
+        private void checkNumbers(boolean consistent) {
+            if (!consistent) {
+                throw new IllegalStateException("The entries of " + name + " can't be both numbers and a breakdown");
+            }
+        }
+
+        private void ensureLongs() {
+            if (size == longs.length) {
+                longs = Arrays.copyOf(longs, Math.max(size * 2, 8));
+            }
+        }
+    }
 }
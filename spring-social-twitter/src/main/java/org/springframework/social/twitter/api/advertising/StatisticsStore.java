@@ -0,0 +1,332 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.advertising;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the series of {@link StatisticsSnapshot}s in memory, so that reports over overlapping windows can be rolled up
+ * locally instead of asking the ads API for the same figures again.
+ * <p>
+ * Snapshots are added as {@link StatisticsOperations} returns them. Each numeric metric of a snapshot becomes a series keyed by
+ * account, entity (the snapshot's id), metric, segmentation and the granularity it was asked for, held as a column of hours
+ * and a column of values. A value for an hour the series already holds replaces it, since a window fetched again carries
+ * the later figures; nothing is ever removed but by {@link #clear()}. Breakdown metrics and {@link StatisticsGranularity#TOTAL}
+ * snapshots, which can't be placed on an hour, aren't kept.
+ * </p>
+ * <p>
+ * {@link #rollup(String, StatisticsMetric)} sums a metric by hour, by day or over the whole window, across entities and
+ * segments or grouped by either, reading the matching series in parallel. Amounts of money are summed in micros.
+ * Values are summed as doubles, which is exact for whole numbers up to 2<sup>53</sup>. It's thread-safe.
+ * </p>
+ */
+public class StatisticsStore {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final ConcurrentMap<SeriesKey, Series> series = new ConcurrentHashMap<SeriesKey, Series>();
+
+    /**
+     * @param accountId the ads account the snapshot was asked for
+     * @param snapshot a snapshot as {@link StatisticsOperations} returned it
+     */
+    public void add(String accountId, StatisticsSnapshot snapshot) {
+        if (snapshot == null || snapshot.getGranularity() == StatisticsGranularity.TOTAL || snapshot.getStartTime() == null) {
+            return;
+        }
+        int startHour = toHour(snapshot.getStartTime());
+        int step = snapshot.getGranularity() == StatisticsGranularity.DAY ? 24 : 1;
+        StatisticsSegmentation segmentation = snapshot.getSegmentation();
+        for (StatisticsSnapshotMetric metric : snapshot.getMetrics()) {
+            if (metric.getName().getValueType() == Object.class) {
+                continue;
+            }
+            SeriesKey key = new SeriesKey(accountId, snapshot.getId(), metric.getName(),
+                    segmentation != null ? segmentation.getType() : null, segmentation != null ? segmentation.getValue() : null,
+                    snapshot.getGranularity());
+            Series stored = series.get(key);
+            if (stored == null) {
+                Series created = new Series(key);
+                stored = series.putIfAbsent(key, created);
+                if (stored == null) {
+                    stored = created;
+                }
+            }
+            stored.put(startHour, step, metric);
+        }
+    }
+
+    /**
+     * @param accountId the ads account the snapshots were asked for
+     * @param snapshots snapshots as {@link StatisticsOperations} returned them
+     */
+    public void addAll(String accountId, List<StatisticsSnapshot> snapshots) {
+        for (StatisticsSnapshot snapshot : snapshots) {
+            add(accountId, snapshot);
+        }
+    }
+
+    /**
+     * Starts a rollup of a metric of an account, over every entity, unsegmented and at hourly granularity until told otherwise.
+     * @param accountId the ads account
+     * @param metric the metric to sum
+     * @return the rollup, to be narrowed down and then {@link Rollup#compute() computed}
+     */
+    public Rollup rollup(String accountId, StatisticsMetric metric) {
+        return new Rollup(accountId, metric);
+    }
+
+    /**
+     * @return the number of series held
+     */
+    public int getSeriesCount() {
+        return series.size();
+    }
+
+    /**
+     * Forgets every series.
+     */
+    public void clear() {
+        series.clear();
+    }
+
+    private static double[] add(double[] sums, double[] more) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += more[i];
+        }
+        return sums;
+    }
+
+    private static int toHour(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    /**
+     * How a {@link Rollup} groups the series it sums.
+     */
+    public enum GroupBy {
+        /** Everything summed into one group, keyed by the empty string. */
+        NONE,
+        /** A group for each entity, keyed by its id. */
+        ENTITY,
+        /** A group for each segment, keyed by its segmentation value. */
+        SEGMENT
+    }
+
+    /**
+     * A sum of one metric over a window, narrowed down with its {@code with} methods.
+     */
+    public final class Rollup {
+        private final String accountId;
+        private final StatisticsMetric metric;
+        private Set<String> entityIds;
+        private StatisticsSegmentationType segmentationType;
+        private StatisticsGranularity storedGranularity = StatisticsGranularity.HOUR;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private StatisticsGranularity granularity = StatisticsGranularity.HOUR;
+        private GroupBy groupBy = GroupBy.NONE;
+
+        private Rollup(String accountId, StatisticsMetric metric) {
+            this.accountId = accountId;
+            this.metric = metric;
+        }
+
+        /**
+         * @param entityIds the entities to sum; every entity of the account if not given
+         */
+        public Rollup withEntities(String... entityIds) {
+            this.entityIds = new HashSet<String>(Arrays.asList(entityIds));
+            return this;
+        }
+
+        /**
+         * @param segmentationType the segmentation whose segments are summed; the unsegmented series if null
+         */
+        public Rollup withSegmentation(StatisticsSegmentationType segmentationType) {
+            this.segmentationType = segmentationType;
+            return this;
+        }
+
+        /**
+         * @param storedGranularity whether to read the series added from hourly snapshots, as by default, or from daily ones
+         */
+        public Rollup withStoredGranularity(StatisticsGranularity storedGranularity) {
+            this.storedGranularity = storedGranularity;
+            return this;
+        }
+
+        /**
+         * @param from the first hour of the window, from which days are also counted
+         * @param to the end of the window, exclusive
+         */
+        public Rollup withRange(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        /**
+         * @param granularity a sum for each hour, for each day, or a {@link StatisticsGranularity#TOTAL} for the whole window
+         */
+        public Rollup withGranularity(StatisticsGranularity granularity) {
+            this.granularity = granularity;
+            return this;
+        }
+
+        public Rollup groupedBy(GroupBy groupBy) {
+            this.groupBy = groupBy;
+            return this;
+        }
+
+        /**
+         * @return the sums of each group, in order of its key, with a value for each hour or day of the window
+         */
+        public Map<String, double[]> compute() {
+            if (from == null || to == null) {
+                throw new IllegalStateException("The rollup needs a range");
+            }
+            int fromHour = toHour(from);
+            int toHour = toHour(to.minusNanos(1)) + 1;
+            int hoursPerBucket = granularity == StatisticsGranularity.TOTAL ? Math.max(toHour - fromHour, 1) : granularity == StatisticsGranularity.DAY ? 24 : 1;
+            int buckets = Math.max((toHour - fromHour + hoursPerBucket - 1) / hoursPerBucket, 0);
+            Collection<Series> matching = series.values().stream().filter(this::matches).collect(Collectors.toList());
+            return matching.parallelStream().collect(Collectors.toMap(
+                    this::groupOf,
+                    s -> s.sum(fromHour, toHour, hoursPerBucket, buckets),
+                    StatisticsStore::add,
+                    TreeMap::new));
+        }
+
+        private boolean matches(Series candidate) {
+            SeriesKey key = candidate.key;
+            return key.metric == metric && key.granularity == storedGranularity && key.segmentationType == segmentationType
+                    && key.accountId.equals(accountId) && (entityIds == null || entityIds.contains(key.entityId));
+        }
+
+        private String groupOf(Series candidate) {
+            switch (groupBy) {
+            case ENTITY:
+                return candidate.key.entityId;
+            case SEGMENT:
+                return candidate.key.segmentationValue != null ? candidate.key.segmentationValue : "";
+            default:
+                return "";
+            }
+        }
+    }
+
+    // one metric's values, held in hour order
+    private static final class Series {
+        private final SeriesKey key;
+        private int[] hours = new int[INITIAL_CAPACITY];
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size;
+
+        Series(SeriesKey key) {
+            this.key = key;
+        }
+
+        synchronized void put(int startHour, int step, StatisticsSnapshotMetric metric) {
+            for (int i = 0; i < metric.size(); i++) {
+                put(startHour + i * step, metric.getName().isMicroAmount() ? metric.getLong(i) : metric.getDouble(i));
+            }
+        }
+
+        private void put(int hour, double value) {
+            int index = size == 0 || hour > hours[size - 1] ? -size - 1 : Arrays.binarySearch(hours, 0, size, hour);
+            if (index >= 0) {
+                values[index] = value;
+                return;
+            }
+            index = -index - 1;
+            if (size == hours.length) {
+                hours = Arrays.copyOf(hours, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(hours, index, hours, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            hours[index] = hour;
+            values[index] = value;
+            size++;
+        }
+
+        synchronized double[] sum(int fromHour, int toHour, int hoursPerBucket, int buckets) {
+            double[] sums = new double[buckets];
+            int i = Arrays.binarySearch(hours, 0, size, fromHour);
+            for (i = i >= 0 ? i : -i - 1; i < size && hours[i] < toHour; i++) {
+                sums[(hours[i] - fromHour) / hoursPerBucket] += values[i];
+            }
+            return sums;
+        }
+    }
+
+    private static final class SeriesKey {
+        private final String accountId;
+        private final String entityId;
+        private final StatisticsMetric metric;
+        private final StatisticsSegmentationType segmentationType;
+        private final String segmentationValue;
+        private final StatisticsGranularity granularity;
+
+        SeriesKey(String accountId, String entityId, StatisticsMetric metric, StatisticsSegmentationType segmentationType,
+                String segmentationValue, StatisticsGranularity granularity) {
+            this.accountId = accountId;
+            this.entityId = entityId;
+            this.metric = metric;
+            this.segmentationType = segmentationType;
+            this.segmentationValue = segmentationValue;
+            this.granularity = granularity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey other = (SeriesKey) o;
+            return metric == other.metric && granularity == other.granularity && segmentationType == other.segmentationType
+                    && equal(accountId, other.accountId) && equal(entityId, other.entityId) && equal(segmentationValue, other.segmentationValue);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = metric.hashCode();
+            result = 31 * result + granularity.hashCode();
+            result = 31 * result + (accountId != null ? accountId.hashCode() : 0);
+            result = 31 * result + (entityId != null ? entityId.hashCode() : 0);
+            result = 31 * result + (segmentationValue != null ? segmentationValue.hashCode() : 0);
+            return result;
+        }
+
+        private static boolean equal(Object first, Object second) {
+            return first != null ? first.equals(second) : second == null;
+        }
+    }
+}
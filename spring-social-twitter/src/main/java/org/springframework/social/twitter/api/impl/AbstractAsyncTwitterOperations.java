@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Base of the asynchronous operations, which build their URIs as the blocking templates do and read the responses
+ * with the same message converters, but leave the calling thread as soon as the request has been started.
+ */
+public abstract class AbstractAsyncTwitterOperations extends AbstractTwitterOperations {
+
+    private final AsyncRestTemplate asyncRestTemplate;
+
+    public AbstractAsyncTwitterOperations(AsyncRestTemplate asyncRestTemplate, boolean isUserAuthorized, boolean isAppAuthorized) {
+        super(isUserAuthorized, isAppAuthorized);
+        this.asyncRestTemplate = asyncRestTemplate;
+    }
+
+    protected <T> CompletableFuture<T> getForObject(URI uri, Class<? extends T> responseType) {
+        return toCompletableFuture(asyncRestTemplate.exchange(uri, HttpMethod.GET, null, responseType))
+                .thenApply(entity -> entity.getBody());
+    }
+
+    /**
+     * @return a future completed as the given one is, and which cancels it if cancelled
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(final ListenableFuture<T> future) {
+        final CompletableFuture<T> completable = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        future.addCallback(new ListenableFutureCallback<T>() {
+            public void onSuccess(T result) {
+                completable.complete(result);
+            }
+
+            public void onFailure(Throwable t) {
+                completable.completeExceptionally(t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t);
+            }
+        });
+        return completable;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.social.twitter.api.AsyncFriendOperations;
+import org.springframework.social.twitter.api.CursoredList;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Implementation of {@link AsyncFriendOperations}, asking for the same resources as {@link FriendTemplate}.
+ */
+public class AsyncFriendTemplate extends AbstractAsyncTwitterOperations implements AsyncFriendOperations {
+
+	public AsyncFriendTemplate(AsyncRestTemplate asyncRestTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
+		super(asyncRestTemplate, isAuthorizedForUser, isAuthorizedForApp);
+	}
+
+	public CompletableFuture<CursoredList<TwitterProfile>> getFriendsInCursor(long userId, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredTwitterProfileUsersList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FRIENDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("user_id", String.valueOf(userId))
+					.build(),
+				CursoredTwitterProfileUsersList.class
+			).thenApply(CursoredTwitterProfileUsersList::getList);
+	}
+
+	public CompletableFuture<CursoredList<TwitterProfile>> getFriendsInCursor(String screenName, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredTwitterProfileUsersList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FRIENDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("screen_name", screenName)
+					.build(),
+				CursoredTwitterProfileUsersList.class
+			).thenApply(CursoredTwitterProfileUsersList::getList);
+	}
+
+	public CompletableFuture<CursoredList<Long>> getFriendIdsInCursor(long userId, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredLongList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FRIENDS_IDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("user_id", String.valueOf(userId))
+					.build(),
+				CursoredLongList.class
+			).thenApply(CursoredLongList::getList);
+	}
+
+	public CompletableFuture<CursoredList<Long>> getFriendIdsInCursor(String screenName, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredLongList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FRIENDS_IDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("screen_name", screenName)
+					.build(),
+				CursoredLongList.class
+			).thenApply(CursoredLongList::getList);
+	}
+
+	public CompletableFuture<CursoredList<TwitterProfile>> getFollowersInCursor(long userId, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredTwitterProfileUsersList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FOLLOWERS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("user_id", String.valueOf(userId))
+					.build(),
+				CursoredTwitterProfileUsersList.class
+			).thenApply(CursoredTwitterProfileUsersList::getList);
+	}
+
+	public CompletableFuture<CursoredList<TwitterProfile>> getFollowersInCursor(String screenName, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredTwitterProfileUsersList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FOLLOWERS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("screen_name", screenName)
+					.build(),
+				CursoredTwitterProfileUsersList.class
+			).thenApply(CursoredTwitterProfileUsersList::getList);
+	}
+
+	public CompletableFuture<CursoredList<Long>> getFollowerIdsInCursor(long userId, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredLongList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FOLLOWERS_IDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("user_id", String.valueOf(userId))
+					.build(),
+				CursoredLongList.class
+			).thenApply(CursoredLongList::getList);
+	}
+
+	public CompletableFuture<CursoredList<Long>> getFollowerIdsInCursor(String screenName, long cursor) {
+		requireEitherUserOrAppAuthorization();
+		return this.<CursoredLongList> getForObject(
+				new TwitterApiBuilderForUri()
+					.withResource(TwitterApiUriResourceForStandard.FOLLOWERS_IDS)
+					.withArgument("cursor", String.valueOf(cursor))
+					.withArgument("screen_name", screenName)
+					.build(),
+				CursoredLongList.class
+			).thenApply(CursoredLongList::getList);
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.social.twitter.api.AsyncListOperations;
+import org.springframework.social.twitter.api.CursoredList;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.social.twitter.api.UserList;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Implementation of {@link AsyncListOperations}, asking for the same resources as {@link ListTemplate}.
+ */
+public class AsyncListTemplate extends AbstractAsyncTwitterOperations implements AsyncListOperations {
+
+    public AsyncListTemplate(AsyncRestTemplate asyncRestTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
+        super(asyncRestTemplate, isAuthorizedForUser, isAuthorizedForApp);
+    }
+
+    @Override
+    public CompletableFuture<List<UserList>> getLists(long userId) {
+        requireEitherUserOrAppAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS)
+                        .withArgument("user_id", String.valueOf(userId))
+                        .build(),
+                UserSubscriptionList.class);
+    }
+
+    @Override
+    public CompletableFuture<List<UserList>> getLists(String screenName) {
+        requireEitherUserOrAppAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS)
+                        .withArgument("screen_name", String.valueOf(screenName))
+                        .build(),
+                UserSubscriptionList.class);
+    }
+
+    @Override
+    public CompletableFuture<UserList> getList(long listId) {
+        requireUserAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS_SHOW)
+                        .withArgument("list_id", String.valueOf(listId))
+                        .build(),
+                UserList.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getListStatuses(long listId, int pageSize, long sinceId, long maxId) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("list_id", String.valueOf(listId));
+        parameters.set("include_entities", "true");
+
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS_STATUSES)
+                        .withArgument(parameters)
+                        .build(),
+                TweetList.class);
+    }
+
+    @Override
+    public CompletableFuture<CursoredList<TwitterProfile>> getListMembersInCursor(long listId, long cursor) {
+        requireEitherUserOrAppAuthorization();
+        return this.<TwitterProfileUsersList> getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS_MEMBERS)
+                        .withArgument("list_id", String.valueOf(listId))
+                        .withArgument("cursor", String.valueOf(cursor))
+                        .build(),
+                TwitterProfileUsersList.class
+                ).thenApply(TwitterProfileUsersList::getList);
+    }
+
+    @Override
+    public CompletableFuture<CursoredList<UserList>> getMembershipsInCursor(long userId, long cursor) {
+        requireEitherUserOrAppAuthorization();
+        return this.<UserListList> getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.LISTS_MEMBERSHIPS)
+                        .withArgument("user_id", String.valueOf(userId))
+                        .withArgument("cursor", String.valueOf(cursor))
+                        .build(),
+                UserListList.class
+                ).thenApply(UserListList::getList);
+    }
+
+    @SuppressWarnings("serial")
+    private static class TweetList extends ArrayList<Tweet> {
+    }
+
+    @SuppressWarnings("serial")
+    private static class UserSubscriptionList extends ArrayList<UserList> {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.springframework.social.twitter.api.impl.SearchParametersUtil.buildQueryParametersFromSearchParameters;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.social.twitter.api.AsyncSearchOperations;
+import org.springframework.social.twitter.api.SearchParameters;
+import org.springframework.social.twitter.api.SearchResults;
+import org.springframework.util.Assert;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Implementation of {@link AsyncSearchOperations}, asking for the same resources as {@link SearchTemplate}.
+ */
+public class AsyncSearchTemplate extends AbstractAsyncTwitterOperations implements AsyncSearchOperations {
+
+    public AsyncSearchTemplate(AsyncRestTemplate asyncRestTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
+        super(asyncRestTemplate, isAuthorizedForUser, isAuthorizedForApp);
+    }
+
+    @Override
+    public CompletableFuture<SearchResults> search(String query) {
+        return this.search(new SearchParameters(query));
+    }
+
+    @Override
+    public CompletableFuture<SearchResults> search(String query, int resultsPerPage, long sinceId, long maxId) {
+        SearchParameters p = new SearchParameters(query).count(resultsPerPage).sinceId(sinceId);
+        if (maxId > 0) {
+            p.maxId(maxId);
+        }
+        return this.search(p);
+    }
+
+    @Override
+    public CompletableFuture<SearchResults> search(SearchParameters searchParameters) {
+        requireEitherUserOrAppAuthorization();
+        Assert.notNull(searchParameters);
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.SEARCH_TWEETS)
+                        .withArgument(buildQueryParametersFromSearchParameters(searchParameters))
+                        .build(),
+                SearchResults.class);
+    }
+}
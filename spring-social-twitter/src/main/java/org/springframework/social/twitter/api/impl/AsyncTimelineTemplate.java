@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.social.twitter.api.AsyncTimelineOperations;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Implementation of {@link AsyncTimelineOperations}, asking for the same resources as {@link TimelineTemplate}.
+ */
+public class AsyncTimelineTemplate extends AbstractAsyncTwitterOperations implements AsyncTimelineOperations {
+
+    public AsyncTimelineTemplate(AsyncRestTemplate asyncRestTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
+        super(asyncRestTemplate, isAuthorizedForUser, isAuthorizedForApp);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getHomeTimeline(int pageSize, long sinceId, long maxId) {
+        requireUserAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.STATUSES_HOME_TIMELINE, parameters);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getUserTimeline(int pageSize, long sinceId, long maxId) {
+        requireUserAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.STATUSES_USER_TIMELINE, parameters);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getUserTimeline(String screenName) {
+        return getUserTimeline(screenName, 20, 0, 0);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getUserTimeline(String screenName, int pageSize, long sinceId, long maxId) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("screen_name", screenName);
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.STATUSES_USER_TIMELINE, parameters);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getUserTimeline(long userId) {
+        return getUserTimeline(userId, 20, 0, 0);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getUserTimeline(long userId, int pageSize, long sinceId, long maxId) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("user_id", String.valueOf(userId));
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.STATUSES_USER_TIMELINE, parameters);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getMentions(int pageSize, long sinceId, long maxId) {
+        requireUserAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, sinceId, maxId);
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.STATUSES_MENTIONS_TIMELINE, parameters);
+    }
+
+    @Override
+    public CompletableFuture<Tweet> getStatus(long tweetId) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<String, String>();
+        parameters.set("include_entities", "true");
+
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.STATUSES_SHOW)
+                        .withArgument("tweet_id", tweetId)
+                        .withArgument(parameters)
+                        .build(),
+                Tweet.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getRetweets(long tweetId, int count) {
+        requireEitherUserOrAppAuthorization();
+        return this.<List<Tweet>> getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.STATUSES_RETWEETS)
+                        .withArgument("tweet_id", tweetId)
+                        .withArgument("count", String.valueOf(count))
+                        .withArgument("include_entities", "true")
+                        .build(),
+                TweetList.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getFavorites(long userId, int pageSize) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, 0, 0);
+        parameters.set("user_id", String.valueOf(userId));
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.FAVORITES_LIST, parameters);
+    }
+
+    @Override
+    public CompletableFuture<List<Tweet>> getFavorites(String screenName, int pageSize) {
+        requireEitherUserOrAppAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(pageSize, 0, 0);
+        parameters.set("screen_name", screenName);
+        parameters.set("include_entities", "true");
+
+        return getTweets(TwitterApiUriResourceForStandard.FAVORITES_LIST, parameters);
+    }
+
+    private CompletableFuture<List<Tweet>> getTweets(TwitterApiUriResourceForStandard resource, MultiValueMap<String, String> parameters) {
+        return this.<List<Tweet>> getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(resource)
+                        .withArgument(parameters)
+                        .build(),
+                TweetList.class);
+    }
+
+    @SuppressWarnings("serial")
+    private static class TweetList extends ArrayList<Tweet> {
+    }
+}
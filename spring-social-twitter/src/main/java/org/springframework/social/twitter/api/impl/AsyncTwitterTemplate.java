@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.social.twitter.api.AsyncFriendOperations;
+import org.springframework.social.twitter.api.AsyncListOperations;
+import org.springframework.social.twitter.api.AsyncSearchOperations;
+import org.springframework.social.twitter.api.AsyncTimelineOperations;
+import org.springframework.social.twitter.api.AsyncTwitter;
+import org.springframework.social.twitter.api.AsyncUserOperations;
+import org.springframework.social.twitter.api.advertising.AsyncStatisticsOperations;
+import org.springframework.social.twitter.api.impl.advertising.AsyncStatisticsTemplate;
+import org.springframework.util.Assert;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Asynchronous view of a {@link TwitterTemplate}.
+ * <p>
+ * Requests are signed with the TwitterTemplate's credentials, read with its message converters and checked by its error handler,
+ * but sent through the given {@link AsyncClientHttpRequestFactory}. How many calls may be in flight at once is up to that factory:
+ * {@link org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory}, with Apache HttpAsyncClient on the classpath,
+ * waits on its responses with a few I/O threads however many there are, while
+ * {@link org.springframework.http.client.SimpleClientHttpRequestFactory} still takes a thread of its task executor for each.
+ * </p>
+ */
+public class AsyncTwitterTemplate implements AsyncTwitter {
+
+    private final AsyncRestTemplate asyncRestTemplate;
+
+    private final AsyncTimelineOperations timelineOperations;
+
+    private final AsyncUserOperations userOperations;
+
+    private final AsyncFriendOperations friendOperations;
+
+    private final AsyncSearchOperations searchOperations;
+
+    private final AsyncListOperations listOperations;
+
+    private final AsyncStatisticsOperations statisticsOperations;
+
+    /**
+     * Create a new instance of AsyncTwitterTemplate.
+     * 
+     * @param twitter the template whose credentials, message converters and error handler to use
+     * @param requestFactory the factory of the requests to send
+     */
+    public AsyncTwitterTemplate(TwitterTemplate twitter, AsyncClientHttpRequestFactory requestFactory) {
+        Assert.notNull(twitter, "Constructor argument 'twitter' cannot be null.");
+        Assert.notNull(requestFactory, "Constructor argument 'requestFactory' cannot be null.");
+        // the AsyncRestTemplate reads responses with the RestTemplate's message converters and error handler
+        RestTemplate restTemplate = twitter.getRestTemplate();
+        this.asyncRestTemplate = new AsyncRestTemplate(
+                new SigningAsyncClientHttpRequestFactory(requestFactory, twitter.getSigningInterceptors()), restTemplate);
+
+        boolean isAuthorized = twitter.isAuthorized();
+        boolean isAuthorizedForApp = twitter.isAuthorizedForApp();
+        this.timelineOperations = new AsyncTimelineTemplate(asyncRestTemplate, isAuthorized, isAuthorizedForApp);
+        this.userOperations = new AsyncUserTemplate(asyncRestTemplate, isAuthorized, isAuthorizedForApp);
+        this.friendOperations = new AsyncFriendTemplate(asyncRestTemplate, isAuthorized, isAuthorizedForApp);
+        this.searchOperations = new AsyncSearchTemplate(asyncRestTemplate, isAuthorized, isAuthorizedForApp);
+        this.listOperations = new AsyncListTemplate(asyncRestTemplate, isAuthorized, isAuthorizedForApp);
+        this.statisticsOperations = new AsyncStatisticsTemplate(asyncRestTemplate, isAuthorized, isAuthorized);
+    }
+
+    @Override
+    public AsyncTimelineOperations timelineOperations() {
+        return timelineOperations;
+    }
+
+    @Override
+    public AsyncUserOperations userOperations() {
+        return userOperations;
+    }
+
+    @Override
+    public AsyncFriendOperations friendOperations() {
+        return friendOperations;
+    }
+
+    @Override
+    public AsyncSearchOperations searchOperations() {
+        return searchOperations;
+    }
+
+    @Override
+    public AsyncListOperations listOperations() {
+        return listOperations;
+    }
+
+    @Override
+    public AsyncStatisticsOperations statisticsOperations() {
+        return statisticsOperations;
+    }
+
+    @Override
+    public AsyncRestOperations asyncRestOperations() {
+        return asyncRestTemplate;
+    }
+
+}
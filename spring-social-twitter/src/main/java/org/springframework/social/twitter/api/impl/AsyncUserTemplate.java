@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.social.twitter.api.AsyncUserOperations;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Implementation of {@link AsyncUserOperations}, asking for the same resources as {@link UserTemplate}.
+ */
+public class AsyncUserTemplate extends AbstractAsyncTwitterOperations implements AsyncUserOperations {
+
+    public AsyncUserTemplate(AsyncRestTemplate asyncRestTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
+        super(asyncRestTemplate, isAuthorizedForUser, isAuthorizedForApp);
+    }
+
+    @Override
+    public CompletableFuture<TwitterProfile> getUserProfile() {
+        requireUserAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.ACCOUNT_VERIFY_CREDENTIALS)
+                        .build(),
+                TwitterProfile.class);
+    }
+
+    @Override
+    public CompletableFuture<TwitterProfile> getUserProfile(String screenName) {
+        requireEitherUserOrAppAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.USERS_SHOW)
+                        .withArgument("screen_name", screenName)
+                        .build(),
+                TwitterProfile.class);
+    }
+
+    @Override
+    public CompletableFuture<TwitterProfile> getUserProfile(long userId) {
+        requireEitherUserOrAppAuthorization();
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.USERS_SHOW)
+                        .withArgument("user_id", String.valueOf(userId))
+                        .build(),
+                TwitterProfile.class);
+    }
+
+    @Override
+    public CompletableFuture<List<TwitterProfile>> getUsers(long... userIds) {
+        requireEitherUserOrAppAuthorization();
+        String joinedIds = ArrayUtils.join(userIds);
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.USERS_LOOKUP)
+                        .withArgument("user_id", joinedIds)
+                        .build(),
+                TwitterProfileList.class);
+    }
+
+    @Override
+    public CompletableFuture<List<TwitterProfile>> getUsers(String... screenNames) {
+        requireEitherUserOrAppAuthorization();
+        String joinedScreenNames = ArrayUtils.join(screenNames);
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.USERS_LOOKUP)
+                        .withArgument("screen_name", joinedScreenNames)
+                        .build(),
+                TwitterProfileList.class);
+    }
+
+    @Override
+    public CompletableFuture<List<TwitterProfile>> searchForUsers(String query, int page, int pageSize) {
+        requireUserAuthorization();
+
+        MultiValueMap<String, String> parameters = PagingUtils.buildPagingParametersWithCount(page, pageSize, 0, 0);
+        parameters.set("q", query);
+
+        return getForObject(
+                new TwitterApiBuilderForUri()
+                        .withResource(TwitterApiUriResourceForStandard.USERS_SEARCH)
+                        .withArgument(parameters)
+                        .build(),
+                TwitterProfileList.class);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+// a response read fully into memory, so that it can be handed out any number of times
+class BufferedResponse {
+
+	private final int statusCode;
+
+	private final String statusText;
+
+	private final HttpHeaders headers;
+
+	private final byte[] body;
+
+	BufferedResponse(ClientHttpResponse response) throws IOException {
+		try {
+			this.statusCode = response.getRawStatusCode();
+			this.statusText = response.getStatusText();
+			this.headers = new HttpHeaders();
+			this.headers.putAll(response.getHeaders());
+			InputStream in = response.getBody();
+			this.body = in != null ? StreamUtils.copyToByteArray(in) : new byte[0];
+		} finally {
+			response.close();
+		}
+	}
+
+	private BufferedResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body) {
+		this.statusCode = statusCode;
+		this.statusText = statusText;
+		this.headers = headers;
+		this.body = body;
+	}
+
+	int getRawStatusCode() {
+		return statusCode;
+	}
+
+	String getHeader(String name) {
+		return headers.getFirst(name);
+	}
+
+	int getSize() {
+		return body.length;
+	}
+
+	/**
+	 * @param updated headers that replace the ones of the same name, as a 304 Not Modified sends them
+	 * @return this response with the given headers
+	 */
+	BufferedResponse withHeaders(HttpHeaders updated) {
+		HttpHeaders merged = new HttpHeaders();
+		merged.putAll(headers);
+		for (String name : updated.keySet()) {
+			if (!name.equalsIgnoreCase("Content-Length") && !name.equalsIgnoreCase("Content-Type") && !name.equalsIgnoreCase("Transfer-Encoding")) {
+				merged.put(name, updated.get(name));
+			}
+		}
+		return new BufferedResponse(statusCode, statusText, merged, body);
+	}
+
+	ClientHttpResponse copy() {
+		final HttpHeaders copiedHeaders = new HttpHeaders();
+		copiedHeaders.putAll(headers);
+		return new ClientHttpResponse() {
+			public HttpStatus getStatusCode() {
+				return HttpStatus.valueOf(statusCode);
+			}
+
+			public int getRawStatusCode() {
+				return statusCode;
+			}
+
+			public String getStatusText() {
+				return statusText;
+			}
+
+			public HttpHeaders getHeaders() {
+				return copiedHeaders;
+			}
+
+			public InputStream getBody() {
+				return new ByteArrayInputStream(body);
+			}
+
+			public void close() {
+			}
+		};
+	}
+
+}
@@ -17,6 +17,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class DataStatsHolder {
 
+    private static final ObjectMapper MAPPER = TwitterObjectMappers.getObjectMapper();
+
     private final List<StatisticsSnapshot> list;
 
     @JsonCreator
@@ -42,11 +44,7 @@ public class DataStatsHolder {
     private void populateWithItem(
             List<StatisticsSnapshot> list,
             JsonNode node) throws JsonParseException, JsonMappingException, IOException, ClassNotFoundException {
-        list.add(new ObjectMapper()
-                .registerModule(new TwitterModule())
-                .readValue(
-                        node.toString(),
-                        StatisticsSnapshot.class));
+        list.add(MAPPER.readValue(MAPPER.treeAsTokens(node), StatisticsSnapshot.class));
     }
 
     public List<StatisticsSnapshot> getList() {
@@ -3,13 +3,28 @@ package org.springframework.social.twitter.api.impl;
 import java.util.List;
 
 import org.springframework.social.ApiException;
+import org.springframework.social.twitter.api.RateLimitStatus;
 
 public class InvalidInputDataException extends ApiException {
 
     private static final long serialVersionUID = 1L;
 
+    private final RateLimitStatus rateLimitStatus;
+
     public InvalidInputDataException(String providerId, List<String> validationErrors) {
+        this(providerId, validationErrors, null);
+    }
+
+    public InvalidInputDataException(String providerId, List<String> validationErrors, RateLimitStatus rateLimitStatus) {
         super(providerId, formatValidationErrors(validationErrors));
+        this.rateLimitStatus = rateLimitStatus;
+    }
+
+    /**
+     * @return the status of the rate limit of the rejected request, or null if the response didn't say
+     */
+    public RateLimitStatus getRateLimitStatus() {
+        return rateLimitStatus;
     }
 
     private static String formatValidationErrors(List<String> validationErrors) {
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.MBeanServer;
+
+import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.StreamingException;
+
+/**
+ * A stream run by a {@link StreamManager}.
+ * <p>
+ * Reading a connection takes one of the manager's reader threads, since reads block; everything else is a task on its shared pools.
+ * A dropped connection is reopened at once, and a failed attempt to connect is retried from a timer on the manager's scheduler,
+ * backing off as {@link ThreadedStreamConsumer} does, without holding a thread while it waits.
+ * </p>
+ */
+class ManagedStream implements Stream, Runnable {
+
+	private final StreamManager manager;
+
+	private final StreamRuntime runtime;
+
+	private final StreamConnector connector;
+
+	private final AtomicBoolean open = new AtomicBoolean();
+
+	private volatile StreamReader streamReader;
+
+	// only touched by the task connecting or reading, which never runs twice at once
+	private boolean connectedBefore;
+
+	private long timeToSleep = MIN_WAIT;
+
+	private volatile long reconnects;
+
+	private volatile long backoffMillis;
+
+	private volatile StreamMetricsExporter metricsExporter;
+
+	ManagedStream(StreamManager manager, StreamRuntime runtime, StreamConnector connector) {
+		this.manager = manager;
+		this.runtime = runtime;
+		this.connector = connector;
+	}
+
+	public void open() {
+		if (open.compareAndSet(false, true)) {
+			manager.connect(this);
+		}
+	}
+
+	public void close() {
+		if (open.getAndSet(false)) {
+			StreamReader currentReader = streamReader;
+			if (currentReader != null) {
+				currentReader.close();
+			}
+			runtime.shutdown();
+			manager.remove(this);
+			StreamMetricsExporter exporter = metricsExporter;
+			if (exporter != null) {
+				exporter.unregister();
+			}
+		}
+	}
+
+	public StreamMetrics getMetrics() {
+		return runtime.getMetrics(reconnects, open.get() && streamReader != null, backoffMillis);
+	}
+
+	/**
+	 * Connects and reads until the connection drops, then hands over to the next attempt.
+	 */
+	public void run() {
+		backoffMillis = 0;
+		if (!open.get()) {
+			return;
+		}
+		StreamReader reader;
+		try {
+			reader = connector.connect(runtime);
+		} catch (StreamCreationException e) {
+			retryLater(e);
+			return;
+		}
+		if (connectedBefore) {
+			reconnects++;
+		}
+		connectedBefore = true;
+		timeToSleep = MIN_WAIT;
+		streamReader = reader;
+		try {
+			if (!open.get()) { // closed while connecting
+				reader.close();
+				return;
+			}
+			while (open.get()) {
+				reader.next();
+			}
+		} catch (StreamingException e) {
+			// if a valid connection drops, reconnect immediately
+		} finally {
+			streamReader = null;
+		}
+		if (open.get()) {
+			manager.connect(this);
+		}
+	}
+
+	void exportMetrics(String kind, MBeanServer mbeanServer) {
+		metricsExporter = StreamMetricsExporter.export(this, kind, mbeanServer);
+	}
+
+	StreamRuntime getRuntime() {
+		return runtime;
+	}
+
+	private void retryLater(StreamCreationException e) {
+		long delay;
+		if (e.getHttpStatus() != null) {
+			// Back off exponentially
+			if (timeToSleep == MIN_WAIT) {
+				timeToSleep = 5000;
+			}
+			delay = timeToSleep;
+			timeToSleep = timeToSleep * 2;
+			if (timeToSleep > ThreadedStreamConsumer.HTTP_ERROR_SLEEP_MAX) {
+				close();
+				return;
+			}
+		} else {
+			// Back off linearly
+			if (timeToSleep == MIN_WAIT) {
+				timeToSleep = 250;
+			}
+			delay = timeToSleep;
+			timeToSleep = Math.min(timeToSleep + 250, ThreadedStreamConsumer.NETWORK_ERROR_SLEEP_MAX);
+		}
+		backoffMillis = delay;
+		manager.connectLater(this, delay);
+	}
+
+	private static final long MIN_WAIT = 250;
+
+}
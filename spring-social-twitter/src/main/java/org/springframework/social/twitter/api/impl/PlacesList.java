@@ -29,7 +29,6 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -50,11 +49,9 @@ public class PlacesList {
 		@SuppressWarnings("unchecked")
 		@Override
 		public List<Place> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.registerModule(new TwitterModule());
-			jp.setCodec(mapper);
+			jp.setCodec(TwitterObjectMappers.getObjectMapper());
 			JsonNode treeNode = (JsonNode) jp.readValueAs(JsonNode.class).get("places");
-			return (List<Place>) mapper.reader(new TypeReference<List<Place>>() {}).readValue(treeNode);
+			return (List<Place>) TwitterObjectMappers.reader(new TypeReference<List<Place>>() {}).readValue(treeNode);
 		}
 	}
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Coalesces identical GET requests that are in flight at the same time into one call to Twitter, given to a
+ * {@link TwitterTemplate} with {@link TwitterTemplate#setRequestCoalescer(RequestCoalescer)}.
+ * <p>
+ * Requests are identical when they are for the same URI, as the operations built it, on behalf of the same user or
+ * application. The first of them goes to Twitter; the others wait for its response instead of spending the same rate limit
+ * again, and each gets a copy of it, read fully into memory, to be converted or rejected by its own error handler.
+ * A request arriving after the response has come back starts a new call: nothing is cached here, that being
+ * {@link TwitterResponseCache}'s job.
+ * </p>
+ * <p>
+ * A coalescer is meant to be shared, by every TwitterTemplate of a web tier say; it's thread-safe.
+ * </p>
+ */
+public class RequestCoalescer {
+
+	private final ConcurrentMap<RequestKey, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<RequestKey, CompletableFuture<BufferedResponse>>();
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong executionCount = new AtomicLong();
+
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * @return the number of GET requests seen
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * @return the number of GET requests that went to Twitter
+	 */
+	public long getExecutionCount() {
+		return executionCount.get();
+	}
+
+	/**
+	 * @return the number of GET requests that were given the response of an identical request in flight instead
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * @return the number of calls to Twitter in flight now
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	/**
+	 * @param identity the user or application the requests are made on behalf of
+	 * @return an interceptor coalescing the requests of a RestTemplate, to be placed before the one that signs them
+	 */
+	ClientHttpRequestInterceptor interceptorFor(final String identity) {
+		return new ClientHttpRequestInterceptor() {
+			public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+				// a conditional request may be answered with a 304 that only means something to whoever sent it
+				HttpHeaders headers = request.getHeaders();
+				if (request.getMethod() != HttpMethod.GET || headers.getIfNoneMatch().size() > 0 || headers.containsKey("If-Modified-Since")) {
+					return execution.execute(request, body);
+				}
+				return execute(new RequestKey(identity, request.getURI()), request, body, execution);
+			}
+		};
+	}
+
+	private ClientHttpResponse execute(RequestKey key, HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		requestCount.incrementAndGet();
+		CompletableFuture<BufferedResponse> call = new CompletableFuture<BufferedResponse>();
+		CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			coalescedCount.incrementAndGet();
+			return await(existing).copy();
+		}
+		executionCount.incrementAndGet();
+		BufferedResponse response;
+		try {
+			response = new BufferedResponse(execution.execute(request, body));
+		} catch (IOException e) {
+			inFlight.remove(key, call);
+			call.completeExceptionally(e);
+			throw e;
+		} catch (RuntimeException e) {
+			inFlight.remove(key, call);
+			call.completeExceptionally(e);
+			throw e;
+		}
+		inFlight.remove(key, call);
+		call.complete(response);
+		return response.copy();
+	}
+
+	private BufferedResponse await(CompletableFuture<BufferedResponse> call) throws IOException {
+		try {
+			return call.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for an identical request in flight");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+}
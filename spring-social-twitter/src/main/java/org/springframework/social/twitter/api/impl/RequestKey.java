@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.net.URI;
+
+// a request's URI together with the user or application it's made on behalf of, as the REST interceptors key responses
+class RequestKey {
+
+	private final String identity;
+
+	private final URI uri;
+
+	RequestKey(String identity, URI uri) {
+		this.identity = identity;
+		this.uri = uri;
+	}
+
+	String getIdentity() {
+		return identity;
+	}
+
+	URI getUri() {
+		return uri;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof RequestKey)) {
+			return false;
+		}
+		RequestKey other = (RequestKey) o;
+		return uri.equals(other.uri) && (identity != null ? identity.equals(other.identity) : other.identity == null);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * uri.hashCode() + (identity != null ? identity.hashCode() : 0);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// finds the resource of the API a path is of, matching :placeholders to any one segment
+class ResourceTable<E extends Enum<E>> {
+
+	private static final Pattern PLACEHOLDER = Pattern.compile(":[A-Za-z_]+");
+
+	static final ResourceTable<TwitterApiUriResourceForStandard> STANDARD =
+			new ResourceTable<TwitterApiUriResourceForStandard>(TwitterApiUriResourceForStandard.values(), TwitterApiUriResourceForStandard::getPath);
+
+	static final ResourceTable<TwitterApiUriResourceForAdvertising> ADVERTISING =
+			new ResourceTable<TwitterApiUriResourceForAdvertising>(TwitterApiUriResourceForAdvertising.values(), TwitterApiUriResourceForAdvertising::getPath);
+
+	private final Map<String, E> literals = new HashMap<String, E>();
+
+	private final List<Pattern> patterns = new ArrayList<Pattern>();
+
+	private final List<E> templated = new ArrayList<E>();
+
+	ResourceTable(E[] resources, Function<E, String> pathOf) {
+		for (E resource : resources) {
+			String path = pathOf.apply(resource);
+			if (!PLACEHOLDER.matcher(path).find()) {
+				literals.putIfAbsent(path, resource);
+			} else {
+				patterns.add(Pattern.compile(regex(path)));
+				templated.add(resource);
+			}
+		}
+	}
+
+	E resolve(String path) {
+		E resource = literals.get(path);
+		for (int i = 0; resource == null && i < patterns.size(); i++) {
+			if (patterns.get(i).matcher(path).matches()) {
+				resource = templated.get(i);
+			}
+		}
+		return resource;
+	}
+
+	// a regular expression matching the path, with any one segment in place of each of its :placeholders
+	static String regex(String path) {
+		StringBuilder regex = new StringBuilder();
+		Matcher placeholder = PLACEHOLDER.matcher(path);
+		int literalStart = 0;
+		while (placeholder.find()) {
+			regex.append(Pattern.quote(path.substring(literalStart, placeholder.start()))).append("[^/]+");
+			literalStart = placeholder.end();
+		}
+		return regex.append(Pattern.quote(path.substring(literalStart))).toString();
+	}
+
+	// the path of the URI relative to the API's base, without its query; null if it's not one of the API's
+	static String relativePath(URI uri, String base) {
+		String location = uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+		String prefix = base.endsWith("/") ? base : base + "/";
+		return location.startsWith(prefix) ? location.substring(prefix.length()) : null;
+	}
+
+}
@@ -4,7 +4,6 @@ import org.springframework.social.twitter.api.Settings;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class SettingsImpl implements Settings {
 
@@ -23,7 +22,7 @@ public class SettingsImpl implements Settings {
     @Override
     public String toString() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return TwitterObjectMappers.getObjectMapper().writeValueAsString(this);
         }
         catch (JsonProcessingException e) {
             e.printStackTrace();
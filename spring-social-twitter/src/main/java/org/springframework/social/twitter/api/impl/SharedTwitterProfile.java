@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.social.twitter.api.TwitterProfile;
+
+/**
+ * A profile handed out by a {@link TwitterProfileCache}, and so possibly held by many tweets at once.
+ * None of them can change it for the others: its extra data, and the maps and lists within it, are read-only,
+ * and its created date is handed out as a copy.
+ */
+final class SharedTwitterProfile extends TwitterProfile {
+
+	private static final long serialVersionUID = 1L;
+
+	private transient volatile Map<String, Object> readOnlyExtraData;
+
+	SharedTwitterProfile(long id, String screenName, String name, String url, String profileImageUrl, String description, String location, Date createdDate) {
+		super(id, screenName, name, url, profileImageUrl, description, location, createdDate);
+	}
+
+	@Override
+	public Date getCreatedDate() {
+		Date createdDate = super.getCreatedDate();
+		return createdDate != null ? new Date(createdDate.getTime()) : null;
+	}
+
+	@Override
+	public Map<String, Object> getExtraData() {
+		Map<String, Object> extraData = readOnlyExtraData;
+		if (extraData == null) {
+			extraData = readOnlyMap(super.getExtraData());
+			readOnlyExtraData = extraData;
+		}
+		return extraData;
+	}
+
+	private static Map<String, Object> readOnlyMap(Map<?, ?> map) {
+		Map<String, Object> copy = new LinkedHashMap<String, Object>(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			copy.put(String.valueOf(entry.getKey()), readOnly(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(copy);
+	}
+
+	private static Object readOnly(Object value) {
+		if (value instanceof Map) {
+			return readOnlyMap((Map<?, ?>) value);
+		}
+		if (value instanceof List) {
+			List<Object> copy = new ArrayList<Object>(((List<?>) value).size());
+			for (Object element : (List<?>) value) {
+				copy.add(readOnly(element));
+			}
+			return Collections.unmodifiableList(copy);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Decorates an {@link AsyncClientHttpRequestFactory} with the interceptors of a blocking RestTemplate, such as the one
+ * that signs requests with OAuth credentials, since AsyncRestTemplate takes no interceptors of its own.
+ * Each request's body is buffered, the interceptors are run over it, and whatever headers they set are sent with it.
+ */
+class SigningAsyncClientHttpRequestFactory implements AsyncClientHttpRequestFactory {
+
+	private final AsyncClientHttpRequestFactory requestFactory;
+
+	private final List<ClientHttpRequestInterceptor> interceptors;
+
+	public SigningAsyncClientHttpRequestFactory(AsyncClientHttpRequestFactory requestFactory, List<ClientHttpRequestInterceptor> interceptors) {
+		this.requestFactory = requestFactory;
+		this.interceptors = interceptors;
+	}
+
+	public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		return new SigningAsyncClientHttpRequest(uri, httpMethod);
+	}
+
+	private class SigningAsyncClientHttpRequest implements AsyncClientHttpRequest {
+
+		private final URI uri;
+
+		private final HttpMethod method;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+		SigningAsyncClientHttpRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		public URI getURI() {
+			return uri;
+		}
+
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		public OutputStream getBody() {
+			return body;
+		}
+
+		public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
+			byte[] bytes = body.toByteArray();
+			SigningExecution execution = new SigningExecution();
+			execution.execute(this, bytes);
+			HttpRequest signed = execution.signed != null ? execution.signed : this;
+			AsyncClientHttpRequest request = requestFactory.createAsyncRequest(signed.getURI(), signed.getMethod());
+			request.getHeaders().putAll(signed.getHeaders());
+			if (bytes.length > 0) {
+				StreamUtils.copy(bytes, request.getBody());
+			}
+			return request.executeAsync();
+		}
+
+	}
+
+	// runs the interceptors in turn, and keeps the request as the last of them left it instead of executing it
+	private class SigningExecution implements ClientHttpRequestExecution {
+
+		private final Iterator<ClientHttpRequestInterceptor> iterator = interceptors.iterator();
+
+		private HttpRequest signed;
+
+		public ClientHttpResponse execute(HttpRequest request, byte[] body) throws IOException {
+			if (iterator.hasNext()) {
+				return iterator.next().intercept(request, body, this);
+			}
+			signed = request;
+			return null;
+		}
+
+	}
+
+}
@@ -26,20 +26,17 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class SimilarPlacesDeserializer extends JsonDeserializer<SimilarPlacesResponse> {
 	@Override
 	public SimilarPlacesResponse deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.registerModule(new TwitterModule());
-		jp.setCodec(mapper);				
+		jp.setCodec(TwitterObjectMappers.getObjectMapper());
 		JsonNode node = jp.readValueAs(JsonNode.class);
 		JsonNode resultNode = node.get("result");
 		String token = resultNode.get("token").textValue();
 		JsonNode placesNode = resultNode.get("places");
 		@SuppressWarnings("unchecked")
-		List<Place> places = (List<Place>) mapper.reader(new TypeReference<List<Place>>() {}).readValue(placesNode);
+		List<Place> places = (List<Place>) TwitterObjectMappers.reader(new TypeReference<List<Place>>() {}).readValue(placesNode);
 		return new SimilarPlacesResponse(places, token);
 	}
 }
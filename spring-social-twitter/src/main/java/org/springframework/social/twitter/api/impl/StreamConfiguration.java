@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.File;
+
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * Tuning for the streams opened by a {@link StreamingTemplate}.
+ * Each stream takes a copy when it is opened, so changes only affect streams opened afterward.
+ */
+class StreamConfiguration {
+
+	private StreamWaitStrategy waitStrategy = StreamWaitStrategy.BLOCKING;
+
+	private int listenerQueueCapacity = DEFAULT_LISTENER_QUEUE_CAPACITY;
+
+	private StreamOverflowPolicy listenerOverflowPolicy = StreamOverflowPolicy.DROP_OLDEST;
+
+	private int backpressureQueueCapacity = DEFAULT_BACKPRESSURE_QUEUE_CAPACITY;
+
+	private StreamOverflowPolicy backpressurePolicy = StreamOverflowPolicy.BLOCK;
+
+	private int sampleRate = StreamRingBuffer.DEFAULT_SAMPLE_RATE;
+
+	private boolean lengthDelimited;
+
+	private File recordingDirectory;
+
+	private boolean lazyEntities;
+
+	StreamWaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	void setWaitStrategy(StreamWaitStrategy waitStrategy) {
+		Assert.notNull(waitStrategy, "StreamWaitStrategy may not be null");
+		this.waitStrategy = waitStrategy;
+	}
+
+	int getListenerQueueCapacity() {
+		return listenerQueueCapacity;
+	}
+
+	void setListenerQueueCapacity(int listenerQueueCapacity) {
+		Assert.isTrue(listenerQueueCapacity > 0 && listenerQueueCapacity <= StreamRingBuffer.MAX_CAPACITY, "'capacity' must be between 1 and " + StreamRingBuffer.MAX_CAPACITY);
+		this.listenerQueueCapacity = listenerQueueCapacity;
+	}
+
+	StreamOverflowPolicy getListenerOverflowPolicy() {
+		return listenerOverflowPolicy;
+	}
+
+	void setListenerOverflowPolicy(StreamOverflowPolicy listenerOverflowPolicy) {
+		Assert.notNull(listenerOverflowPolicy, "StreamOverflowPolicy may not be null");
+		this.listenerOverflowPolicy = listenerOverflowPolicy;
+	}
+
+	int getBackpressureQueueCapacity() {
+		return backpressureQueueCapacity;
+	}
+
+	void setBackpressureQueueCapacity(int backpressureQueueCapacity) {
+		Assert.isTrue(backpressureQueueCapacity > 0 && backpressureQueueCapacity <= StreamRingBuffer.MAX_CAPACITY, "'capacity' must be between 1 and " + StreamRingBuffer.MAX_CAPACITY);
+		this.backpressureQueueCapacity = backpressureQueueCapacity;
+	}
+
+	StreamOverflowPolicy getBackpressurePolicy() {
+		return backpressurePolicy;
+	}
+
+	void setBackpressurePolicy(StreamOverflowPolicy backpressurePolicy) {
+		Assert.notNull(backpressurePolicy, "StreamOverflowPolicy may not be null");
+		this.backpressurePolicy = backpressurePolicy;
+	}
+
+	int getSampleRate() {
+		return sampleRate;
+	}
+
+	void setSampleRate(int sampleRate) {
+		Assert.isTrue(sampleRate > 0, "'sampleRate' must be greater than 0");
+		this.sampleRate = sampleRate;
+	}
+
+	boolean isLengthDelimited() {
+		return lengthDelimited;
+	}
+
+	void setLengthDelimited(boolean lengthDelimited) {
+		this.lengthDelimited = lengthDelimited;
+	}
+
+	File getRecordingDirectory() {
+		return recordingDirectory;
+	}
+
+	void setRecordingDirectory(File recordingDirectory) {
+		this.recordingDirectory = recordingDirectory;
+	}
+
+	boolean isLazyEntities() {
+		return lazyEntities;
+	}
+
+	void setLazyEntities(boolean lazyEntities) {
+		this.lazyEntities = lazyEntities;
+	}
+
+	StreamConfiguration copy() {
+		StreamConfiguration copy = new StreamConfiguration();
+		copy.waitStrategy = waitStrategy;
+		copy.listenerQueueCapacity = listenerQueueCapacity;
+		copy.listenerOverflowPolicy = listenerOverflowPolicy;
+		copy.backpressureQueueCapacity = backpressureQueueCapacity;
+		copy.backpressurePolicy = backpressurePolicy;
+		copy.sampleRate = sampleRate;
+		copy.lengthDelimited = lengthDelimited;
+		copy.recordingDirectory = recordingDirectory;
+		copy.lazyEntities = lazyEntities;
+		return copy;
+	}
+
+	static final int DEFAULT_LISTENER_QUEUE_CAPACITY = 1024;
+
+	static final int DEFAULT_BACKPRESSURE_QUEUE_CAPACITY = 8192;
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+/**
+ * Opens a new connection for a stream, each time it connects or reconnects.
+ */
+interface StreamConnector {
+
+	/**
+	 * @param runtime the runtime of the stream being connected
+	 * @return a reader for the new connection
+	 * @throws StreamCreationException if the connection can't be opened
+	 */
+	StreamReader connect(StreamRuntime runtime) throws StreamCreationException;
+
+}
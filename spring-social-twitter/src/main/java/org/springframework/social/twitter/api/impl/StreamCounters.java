@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters behind a stream's {@link org.springframework.social.twitter.api.StreamMetrics}, kept for as long as the stream is open.
+ * Every update is lock-free: sums are striped adders and maximums are compare-and-set, so recording costs the reader,
+ * dispatcher and listener threads next to nothing and never makes them wait on each other.
+ */
+class StreamCounters {
+
+	private final LongAdder received = new LongAdder();
+
+	private final LongAdder parsed = new LongAdder();
+
+	private final LongAdder parseErrors = new LongAdder();
+
+	private final LongAdder parseNanos = new LongAdder();
+
+	private final AtomicLong maxParseNanos = new AtomicLong();
+
+	private final LongAdder delivered = new LongAdder();
+
+	private final LongAdder listenerNanos = new LongAdder();
+
+	private final AtomicLong maxListenerNanos = new AtomicLong();
+
+	private final LongAdder limitNotices = new LongAdder();
+
+	// only written by the dispatcher thread
+	private volatile long limitedTweets;
+
+	private final AtomicReference<RateSample> rate = new AtomicReference<RateSample>(new RateSample(System.nanoTime(), 0, 0));
+
+	void messageReceived() {
+		received.increment();
+	}
+
+	void messageParsed(long nanos) {
+		parsed.increment();
+		parseNanos.add(nanos);
+		updateMax(maxParseNanos, nanos);
+	}
+
+	void parseFailed() {
+		parseErrors.increment();
+	}
+
+	void messageDelivered(long nanos) {
+		delivered.increment();
+		listenerNanos.add(nanos);
+		updateMax(maxListenerNanos, nanos);
+	}
+
+	void limitNotice(int numberOfLimitedTweets) {
+		limitNotices.increment();
+		limitedTweets = numberOfLimitedTweets;
+	}
+
+	long getMessagesReceived() {
+		return received.sum();
+	}
+
+	/**
+	 * @return the rate messages were received at, measured over the most recent interval of at least a second between two calls
+	 */
+	double getMessagesPerSecond() {
+		long now = System.nanoTime();
+		RateSample sample = rate.get();
+		long elapsed = now - sample.time;
+		if (elapsed < RATE_INTERVAL) {
+			return sample.perSecond;
+		}
+		long count = received.sum();
+		RateSample next = new RateSample(now, count, (count - sample.count) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+		return rate.compareAndSet(sample, next) ? next.perSecond : rate.get().perSecond;
+	}
+
+	long getMessagesParsed() {
+		return parsed.sum();
+	}
+
+	long getParseErrors() {
+		return parseErrors.sum();
+	}
+
+	long getMeanParseNanos() {
+		return mean(parseNanos, parsed);
+	}
+
+	long getMaxParseNanos() {
+		return maxParseNanos.get();
+	}
+
+	long getListenerCalls() {
+		return delivered.sum();
+	}
+
+	long getMeanListenerNanos() {
+		return mean(listenerNanos, delivered);
+	}
+
+	long getMaxListenerNanos() {
+		return maxListenerNanos.get();
+	}
+
+	long getLimitNotices() {
+		return limitNotices.sum();
+	}
+
+	long getLimitedTweets() {
+		return limitedTweets;
+	}
+
+	private static long mean(LongAdder total, LongAdder count) {
+		long n = count.sum();
+		return n > 0 ? total.sum() / n : 0;
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+		}
+	}
+
+	private static final class RateSample {
+
+		final long time;
+
+		final long count;
+
+		final double perSecond;
+
+		RateSample(long time, long count, double perSecond) {
+			this.time = time;
+			this.count = count;
+			this.perSecond = perSecond;
+		}
+
+	}
+
+	private static final long RATE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+}
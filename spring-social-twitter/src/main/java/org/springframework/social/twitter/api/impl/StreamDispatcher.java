@@ -17,111 +17,162 @@ package org.springframework.social.twitter.api.impl;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.springframework.social.twitter.api.StreamDeleteEvent;
-import org.springframework.social.twitter.api.StreamListener;
-import org.springframework.social.twitter.api.StreamWarningEvent;
-import org.springframework.social.twitter.api.Tweet;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 public class StreamDispatcher implements Runnable {
 
-	private final List<StreamListener> listeners;
+	private final List<StreamListenerLane> lanes;
 
-	private ObjectMapper objectMapper;
+	private final StreamRuntime runtime;
 	
 	private AtomicBoolean active;
 
-	private final Queue<String> queue;
-	
-	private final ExecutorService pool;
-
-	public StreamDispatcher(Queue<String> queue, List<StreamListener> listeners) {
-		this.queue = queue;
-		this.listeners = listeners;
-		pool = Executors.newCachedThreadPool();
-		objectMapper = new ObjectMapper();
-		objectMapper.addMixInAnnotations(Tweet.class, TweetMixin.class);
-		objectMapper.addMixInAnnotations(StreamDeleteEvent.class, StreamDeleteEventMixin.class);
-		objectMapper.addMixInAnnotations(StreamWarningEvent.class, StreamWarningEventMixin.class);
+	private final StreamRingBuffer<byte[]> buffer;
+
+	private final byte[][] batch = new byte[MAX_BATCH_SIZE][];
+
+	private final StreamMessage[] routed = new StreamMessage[MAX_BATCH_SIZE];
+
+	// only set when draining on shared workers instead of running on a thread of its own
+	private volatile Executor drainExecutor;
+
+	private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+	private final Runnable drainTask = new Runnable() {
+		public void run() {
+			drain();
+		}
+	};
+
+	StreamDispatcher(StreamRingBuffer<byte[]> buffer, StreamRuntime runtime) {
+		this.buffer = buffer;
+		this.runtime = runtime;
+		this.lanes = runtime.getLanes();
 		active = new AtomicBoolean(true);
 	}
 
 	public void run() {
 		while(active.get()) {
-			String line = queue.poll();
-			if(line == null || line.length() == 0) return;
-			
-			// TODO: handle scrub_geo, status_withheld, user_withheld, disconnect, friends, events, 
-			
+			byte[] message;
 			try {
-				if (line.contains("in_reply_to_status_id_str")) { // TODO: This is kinda hacky
-					handleTweet(line);
-				} else if (line.startsWith("{\"limit")) {
-					handleLimit(line);
-				} else if (line.startsWith("{\"delete")) {
-					handleDelete(line);
-				} else if (line.startsWith("{\"warning")) {
-					handleWarning(line);
-				}
-			} catch (IOException e) {
-				// TODO: Should only happen if Jackson doesn't know how to map the line
+				message = buffer.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if(message == null) return;
+			try {
+				dispatch(message);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
 			}
 		}
 	}
 	
 	public void stop() {
 		active.set(false);
-		pool.shutdown();
+		buffer.close();
+		signal(); // a dispatcher on shared workers still hands over what the connection left behind
 	}
-	
-	private void handleDelete(String line) throws IOException {
-		final StreamDeleteEvent deleteEvent = objectMapper.readValue(line, StreamDeleteEvent.class);
-		for (final StreamListener listener : listeners) {
-			pool.submit((new Runnable() {
-				public void run() {
-					listener.onDelete(deleteEvent);
-				}
-			}));
+
+	/**
+	 * Switches the dispatcher to draining its buffer in short tasks on shared workers, whenever {@link #signal()} is called,
+	 * instead of being run on a thread of its own.
+	 * @param executor the workers to drain on
+	 */
+	void drainOn(Executor executor) {
+		this.drainExecutor = executor;
+		signal();
+	}
+
+	/**
+	 * Tells a dispatcher draining on shared workers that messages were published. Does nothing for a dispatcher on its own thread.
+	 * Called from the reader thread after every publish.
+	 */
+	void signal() {
+		Executor executor = drainExecutor;
+		if (executor != null && drainScheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(drainTask);
+			} catch (RejectedExecutionException e) {
+				drainScheduled.set(false); // workers are shutting down
+			}
 		}
 	}
 
-	private void handleLimit(String line) throws IOException {
-		final TrackLimitEvent limitEvent = objectMapper.readValue(line, TrackLimitEvent.class);
-		for (final StreamListener listener : listeners) {
-			pool.submit((new Runnable() {
-				public void run() {
-					listener.onLimit(limitEvent.getNumberOfLimitedTweets());
-				}
-			}));
+	private void drain() {
+		try {
+			byte[] message;
+			int batches = 0;
+			// keeps draining after stop(), so a dropped connection's last messages are delivered, until the stream itself is closed
+			while (!runtime.isShutdown() && batches++ < MAX_BATCHES_PER_DRAIN && (message = buffer.poll()) != null) {
+				dispatch(message);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt(); // the workers are shutting down
+			return;
+		}
+		drainScheduled.set(false);
+		if (!runtime.isShutdown() && !buffer.isEmpty()) { // more arrived, or we yielded the worker to other streams
+			signal();
 		}
 	}
 
-	private void handleTweet(String line) throws IOException {
-		final Tweet tweet = objectMapper.readValue(line, Tweet.class);
-		for (final StreamListener listener : listeners) {
-			pool.submit((new Runnable() {
-				public void run() {
-					listener.onTweet(tweet);
+	// routes everything that's already waiting in one pass before handing any of it to the lanes
+	private void dispatch(byte[] first) throws InterruptedException {
+		byte[] message = first;
+		int count = 0;
+		do {
+			batch[count++] = message;
+		} while (count < MAX_BATCH_SIZE && (message = buffer.poll()) != null);
+		deliver(route(count));
+	}
+	
+	private int route(int count) {
+		StreamMessageRouter router = runtime.getRouter();
+		StreamCounters counters = runtime.getCounters();
+		int routedCount = 0;
+		for (int i = 0; i < count; i++) {
+			byte[] message = batch[i];
+			batch[i] = null;
+			if(message.length == 0) continue;
+			try {
+				long start = System.nanoTime();
+				StreamMessage streamMessage = router.route(message);
+				counters.messageParsed(System.nanoTime() - start);
+				if (streamMessage != null) {
+					if (streamMessage.getType() == StreamMessageType.LIMIT) {
+						counters.limitNotice((Integer) streamMessage.getPayload());
+					}
+					routed[routedCount++] = streamMessage;
 				}
-			}));
+			} catch (IOException e) {
+				// TODO: Should only happen if Jackson doesn't know how to map the line
+				counters.parseFailed();
+			}
 		}
+		return routedCount;
 	}
-	
-	private void handleWarning(String line) throws IOException {
-		final StreamWarningEvent warningEvent = objectMapper.readValue(line, StreamWarningEvent.class);
-		for (final StreamListener listener : listeners) {
-			pool.submit((new Runnable() {
-				public void run() {
-					listener.onWarning(warningEvent);
+
+	private void deliver(int count) throws InterruptedException {
+		try {
+			for (int i = 0; i < count; i++) {
+				for (StreamListenerLane lane : lanes) {
+					lane.enqueue(routed[i]);
 				}
-			}));
+			}
+		} finally {
+			for (int i = 0; i < count; i++) {
+				routed[i] = null;
+			}
 		}
 	}
+
+	static final int MAX_BATCH_SIZE = 64;
+
+	private static final int MAX_BATCHES_PER_DRAIN = 16;
 	
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a stream's response body into messages without decoding it.
+ * <p>
+ * Messages are either terminated by a newline or, on a stream opened with delimited=length, preceded by a line holding their length in bytes.
+ * Both framings are recognized without being told which to expect: every message is a JSON object, so a line of nothing but digits is a length.
+ * Blank keep-alive lines are skipped.
+ * </p>
+ * <p>
+ * The body is read into one reusable buffer and each message is copied out of it once, at its exact size, as UTF-8 bytes
+ * ready for Jackson's byte-array parser. No String is built for a message.
+ * </p>
+ */
+class StreamFrameReader {
+
+	private final InputStream inputStream;
+
+	// always in read mode: position to limit are the bytes read from the stream but not yet returned
+	private ByteBuffer buffer;
+
+	// how far past the position the current line has already been searched for a newline
+	private int scanned;
+
+	StreamFrameReader(InputStream inputStream) {
+		this(inputStream, INITIAL_BUFFER_SIZE);
+	}
+
+	StreamFrameReader(InputStream inputStream, int initialBufferSize) {
+		this.inputStream = inputStream;
+		this.buffer = ByteBuffer.allocate(initialBufferSize);
+		this.buffer.flip();
+	}
+
+	/**
+	 * Reads the next message, waiting for the stream if necessary.
+	 * @return the message's bytes, or null once the stream has ended
+	 * @throws IOException if the stream can't be read, ends in the middle of a length-delimited message, or a message exceeds the maximum size
+	 */
+	byte[] next() throws IOException {
+		while (true) {
+			int newline = findNewline();
+			if (newline < 0) {
+				if (!fill()) {
+					return buffer.hasRemaining() ? take(buffer.position(), buffer.limit()) : null;
+				}
+				continue;
+			}
+			int start = buffer.position();
+			int end = newline > start && buffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+			buffer.position(newline + 1);
+			scanned = 0;
+			if (end == start) { // keep-alive
+				continue;
+			}
+			int length = parseLength(start, end);
+			if (length < 0) {
+				return copy(start, end);
+			}
+			if (length > 0) {
+				return readExactly(length);
+			}
+		}
+	}
+
+	private int findNewline() {
+		byte[] bytes = buffer.array();
+		int limit = buffer.limit();
+		for (int i = buffer.position() + scanned; i < limit; i++) {
+			if (bytes[i] == '\n') {
+				return i;
+			}
+		}
+		scanned = limit - buffer.position();
+		return -1;
+	}
+
+	private byte[] readExactly(int length) throws IOException {
+		while (buffer.remaining() < length) {
+			if (!fill()) {
+				throw new EOFException("Stream ended " + (length - buffer.remaining()) + " bytes short of the end of a message");
+			}
+		}
+		int start = buffer.position();
+		buffer.position(start + length);
+		int end = start + length;
+		while (end > start && (buffer.get(end - 1) == '\n' || buffer.get(end - 1) == '\r')) { // the length counts the trailing line break
+			end--;
+		}
+		return copy(start, end);
+	}
+
+	private byte[] take(int start, int end) {
+		buffer.position(end);
+		scanned = 0;
+		if (end > start && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		return end > start ? copy(start, end) : null;
+	}
+
+	private byte[] copy(int start, int end) {
+		byte[] message = new byte[end - start];
+		System.arraycopy(buffer.array(), start, message, 0, message.length);
+		return message;
+	}
+
+	// moves unread bytes to the front, growing the buffer if they already fill it, and reads whatever the stream has next
+	private boolean fill() throws IOException {
+		buffer.compact();
+		if (!buffer.hasRemaining()) {
+			grow();
+		}
+		int read = inputStream.read(buffer.array(), buffer.position(), buffer.remaining());
+		if (read > 0) {
+			buffer.position(buffer.position() + read);
+		}
+		buffer.flip();
+		return read >= 0;
+	}
+
+	private void grow() throws IOException {
+		if (buffer.capacity() >= MAX_MESSAGE_SIZE) {
+			throw new IOException("Stream message exceeds " + MAX_MESSAGE_SIZE + " bytes");
+		}
+		ByteBuffer larger = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_MESSAGE_SIZE));
+		buffer.flip();
+		larger.put(buffer);
+		buffer = larger;
+	}
+
+	// the value of a line made up of nothing but digits, or -1 for any other line
+	private int parseLength(int start, int end) {
+		if (end - start > 9) {
+			return -1;
+		}
+		int length = 0;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b < '0' || b > '9') {
+				return -1;
+			}
+			length = length * 10 + (b - '0');
+		}
+		return length;
+	}
+
+	private static final int INITIAL_BUFFER_SIZE = 16384;
+
+	static final int MAX_MESSAGE_SIZE = 16 * 1024 * 1024;
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.social.twitter.api.BatchingStreamListener;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+import org.springframework.social.twitter.api.Tweet;
+
+/**
+ * Delivers messages to a single {@link StreamListener}, in the order they were dispatched.
+ * <p>
+ * Each lane has its own bounded queue and overflow policy. The lane runs itself on a shared worker pool only while it has
+ * messages queued, and never on more than one worker at a time, so a slow listener holds up its own lane and at most one worker.
+ * </p>
+ * <p>
+ * A lane for a {@link BatchingStreamListener} collects tweets and deletes into batches instead, and sets a timer on the worker pool
+ * to deliver a batch that hasn't filled up within the listener's maximum delay.
+ * </p>
+ */
+class StreamListenerLane implements Runnable {
+
+	private final StreamListener listener;
+
+	private final StreamRingBuffer<StreamMessage> queue;
+
+	private final StreamOverflowPolicy overflowPolicy;
+
+	private final ScheduledExecutorService workers;
+
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	// set by the flush timer, which may go off while the lane is still running and can't schedule it again
+	private final AtomicBoolean flushDue = new AtomicBoolean();
+
+	private final StreamCounters counters;
+
+	// the remaining fields are only used while batching, and only by the worker running the lane
+
+	private final BatchingStreamListener batchingListener;
+
+	private List<Tweet> tweets;
+
+	private List<StreamDeleteEvent> deletes;
+
+	private long batchStarted;
+
+	private ScheduledFuture<?> flushTimer;
+
+	StreamListenerLane(StreamListener listener, int capacity, StreamOverflowPolicy overflowPolicy, StreamWaitStrategy waitStrategy, ScheduledExecutorService workers) {
+		this(listener, capacity, overflowPolicy, StreamRingBuffer.DEFAULT_SAMPLE_RATE, waitStrategy, workers, new StreamCounters());
+	}
+
+	StreamListenerLane(StreamListener listener, int capacity, StreamOverflowPolicy overflowPolicy, int sampleRate, StreamWaitStrategy waitStrategy,
+			ScheduledExecutorService workers, StreamCounters counters) {
+		this.listener = listener;
+		this.counters = counters;
+		this.queue = new StreamRingBuffer<StreamMessage>(capacity, waitStrategy, sampleRate, new AtomicLong());
+		this.overflowPolicy = overflowPolicy;
+		this.workers = workers;
+		if (listener instanceof BatchingStreamListener) {
+			this.batchingListener = (BatchingStreamListener) listener;
+			this.tweets = new ArrayList<Tweet>();
+			this.deletes = new ArrayList<StreamDeleteEvent>();
+		} else {
+			this.batchingListener = null;
+		}
+	}
+
+	/**
+	 * Queues a message for the listener. Called from the dispatcher thread only.
+	 * @param message the message to deliver
+	 * @throws InterruptedException if the dispatcher is interrupted while waiting for room in a full lane
+	 */
+	void enqueue(StreamMessage message) throws InterruptedException {
+		queue.publish(message, overflowPolicy);
+		schedule();
+	}
+
+	public void run() {
+		if (flushDue.getAndSet(false)) {
+			flushTimer = null;
+		}
+		StreamMessage message;
+		int delivered = 0;
+		while (delivered < MAX_DELIVERIES_PER_RUN && (message = queue.poll()) != null) {
+			try {
+				if (batchingListener != null) {
+					collect(message);
+				} else {
+					long start = System.nanoTime();
+					message.deliverTo(listener);
+					counters.messageDelivered(System.nanoTime() - start);
+				}
+			} catch (RuntimeException e) {
+				// a failing listener must not stop its lane
+			}
+			delivered++;
+		}
+		if (batchingListener != null) {
+			flushIfDue();
+		}
+		scheduled.set(false);
+		if (!queue.isEmpty() || flushDue.get()) { // more arrived, we yielded the worker to other lanes, or the flush timer went off
+			schedule();
+		}
+	}
+
+	StreamListener getListener() {
+		return listener;
+	}
+
+	int getQueueSize() {
+		return queue.size();
+	}
+
+	long getDroppedCount() {
+		return queue.getDroppedCount();
+	}
+
+	void close() {
+		queue.close();
+		if (batchingListener != null) {
+			schedule(); // deliver whatever is still being collected
+		}
+	}
+
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				workers.execute(this);
+			} catch (RejectedExecutionException e) {
+				scheduled.set(false); // workers are shutting down with the stream
+			}
+		}
+	}
+
+	private void flushTimerExpired() {
+		flushDue.set(true);
+		schedule();
+	}
+
+	private void collect(StreamMessage message) {
+		switch (message.getType()) {
+			case TWEET:
+				startBatch();
+				tweets.add((Tweet) message.getPayload());
+				if (tweets.size() >= batchingListener.getMaxBatchSize()) {
+					flush();
+				}
+				break;
+			case DELETE:
+				startBatch();
+				deletes.add((StreamDeleteEvent) message.getPayload());
+				if (deletes.size() >= batchingListener.getMaxBatchSize()) {
+					flush();
+				}
+				break;
+			default:
+				flush(); // keep everything else in order with the batches around it
+				long start = System.nanoTime();
+				message.deliverTo(listener);
+				counters.messageDelivered(System.nanoTime() - start);
+		}
+	}
+
+	private void startBatch() {
+		if (tweets.isEmpty() && deletes.isEmpty()) {
+			batchStarted = System.nanoTime();
+		}
+	}
+
+	private void flushIfDue() {
+		if (tweets.isEmpty() && deletes.isEmpty()) {
+			return;
+		}
+		long maxDelay = TimeUnit.MILLISECONDS.toNanos(batchingListener.getMaxBatchDelay());
+		long waited = System.nanoTime() - batchStarted;
+		if (waited >= maxDelay || queue.isClosed()) {
+			flush();
+		} else if (flushTimer == null || flushTimer.isDone()) {
+			try {
+				flushTimer = workers.schedule(this::flushTimerExpired, maxDelay - waited, TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				flush(); // workers are shutting down with the stream
+			}
+		}
+	}
+
+	// tweets go first: a delete always follows the tweet it refers to
+	private void flush() {
+		if (!tweets.isEmpty()) {
+			List<Tweet> batch = tweets;
+			tweets = new ArrayList<Tweet>();
+			try {
+				long start = System.nanoTime();
+				batchingListener.onTweets(batch);
+				counters.messageDelivered(System.nanoTime() - start);
+			} catch (RuntimeException e) {
+				// a failing listener must not stop its lane
+			}
+		}
+		if (!deletes.isEmpty()) {
+			List<StreamDeleteEvent> batch = deletes;
+			deletes = new ArrayList<StreamDeleteEvent>();
+			try {
+				long start = System.nanoTime();
+				batchingListener.onDeletes(batch);
+				counters.messageDelivered(System.nanoTime() - start);
+			} catch (RuntimeException e) {
+				// a failing listener must not stop its lane
+			}
+		}
+	}
+
+	private static final int MAX_DELIVERIES_PER_RUN = 256;
+
+}
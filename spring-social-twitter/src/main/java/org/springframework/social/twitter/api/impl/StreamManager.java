@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamingOperations;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Shares dispatch, listener delivery and reconnect scheduling between streams, for applications that keep many streams open at once.
+ * <p>
+ * Streams are still opened through {@link StreamingOperations}, once a manager has been set with {@link StreamingTemplate#setStreamManager(StreamManager)}.
+ * Their dispatchers drain on a fixed pool of dispatcher threads, their listeners are delivered to on a fixed pool of listener threads,
+ * and their reconnects are scheduled on timers instead of sleeping threads.
+ * Reading is not shared: the connection is read with blocking I/O, so every connected stream holds one reader thread,
+ * taken from a cached pool and returned when the connection ends. A stream that is backing off holds none.
+ * Each stream keeps its own queues, overflow policies and {@link Stream#getMetrics() metrics}.
+ * </p>
+ */
+public class StreamManager {
+
+	private final ExecutorService readerExecutor;
+
+	private final ExecutorService dispatcherExecutor;
+
+	private final ScheduledExecutorService listenerExecutor;
+
+	private final Set<ManagedStream> streams = ConcurrentHashMap.newKeySet();
+
+	private final AtomicBoolean shutdown = new AtomicBoolean();
+
+	/**
+	 * Creates a manager with as many dispatcher threads and twice as many listener threads as there are processors.
+	 */
+	public StreamManager() {
+		this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param dispatcherThreads the number of threads shared by every stream's dispatcher
+	 * @param listenerThreads the number of threads shared by every stream's listeners and reconnect timers
+	 */
+	public StreamManager(int dispatcherThreads, int listenerThreads) {
+		Assert.isTrue(dispatcherThreads > 0, "'dispatcherThreads' must be greater than 0");
+		Assert.isTrue(listenerThreads > 0, "'listenerThreads' must be greater than 0");
+		this.readerExecutor = Executors.newCachedThreadPool(new StreamRuntime.StreamThreadFactory("twitter-stream-reader-"));
+		// dispatchers and listeners get separate pools: a dispatcher waiting on a full lane must never hold up the threads that empty it
+		this.dispatcherExecutor = Executors.newFixedThreadPool(dispatcherThreads, new StreamRuntime.StreamThreadFactory("twitter-stream-dispatcher-"));
+		this.listenerExecutor = Executors.newScheduledThreadPool(listenerThreads, new StreamRuntime.StreamThreadFactory("twitter-stream-listener-"));
+	}
+
+	/**
+	 * @return the streams currently open on this manager
+	 */
+	public List<Stream> getStreams() {
+		return new ArrayList<Stream>(streams);
+	}
+
+	public int getStreamCount() {
+		return streams.size();
+	}
+
+	/**
+	 * Closes every stream and stops the manager's threads.
+	 */
+	public void shutdown() {
+		if (shutdown.compareAndSet(false, true)) {
+			for (ManagedStream stream : new ArrayList<ManagedStream>(streams)) {
+				stream.close();
+			}
+			readerExecutor.shutdownNow();
+			dispatcherExecutor.shutdownNow();
+			listenerExecutor.shutdownNow();
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown.get();
+	}
+
+	/**
+	 * Creates a stream on the manager's threads. The stream connects once it is opened.
+	 * @param objectMapper the ObjectMapper to map the stream's messages with
+	 * @param listeners the stream's listeners
+	 * @param configuration the stream's own copy of its configuration
+	 * @param connector opens each of the stream's connections
+	 * @return the stream, not yet open
+	 */
+	ManagedStream createStream(ObjectMapper objectMapper, List<StreamListener> listeners, StreamConfiguration configuration, StreamConnector connector) {
+		Assert.state(!shutdown.get(), "StreamManager has been shut down");
+		StreamRuntime runtime = new StreamRuntime(objectMapper, listeners, configuration, dispatcherExecutor, listenerExecutor);
+		ManagedStream stream = new ManagedStream(this, runtime, connector);
+		streams.add(stream);
+		return stream;
+	}
+
+	void connect(ManagedStream stream) {
+		try {
+			readerExecutor.execute(stream);
+		} catch (RejectedExecutionException e) {
+			stream.close(); // the manager is shutting down
+		}
+	}
+
+	void connectLater(final ManagedStream stream, long delayMillis) {
+		try {
+			listenerExecutor.schedule(new Runnable() {
+				public void run() {
+					connect(stream);
+				}
+			}, delayMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			stream.close();
+		}
+	}
+
+	void remove(ManagedStream stream) {
+		streams.remove(stream);
+	}
+
+}
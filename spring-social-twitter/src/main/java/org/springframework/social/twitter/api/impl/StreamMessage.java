@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import org.springframework.social.twitter.api.StreamListener;
+
+/**
+ * A message read from a stream, mapped to its model object and ready to be delivered to listeners.
+ */
+final class StreamMessage {
+
+	private final StreamMessageType type;
+
+	private final Object payload;
+
+	StreamMessage(StreamMessageType type, Object payload) {
+		this.type = type;
+		this.payload = payload;
+	}
+
+	StreamMessageType getType() {
+		return type;
+	}
+
+	Object getPayload() {
+		return payload;
+	}
+
+	void deliverTo(StreamListener listener) {
+		type.deliver(payload, listener);
+	}
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamDisconnectEvent;
+import org.springframework.social.twitter.api.StreamEvent;
+import org.springframework.social.twitter.api.StreamScrubGeoEvent;
+import org.springframework.social.twitter.api.StreamStatusWithheldEvent;
+import org.springframework.social.twitter.api.StreamUserWithheldEvent;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.social.twitter.api.UserList;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Works out what kind of message a stream line holds from its top-level field names and maps it in the same pass.
+ * <p>
+ * Envelope messages such as <code>{"delete":{...}}</code> or <code>{"limit":{...}}</code> are recognized by their first field name.
+ * Tweets and user stream events are recognized by the first field name that only one of them carries; the fields read up to that
+ * point are kept as tokens and replayed ahead of the rest of the line, so no line is tokenized twice.
+ * Tweets share their authors' profiles with the other tweets the router has read, for as long as the profiles stay the same.
+ * </p>
+ */
+class StreamMessageRouter {
+
+	private final ObjectMapper objectMapper;
+
+	private final JsonFactory jsonFactory;
+
+	private final ObjectReader tweetReader;
+
+	private final ObjectReader profileReader;
+
+	private final ObjectReader userListReader;
+
+	StreamMessageRouter(ObjectMapper objectMapper) {
+		this(objectMapper, false);
+	}
+
+	/**
+	 * @param objectMapper the ObjectMapper to map messages with
+	 * @param lazyEntities whether to map each tweet's entities only when they are first asked for
+	 */
+	StreamMessageRouter(ObjectMapper objectMapper, boolean lazyEntities) {
+		this.objectMapper = objectMapper;
+		this.jsonFactory = objectMapper.getFactory();
+		ObjectReader tweetReader = TweetDeserializer.withSharedProfiles(objectMapper.reader(Tweet.class));
+		this.tweetReader = lazyEntities ? tweetReader.withAttribute(TweetDeserializer.LAZY_ENTITIES, Boolean.TRUE) : tweetReader;
+		this.profileReader = objectMapper.reader(TwitterProfile.class);
+		this.userListReader = objectMapper.reader(UserList.class);
+	}
+
+	/**
+	 * @param line a line read from a stream
+	 * @return the mapped message, or null if the line isn't a message this router knows about
+	 * @throws IOException if the line isn't valid JSON or can't be mapped
+	 */
+	StreamMessage route(String line) throws IOException {
+		JsonParser parser = jsonFactory.createParser(line);
+		try {
+			return route(parser);
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * @param message a message framed by a {@link StreamFrameReader}, as UTF-8 bytes
+	 * @return the mapped message, or null if it isn't a message this router knows about
+	 * @throws IOException if the message isn't valid JSON or can't be mapped
+	 */
+	StreamMessage route(byte[] message) throws IOException {
+		JsonParser parser = jsonFactory.createParser(message);
+		try {
+			return route(parser);
+		} finally {
+			parser.close();
+		}
+	}
+
+	StreamMessage route(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			return null;
+		}
+		TokenBuffer prefix = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			if (prefix == null) {
+				StreamMessageType envelopeType = ENVELOPE_TYPES.get(fieldName);
+				if (envelopeType != null) {
+					parser.nextToken();
+					return readEnvelope(envelopeType, fieldName, parser);
+				}
+				prefix = new TokenBuffer(objectMapper, false);
+				prefix.writeStartObject();
+			}
+			if (TWEET_FIELDS.contains(fieldName)) {
+				Tweet tweet = tweetReader.readValue(resume(prefix, parser));
+				return tweet != null ? new StreamMessage(StreamMessageType.TWEET, tweet) : null;
+			}
+			if (EVENT_FIELD.equals(fieldName)) {
+				JsonNode eventNode = objectMapper.readTree(resume(prefix, parser));
+				return new StreamMessage(StreamMessageType.EVENT, toEvent(eventNode));
+			}
+			prefix.copyCurrentStructure(parser);
+		}
+		return null;
+	}
+
+	// replays the fields already read, up to and including the current field name, then carries on with the rest of the line
+	private JsonParser resume(TokenBuffer prefix, JsonParser parser) throws IOException {
+		prefix.copyCurrentEvent(parser);
+		return JsonParserSequence.createFlattened(prefix.asParser(objectMapper), parser);
+	}
+
+	private StreamMessage readEnvelope(StreamMessageType type, String fieldName, JsonParser parser) throws IOException {
+		JsonNode node = objectMapper.readTree(parser);
+		switch (type) {
+			case DELETE:
+				JsonNode status = node.path("status");
+				return new StreamMessage(type, new StreamDeleteEvent(status.path("id").asLong(), status.path("user_id").asLong()));
+			case LIMIT:
+				return new StreamMessage(type, node.path("track").asInt());
+			case WARNING:
+				return new StreamMessage(type, new StreamWarningEvent(node.path("code").asText(), node.path("message").asText(), node.path("percent_full").asDouble()));
+			case SCRUB_GEO:
+				return new StreamMessage(type, new StreamScrubGeoEvent(node.path("user_id").asLong(), node.path("up_to_status_id").asLong()));
+			case STATUS_WITHHELD:
+				return new StreamMessage(type, new StreamStatusWithheldEvent(node.path("id").asLong(), node.path("user_id").asLong(), toStringList(node.path("withheld_in_countries"))));
+			case USER_WITHHELD:
+				return new StreamMessage(type, new StreamUserWithheldEvent(node.path("id").asLong(), toStringList(node.path("withheld_in_countries"))));
+			case DISCONNECT:
+				return new StreamMessage(type, new StreamDisconnectEvent(node.path("code").asInt(), node.path("stream_name").asText(), node.path("reason").asText()));
+			case FRIENDS:
+				List<Long> friendIds = new ArrayList<Long>(node.size());
+				for (JsonNode friendId : node) {
+					friendIds.add(friendId.asLong());
+				}
+				return new StreamMessage(type, friendIds);
+			default:
+				throw new IllegalStateException("No envelope mapping for " + fieldName);
+		}
+	}
+
+	private StreamEvent toEvent(JsonNode node) throws IOException {
+		Tweet targetTweet = null;
+		UserList targetList = null;
+		JsonNode targetObject = node.get("target_object");
+		if (targetObject != null && targetObject.isObject()) {
+			if (targetObject.has("text")) {
+				targetTweet = tweetReader.readValue(targetObject);
+			} else if (targetObject.has("slug")) {
+				targetList = userListReader.readValue(targetObject);
+			}
+		}
+		return new StreamEvent(node.path("event").asText(), toProfile(node.get("source")), toProfile(node.get("target")), targetTweet, targetList,
+				TimelineDateParser.parse(node.path("created_at").asText(null)));
+	}
+
+	private TwitterProfile toProfile(JsonNode node) throws IOException {
+		return node != null && node.isObject() ? profileReader.<TwitterProfile>readValue(node) : null;
+	}
+
+	private List<String> toStringList(JsonNode node) {
+		if (!node.isArray()) {
+			return Collections.emptyList();
+		}
+		List<String> values = new ArrayList<String>(node.size());
+		for (JsonNode value : node) {
+			values.add(value.asText());
+		}
+		return values;
+	}
+
+	private static final Map<String, StreamMessageType> ENVELOPE_TYPES = new HashMap<String, StreamMessageType>();
+
+	static {
+		ENVELOPE_TYPES.put("delete", StreamMessageType.DELETE);
+		ENVELOPE_TYPES.put("limit", StreamMessageType.LIMIT);
+		ENVELOPE_TYPES.put("warning", StreamMessageType.WARNING);
+		ENVELOPE_TYPES.put("scrub_geo", StreamMessageType.SCRUB_GEO);
+		ENVELOPE_TYPES.put("status_withheld", StreamMessageType.STATUS_WITHHELD);
+		ENVELOPE_TYPES.put("user_withheld", StreamMessageType.USER_WITHHELD);
+		ENVELOPE_TYPES.put("disconnect", StreamMessageType.DISCONNECT);
+		ENVELOPE_TYPES.put("friends", StreamMessageType.FRIENDS);
+		ENVELOPE_TYPES.put("friends_str", StreamMessageType.FRIENDS);
+	}
+
+	// top-level fields carried by tweets but never by user stream events
+	private static final Set<String> TWEET_FIELDS = new HashSet<String>(Arrays.asList(
+			"id", "id_str", "text", "user", "entities", "in_reply_to_status_id", "in_reply_to_status_id_str", "retweet_count"));
+
+	private static final String EVENT_FIELD = "event";
+
+}
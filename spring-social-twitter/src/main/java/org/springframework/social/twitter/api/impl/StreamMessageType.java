@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.List;
+
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamDisconnectEvent;
+import org.springframework.social.twitter.api.StreamEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamScrubGeoEvent;
+import org.springframework.social.twitter.api.StreamStatusWithheldEvent;
+import org.springframework.social.twitter.api.StreamUserWithheldEvent;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+/**
+ * The kinds of message that can be read from a stream, each knowing which {@link StreamListener} callback it is delivered to.
+ */
+enum StreamMessageType {
+
+	TWEET {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onTweet((Tweet) payload);
+		}
+	},
+
+	DELETE {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onDelete((StreamDeleteEvent) payload);
+		}
+	},
+
+	LIMIT {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onLimit((Integer) payload);
+		}
+	},
+
+	WARNING {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onWarning((StreamWarningEvent) payload);
+		}
+	},
+
+	SCRUB_GEO {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onScrubGeo((StreamScrubGeoEvent) payload);
+		}
+	},
+
+	STATUS_WITHHELD {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onStatusWithheld((StreamStatusWithheldEvent) payload);
+		}
+	},
+
+	USER_WITHHELD {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onUserWithheld((StreamUserWithheldEvent) payload);
+		}
+	},
+
+	DISCONNECT {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onDisconnect((StreamDisconnectEvent) payload);
+		}
+	},
+
+	FRIENDS {
+		@SuppressWarnings("unchecked")
+		void deliver(Object payload, StreamListener listener) {
+			listener.onFriends((List<Long>) payload);
+		}
+	},
+
+	EVENT {
+		void deliver(Object payload, StreamListener listener) {
+			listener.onEvent((StreamEvent) payload);
+		}
+	};
+
+	abstract void deliver(Object payload, StreamListener listener);
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.StreamMetricsMXBean;
+
+/**
+ * Exports a stream's metrics as an MXBean named {@code org.springframework.social.twitter:type=Stream,name=<kind>-<n>}
+ * for as long as the stream is open.
+ * <p>
+ * A JMX client polls the attributes one after another, so they're all read from one snapshot of the stream's metrics,
+ * taken afresh once the last is more than {@value #SNAPSHOT_MILLIS} milliseconds old, rather than from one snapshot each.
+ * </p>
+ */
+class StreamMetricsExporter implements StreamMetricsMXBean {
+
+	private final Stream stream;
+
+	private final MBeanServer mbeanServer;
+
+	private final ObjectName objectName;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+
+	private StreamMetricsExporter(Stream stream, MBeanServer mbeanServer, ObjectName objectName) {
+		this.stream = stream;
+		this.mbeanServer = mbeanServer;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Registers an MXBean for a stream.
+	 * @param stream the stream whose metrics to export
+	 * @param kind the kind of stream, such as "filter" or "sample", used in the bean's name
+	 * @param mbeanServer the server to register with
+	 * @return the exporter, to be unregistered when the stream is closed
+	 * @throws IllegalStateException if the bean can't be registered
+	 */
+	static StreamMetricsExporter export(Stream stream, String kind, MBeanServer mbeanServer) {
+		try {
+			ObjectName objectName = new ObjectName(DOMAIN + ":type=Stream,name=" + kind + "-" + STREAM_COUNT.incrementAndGet());
+			StreamMetricsExporter exporter = new StreamMetricsExporter(stream, mbeanServer, objectName);
+			mbeanServer.registerMBean(new StandardMBean(exporter, StreamMetricsMXBean.class, true), objectName);
+			return exporter;
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to export stream metrics", e);
+		}
+	}
+
+	ObjectName getObjectName() {
+		return objectName;
+	}
+
+	void unregister() {
+		try {
+			mbeanServer.unregisterMBean(objectName);
+		} catch (JMException ignore) {
+			// already gone
+		}
+	}
+
+	public long getMessagesReceived() {
+		return metrics().getMessagesReceived();
+	}
+
+	public double getMessagesPerSecond() {
+		return metrics().getMessagesPerSecond();
+	}
+
+	public long getMessagesParsed() {
+		return metrics().getMessagesParsed();
+	}
+
+	public long getParseErrors() {
+		return metrics().getParseErrors();
+	}
+
+	public long getMeanParseNanos() {
+		return metrics().getMeanParseNanos();
+	}
+
+	public long getMaxParseNanos() {
+		return metrics().getMaxParseNanos();
+	}
+
+	public long getListenerCalls() {
+		return metrics().getListenerCalls();
+	}
+
+	public long getMeanListenerNanos() {
+		return metrics().getMeanListenerNanos();
+	}
+
+	public long getMaxListenerNanos() {
+		return metrics().getMaxListenerNanos();
+	}
+
+	public int getDispatcherQueueDepth() {
+		return metrics().getDispatcherQueueDepth();
+	}
+
+	public int getListenerQueueDepth() {
+		return metrics().getListenerQueueDepth();
+	}
+
+	public long getBackpressureDropped() {
+		return metrics().getBackpressureDropped();
+	}
+
+	public long getListenerDropped() {
+		return metrics().getListenerDropped();
+	}
+
+	public long getLimitNotices() {
+		return metrics().getLimitNotices();
+	}
+
+	public long getLimitedTweets() {
+		return metrics().getLimitedTweets();
+	}
+
+	public long getReconnects() {
+		return metrics().getReconnects();
+	}
+
+	public boolean isConnected() {
+		return metrics().isConnected();
+	}
+
+	public long getBackoffMillis() {
+		return metrics().getBackoffMillis();
+	}
+
+	private StreamMetrics metrics() {
+		long now = System.nanoTime();
+		Snapshot current = snapshot.get();
+		if (current == null || now - current.time >= SNAPSHOT_NANOS) {
+			current = new Snapshot(now, stream.getMetrics());
+			snapshot.set(current);
+		}
+		return current.metrics;
+	}
+
+	private static final class Snapshot {
+
+		final long time;
+
+		final StreamMetrics metrics;
+
+		Snapshot(long time, StreamMetrics metrics) {
+			this.time = time;
+			this.metrics = metrics;
+		}
+
+	}
+
+	static final long SNAPSHOT_MILLIS = 100;
+
+	private static final long SNAPSHOT_NANOS = TimeUnit.MILLISECONDS.toNanos(SNAPSHOT_MILLIS);
+
+	private static final String DOMAIN = "org.springframework.social.twitter";
+
+	private static final AtomicInteger STREAM_COUNT = new AtomicInteger();
+
+}
@@ -15,19 +15,13 @@
  */
 package org.springframework.social.twitter.api.impl;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
 import org.springframework.social.twitter.api.StreamingException;
 
 public class StreamReaderImpl implements StreamReader {
@@ -36,44 +30,73 @@ public class StreamReaderImpl implements StreamReader {
 		
 	private final InputStream inputStream;
 
-	private final BufferedReader reader;
+	private final StreamFrameReader reader;
 	
-	private final Queue<String> queue;
+	private final StreamRingBuffer<byte[]> buffer;
+
+	private final StreamOverflowPolicy backpressurePolicy;
+
+	private final StreamCounters counters;
+
+	private final StreamRecorder recorder;
 
 	private final StreamDispatcher dispatcher;
 
-	private final ScheduledFuture<?> future;
-	
+	// only set when this reader created its own runtime and so must shut it down on close
+	private final StreamRuntime ownedRuntime;
+
 	public StreamReaderImpl(InputStream inputStream, List<StreamListener> listeners) {
+		this(inputStream, new StreamRuntime(TwitterObjectMappers.getObjectMapper(), listeners, new StreamConfiguration()), true);
+	}
+
+	StreamReaderImpl(InputStream inputStream, StreamRuntime runtime) {
+		this(inputStream, runtime, false);
+	}
+
+	private StreamReaderImpl(InputStream inputStream, StreamRuntime runtime, boolean ownsRuntime) {
 		this.inputStream = inputStream;
-		this.reader = new BufferedReader(new InputStreamReader(inputStream));
-		queue = new ConcurrentLinkedQueue<String>();
-		dispatcher = new StreamDispatcher(queue, listeners);
-		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(10);
-		future = executor.scheduleAtFixedRate(dispatcher, 0, 10, TimeUnit.MILLISECONDS);
+		this.reader = new StreamFrameReader(inputStream);
+		this.ownedRuntime = ownsRuntime ? runtime : null;
+		buffer = runtime.createHandoffBuffer();
+		backpressurePolicy = runtime.getConfiguration().getBackpressurePolicy();
+		counters = runtime.getCounters();
+		recorder = runtime.getRecorder();
+		dispatcher = new StreamDispatcher(buffer, runtime);
+		runtime.startDispatcher(dispatcher);
 		open = new AtomicBoolean(true);
 	}
 	
 	public void next() {
 		try {
-			String line = reader.readLine();
-			if(line == null) {
+			byte[] message = reader.next(); // keep-alive newlines are skipped by the reader
+			if(message == null) {
 				throw new IOException("Stream closed");
-			}			
-			queue.add(line);
+			}
+			counters.messageReceived();
+			if(recorder != null) {
+				recorder.append(message);
+			}
+			buffer.publish(message, backpressurePolicy);
+			dispatcher.signal();
 		} catch (IOException e) {
 			if(open.get()) {
 				close();
 				throw new StreamingException("The Stream is closed", e);
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new StreamingException("Interrupted while handing off to the dispatcher", e);
 		}
 	}
 
 	public void close() {
 		try {
 			open.set(false);
-			future.cancel(true);
 			dispatcher.stop();
+			if(ownedRuntime != null) {
+				ownedRuntime.shutdown();
+			}
 			inputStream.close();
 		} catch(IOException ignore) {}
 	}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Appends the raw messages read off a stream to a log of memory-mapped segment files, for {@link StreamReplayer} to play back later.
+ * <p>
+ * Each stream records into its own directory. A segment is a file of fixed size holding records made of an 8-byte timestamp
+ * in nanoseconds since the epoch, a 4-byte length and the message bytes. The length is written after the message, so only complete records
+ * are ever visible. The unused tail of a segment stays zeroed, and a zero length marks its end.
+ * </p>
+ */
+class StreamRecorder {
+
+	private final File directory;
+
+	private final int segmentSize;
+
+	private final long startMillis = System.currentTimeMillis();
+
+	private final long startNanos = System.nanoTime();
+
+	private int segmentCount;
+
+	private MappedByteBuffer segment;
+
+	private boolean closed;
+
+	private StreamRecorder(File directory, int segmentSize) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Starts recording a stream into a new directory under the given one.
+	 * @param parent the directory recordings are kept in
+	 * @param segmentSize the size of each segment file in bytes
+	 * @return a recorder with its first segment mapped
+	 * @throws IOException if the directory or the first segment can't be created
+	 */
+	static StreamRecorder create(File parent, int segmentSize) throws IOException {
+		File directory = new File(parent, "stream-" + System.currentTimeMillis() + "-" + RECORDING_COUNT.incrementAndGet());
+		if (!directory.mkdirs()) {
+			throw new IOException("Unable to create " + directory);
+		}
+		StreamRecorder recorder = new StreamRecorder(directory, segmentSize);
+		recorder.nextSegment(0);
+		return recorder;
+	}
+
+	File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Appends a message stamped with the current time. Stops recording, without failing the stream, if a new segment can't be mapped.
+	 * @param message a message as read off the connection
+	 */
+	void append(byte[] message) {
+		append(startMillis * 1000000 + (System.nanoTime() - startNanos), message);
+	}
+
+	synchronized void append(long timestamp, byte[] message) {
+		if (closed) {
+			return;
+		}
+		try {
+			int recordSize = RECORD_HEADER_SIZE + message.length;
+			if (segment.remaining() < recordSize) {
+				nextSegment(recordSize);
+			}
+			int start = segment.position();
+			segment.position(start + RECORD_HEADER_SIZE);
+			segment.put(message);
+			segment.putLong(start, timestamp);
+			segment.putInt(start + TIMESTAMP_SIZE, message.length);
+		} catch (IOException e) {
+			closed = true; // a recording is a diagnostic; losing it must not cost the stream
+			segment = null;
+		}
+	}
+
+	/**
+	 * Flushes the current segment and stops recording.
+	 */
+	synchronized void close() {
+		if (!closed) {
+			closed = true;
+			segment.force();
+			segment = null;
+		}
+	}
+
+	private void nextSegment(int minimumSize) throws IOException {
+		if (segment != null) {
+			segment.force();
+		}
+		File file = new File(directory, String.format("%08d%s", segmentCount++, SEGMENT_SUFFIX));
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			segment = raf.getChannel().map(MapMode.READ_WRITE, 0, Math.max(segmentSize, minimumSize));
+		} finally {
+			raf.close(); // the mapping stays valid
+		}
+	}
+
+	static final String SEGMENT_SUFFIX = ".seg";
+
+	static final int TIMESTAMP_SIZE = 8;
+
+	static final int LENGTH_SIZE = 4;
+
+	static final int RECORD_HEADER_SIZE = TIMESTAMP_SIZE + LENGTH_SIZE;
+
+	static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final AtomicInteger RECORDING_COUNT = new AtomicInteger();
+
+}
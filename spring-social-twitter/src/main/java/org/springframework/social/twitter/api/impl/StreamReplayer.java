@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamingException;
+import org.springframework.util.Assert;
+
+/**
+ * Plays a stream recorded with {@link StreamingTemplate#setRecordingDirectory(File)}
+ * back through a stream's dispatcher and listeners, with no connection involved.
+ * <p>
+ * Messages are replayed with the gaps they originally arrived with, divided by the speed: 1 replays in real time,
+ * 10 ten times faster, and {@link #MAX_SPEED} as fast as the listeners can take them, which makes a recording a load generator
+ * built from real traffic.
+ * </p>
+ */
+public class StreamReplayer {
+
+	private final File recording;
+
+	/**
+	 * @param recording the directory a single stream was recorded into
+	 */
+	public StreamReplayer(File recording) {
+		Assert.isTrue(recording.isDirectory(), "'recording' must be a directory");
+		this.recording = recording;
+	}
+
+	/**
+	 * Replays the recording to a set of listeners, returning once every message has been delivered.
+	 * Uses a default stream configuration, in which a listener that falls behind slows the replay down rather than losing messages.
+	 * @param listeners the listeners to deliver the recorded messages to
+	 * @param speed how many times faster than real time to replay, or {@link #MAX_SPEED}
+	 * @return the metrics of the replayed stream
+	 */
+	public StreamMetrics replay(List<StreamListener> listeners, double speed) {
+		return replay(listeners, speed, new StreamConfiguration());
+	}
+
+	StreamMetrics replay(List<StreamListener> listeners, double speed, StreamConfiguration configuration) {
+		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
+		Assert.isTrue(speed > 0, "'speed' must be greater than 0");
+		StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), listeners, configuration);
+		try {
+			StreamRingBuffer<byte[]> buffer = runtime.createHandoffBuffer();
+			Future<?> dispatched = runtime.startDispatcher(new StreamDispatcher(buffer, runtime));
+			Pacer pacer = new Pacer(speed);
+			for (File segment : segments()) {
+				replaySegment(segment, buffer, runtime, pacer);
+			}
+			buffer.close(); // the dispatcher finishes once it has drained the buffer
+			dispatched.get();
+			runtime.shutdown();
+			runtime.awaitTermination(1, TimeUnit.MINUTES);
+			return runtime.getMetrics(0, false, 0);
+		} catch (IOException e) {
+			throw new StreamingException("Unable to read recording " + recording, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StreamingException("Interrupted while replaying " + recording, e);
+		} catch (ExecutionException e) {
+			throw new StreamingException("Replay of " + recording + " failed", e.getCause());
+		} finally {
+			runtime.shutdown();
+		}
+	}
+
+	private void replaySegment(File file, StreamRingBuffer<byte[]> buffer, StreamRuntime runtime, Pacer pacer) throws IOException, InterruptedException {
+		MappedByteBuffer segment;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			segment = raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		StreamOverflowPolicy backpressurePolicy = runtime.getConfiguration().getBackpressurePolicy();
+		StreamCounters counters = runtime.getCounters();
+		while (segment.remaining() >= StreamRecorder.RECORD_HEADER_SIZE) {
+			long timestamp = segment.getLong();
+			int length = segment.getInt();
+			if (length <= 0) { // the zeroed tail of the segment
+				break;
+			}
+			byte[] message = new byte[length];
+			segment.get(message);
+			pacer.await(timestamp);
+			counters.messageReceived();
+			buffer.publish(message, backpressurePolicy);
+		}
+	}
+
+	private File[] segments() {
+		File[] segments = recording.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(StreamRecorder.SEGMENT_SUFFIX);
+			}
+		});
+		if (segments == null) {
+			return new File[0];
+		}
+		Arrays.sort(segments); // names are zero-padded sequence numbers
+		return segments;
+	}
+
+	public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+	// maps recorded timestamps onto the replay's clock
+	private static final class Pacer {
+
+		private final double speed;
+
+		private long firstTimestamp = -1;
+
+		private long replayStart;
+
+		Pacer(double speed) {
+			this.speed = speed;
+		}
+
+		void await(long timestamp) throws InterruptedException {
+			if (speed == MAX_SPEED) {
+				return;
+			}
+			if (firstTimestamp < 0) {
+				firstTimestamp = timestamp;
+				replayStart = System.nanoTime();
+				return;
+			}
+			long due = replayStart + (long) ((timestamp - firstTimestamp) / speed);
+			long wait;
+			while ((wait = due - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+		}
+
+	}
+
+}
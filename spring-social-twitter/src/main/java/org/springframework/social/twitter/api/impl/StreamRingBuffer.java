@@ -0,0 +1,283 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded single-producer/single-consumer ring buffer that hands messages off between two stages of a stream,
+ * such as the reader thread and the dispatcher thread.
+ * Neither side takes a lock; a side that has to wait (consumer on an empty buffer, producer on a full one) does so according to the
+ * buffer's {@link StreamWaitStrategy}.
+ * The producer may also discard the oldest element to make room, so the read position is advanced with a compare-and-set.
+ * @param <E> the type of element held in the buffer
+ */
+class StreamRingBuffer<E> {
+
+	private final AtomicReferenceArray<E> elements;
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final StreamWaitStrategy waitStrategy;
+
+	// next slot to be read; advanced by the consumer, or by the producer when it drops the oldest element
+	private final AtomicLong head = new AtomicLong();
+
+	// next slot to be written; only advanced by the producer
+	private final AtomicLong tail = new AtomicLong();
+
+	private final AtomicLong dropped;
+
+	private final int sampleRate;
+
+	private final int sampleThreshold;
+
+	// producer-only
+	private int sampleCount;
+
+	private volatile Thread waitingConsumer;
+
+	private volatile Thread waitingProducer;
+
+	private volatile boolean closed;
+
+	StreamRingBuffer(int capacity, StreamWaitStrategy waitStrategy) {
+		this(capacity, waitStrategy, DEFAULT_SAMPLE_RATE, new AtomicLong());
+	}
+
+	/**
+	 * @param capacity the minimum number of elements the buffer can hold; rounded up to a power of two
+	 * @param waitStrategy how either side waits on the other
+	 * @param sampleRate the N in "keep one in every N" for {@link StreamOverflowPolicy#SAMPLE}
+	 * @param dropped the counter elements discarded by an overflow policy are added to; may be shared with buffers that went before
+	 */
+	StreamRingBuffer(int capacity, StreamWaitStrategy waitStrategy, int sampleRate, AtomicLong dropped) {
+		Assert.isTrue(capacity > 0 && capacity <= MAX_CAPACITY, "'capacity' must be between 1 and " + MAX_CAPACITY);
+		Assert.notNull(waitStrategy, "StreamWaitStrategy may not be null");
+		Assert.isTrue(sampleRate > 0, "'sampleRate' must be greater than 0");
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.capacity = size;
+		this.mask = size - 1;
+		this.waitStrategy = waitStrategy;
+		this.sampleRate = sampleRate;
+		this.sampleThreshold = size - size / 4;
+		this.dropped = dropped;
+	}
+
+	/**
+	 * Publishes an element if there is room for it.
+	 * @param element the element to publish
+	 * @return true if the element was published, false if the buffer is full or closed
+	 */
+	boolean offer(E element) {
+		if (closed) {
+			return false;
+		}
+		long currentTail = tail.get();
+		if (currentTail - head.get() >= capacity) {
+			return false;
+		}
+		elements.set((int) currentTail & mask, element);
+		tail.set(currentTail + 1);
+		wake(waitingConsumer);
+		return true;
+	}
+
+	/**
+	 * Publishes an element, waiting for room if the buffer is full.
+	 * @param element the element to publish
+	 * @return true if the element was published, false if the buffer was closed before it could be
+	 * @throws InterruptedException if the producer thread is interrupted while waiting
+	 */
+	boolean put(E element) throws InterruptedException {
+		int spins = 0;
+		while (!offer(element)) {
+			if (closed) {
+				return false;
+			}
+			spins = idle(spins, false);
+		}
+		return true;
+	}
+
+	/**
+	 * Publishes an element, applying the given policy if the buffer is full.
+	 * Every element discarded to honor the policy is added to {@link #getDroppedCount()}.
+	 * @param element the element to publish
+	 * @param overflowPolicy what to do if the buffer is full
+	 * @return true if the element was published, false if it was dropped or the buffer is closed
+	 * @throws InterruptedException if the producer thread is interrupted while waiting for room
+	 */
+	boolean publish(E element, StreamOverflowPolicy overflowPolicy) throws InterruptedException {
+		switch (overflowPolicy) {
+			case DROP_NEWEST:
+				if (offer(element)) {
+					return true;
+				}
+				if (!closed) {
+					dropped.incrementAndGet();
+				}
+				return false;
+			case DROP_OLDEST:
+				while (!offer(element)) {
+					if (closed) {
+						return false;
+					}
+					if (poll() != null) {
+						dropped.incrementAndGet();
+					}
+				}
+				return true;
+			case SAMPLE:
+				if (size() >= sampleThreshold && sampleCount++ % sampleRate != 0) {
+					dropped.incrementAndGet();
+					return false;
+				}
+				if (offer(element)) {
+					return true;
+				}
+				if (!closed) {
+					dropped.incrementAndGet();
+				}
+				return false;
+			default:
+				return put(element);
+		}
+	}
+
+	/**
+	 * @return the next element, or null if the buffer is empty
+	 */
+	E poll() {
+		while (true) {
+			long currentHead = head.get();
+			if (currentHead >= tail.get()) {
+				return null;
+			}
+			int index = (int) currentHead & mask;
+			E element = elements.get(index);
+			if (head.compareAndSet(currentHead, currentHead + 1)) {
+				// leave the slot alone if the producer has already reused it
+				elements.compareAndSet(index, element, null);
+				wake(waitingProducer);
+				return element;
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the next element, waiting for one to be published if the buffer is empty.
+	 * Elements published before the buffer was closed are still handed out.
+	 * @return the next element, or null once the buffer is closed and drained
+	 * @throws InterruptedException if the consumer thread is interrupted while waiting
+	 */
+	E take() throws InterruptedException {
+		int spins = 0;
+		E element;
+		while ((element = poll()) == null) {
+			if (closed) {
+				return poll();
+			}
+			spins = idle(spins, true);
+		}
+		return element;
+	}
+
+	/**
+	 * Closes the buffer, releasing any thread waiting on it.
+	 */
+	void close() {
+		closed = true;
+		wake(waitingConsumer);
+		wake(waitingProducer);
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	boolean isEmpty() {
+		return head.get() >= tail.get();
+	}
+
+	int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the number of elements discarded by {@link #publish(Object, StreamOverflowPolicy)}, as kept by the buffer's drop counter
+	 */
+	long getDroppedCount() {
+		return dropped.get();
+	}
+
+	private int idle(int spins, boolean consumer) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		if (waitStrategy == StreamWaitStrategy.BUSY_SPIN) {
+			return spins;
+		}
+		if (spins < SPIN_TRIES) {
+			return spins + 1;
+		}
+		if (waitStrategy == StreamWaitStrategy.YIELDING) {
+			Thread.yield();
+		} else if (consumer) {
+			waitingConsumer = Thread.currentThread();
+			if (isEmpty() && !closed) {
+				LockSupport.park(this);
+			}
+			waitingConsumer = null;
+		} else {
+			waitingProducer = Thread.currentThread();
+			if (size() >= capacity && !closed) {
+				LockSupport.park(this);
+			}
+			waitingProducer = null;
+		}
+		return spins;
+	}
+
+	private void wake(Thread waiter) {
+		if (waiter != null) {
+			LockSupport.unpark(waiter);
+		}
+	}
+
+	private static final int SPIN_TRIES = 100;
+
+	static final int DEFAULT_SAMPLE_RATE = 10;
+
+	static final int MAX_CAPACITY = 1 << 30;
+
+}
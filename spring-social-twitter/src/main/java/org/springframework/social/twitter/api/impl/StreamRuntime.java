@@ -0,0 +1,266 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.StreamingException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The resources a stream keeps for as long as it is open, across any number of reconnects:
+ * the thread its dispatcher runs on, the router that maps its messages, and a delivery lane per listener backed by a fixed set of workers.
+ * A runtime is created when a stream is opened and shut down when the stream is closed.
+ * <p>
+ * A runtime created for a {@link StreamManager} owns no threads: its dispatcher and lanes run as tasks on the manager's shared pools.
+ * </p>
+ */
+class StreamRuntime {
+
+	private final StreamConfiguration configuration;
+
+	private final StreamMessageRouter router;
+
+	private final ExecutorService dispatcherExecutor;
+
+	private final ScheduledExecutorService listenerExecutor;
+
+	private final List<StreamListenerLane> lanes;
+
+	// shared by the handoff buffers of every connection, so the count survives reconnects
+	private final AtomicLong backpressureDropped = new AtomicLong();
+
+	private final StreamCounters counters = new StreamCounters();
+
+	private final StreamRecorder recorder;
+
+	// the buffer of the current connection, for its depth
+	private volatile StreamRingBuffer<byte[]> handoffBuffer;
+
+	private final boolean sharedExecutors;
+
+	private final AtomicBoolean shutdown = new AtomicBoolean();
+
+	StreamRuntime(ObjectMapper objectMapper, List<StreamListener> listeners, StreamConfiguration configuration) {
+		// one listener worker per listener at most: lanes never run on two workers at once, so more would sit idle
+		this(objectMapper, listeners, configuration, Executors.newSingleThreadExecutor(new StreamThreadFactory("twitter-stream-dispatcher-")),
+				Executors.newScheduledThreadPool(Math.max(1, listeners.size()), new StreamThreadFactory("twitter-stream-listener-")), false);
+	}
+
+	/**
+	 * Creates a runtime whose dispatcher and lanes run on executors shared with other streams.
+	 * The dispatcher drains its buffer in short tasks rather than keeping a thread, and shutting the runtime down leaves the executors running.
+	 */
+	StreamRuntime(ObjectMapper objectMapper, List<StreamListener> listeners, StreamConfiguration configuration,
+			ExecutorService dispatcherExecutor, ScheduledExecutorService listenerExecutor) {
+		this(objectMapper, listeners, configuration, dispatcherExecutor, listenerExecutor, true);
+	}
+
+	private StreamRuntime(ObjectMapper objectMapper, List<StreamListener> listeners, StreamConfiguration configuration,
+			ExecutorService dispatcherExecutor, ScheduledExecutorService listenerExecutor, boolean sharedExecutors) {
+		this.configuration = configuration;
+		this.router = new StreamMessageRouter(objectMapper, configuration.isLazyEntities());
+		this.dispatcherExecutor = dispatcherExecutor;
+		this.listenerExecutor = listenerExecutor;
+		this.sharedExecutors = sharedExecutors;
+		List<StreamListenerLane> lanes = new ArrayList<StreamListenerLane>(listeners.size());
+		for (StreamListener listener : listeners) {
+			lanes.add(new StreamListenerLane(listener, configuration.getListenerQueueCapacity(), configuration.getListenerOverflowPolicy(),
+					configuration.getSampleRate(), configuration.getWaitStrategy(), listenerExecutor, counters));
+		}
+		this.lanes = Collections.unmodifiableList(lanes);
+		this.recorder = configuration.getRecordingDirectory() != null ? createRecorder(configuration.getRecordingDirectory()) : null;
+	}
+
+	private StreamRecorder createRecorder(File recordingDirectory) {
+		try {
+			return StreamRecorder.create(recordingDirectory, StreamRecorder.DEFAULT_SEGMENT_SIZE);
+		} catch (IOException e) {
+			shutdown();
+			throw new StreamingException("Unable to record stream into " + recordingDirectory, e);
+		}
+	}
+
+	StreamConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	StreamMessageRouter getRouter() {
+		return router;
+	}
+
+	List<StreamListenerLane> getLanes() {
+		return lanes;
+	}
+
+	/**
+	 * Creates the buffer a newly opened connection hands its messages to its dispatcher through,
+	 * sized and counting drops as the stream's backpressure settings say.
+	 * @return a new, empty buffer
+	 */
+	StreamRingBuffer<byte[]> createHandoffBuffer() {
+		StreamRingBuffer<byte[]> buffer = new StreamRingBuffer<byte[]>(configuration.getBackpressureQueueCapacity(), configuration.getWaitStrategy(),
+				configuration.getSampleRate(), backpressureDropped);
+		handoffBuffer = buffer;
+		return buffer;
+	}
+
+	/**
+	 * @return the recorder every message read off the stream is appended to, or null if the stream isn't being recorded
+	 */
+	StreamRecorder getRecorder() {
+		return recorder;
+	}
+
+	StreamCounters getCounters() {
+		return counters;
+	}
+
+	/**
+	 * @return the number of messages waiting for the dispatcher on the current connection
+	 */
+	int getDispatcherQueueDepth() {
+		StreamRingBuffer<byte[]> buffer = handoffBuffer;
+		return buffer != null ? buffer.size() : 0;
+	}
+
+	/**
+	 * @return the number of messages waiting to be delivered, summed over every listener
+	 */
+	int getListenerQueueDepth() {
+		int depth = 0;
+		for (StreamListenerLane lane : lanes) {
+			depth += lane.getQueueSize();
+		}
+		return depth;
+	}
+
+	/**
+	 * @return the number of messages the backpressure policy discarded before they reached the dispatcher, over all connections
+	 */
+	long getBackpressureDroppedCount() {
+		return backpressureDropped.get();
+	}
+
+	/**
+	 * @return the number of messages the listener overflow policy discarded, summed over every listener
+	 */
+	long getListenerDroppedCount() {
+		long dropped = 0;
+		for (StreamListenerLane lane : lanes) {
+			dropped += lane.getDroppedCount();
+		}
+		return dropped;
+	}
+
+	/**
+	 * Runs a connection's dispatcher on the runtime's dispatcher thread.
+	 * Dispatchers run one after the other, so a reconnect reuses the thread once the previous connection's dispatcher has stopped.
+	 * On shared executors the dispatcher instead runs in short tasks whenever the reader signals it.
+	 * @param dispatcher the dispatcher for a newly opened connection
+	 * @return the dispatcher's completion, or null if it runs on shared executors
+	 */
+	Future<?> startDispatcher(StreamDispatcher dispatcher) {
+		if (sharedExecutors) {
+			dispatcher.drainOn(dispatcherExecutor);
+			return null;
+		}
+		return dispatcherExecutor.submit(dispatcher);
+	}
+
+	boolean isShutdown() {
+		return shutdown.get();
+	}
+
+	/**
+	 * Releases the runtime's threads. Messages already queued in a lane that is running are still delivered.
+	 */
+	void shutdown() {
+		if (shutdown.compareAndSet(false, true)) {
+			for (StreamListenerLane lane : lanes) {
+				lane.close();
+			}
+			if (!sharedExecutors) {
+				dispatcherExecutor.shutdownNow();
+				listenerExecutor.shutdown();
+			}
+			if (recorder != null) {
+				recorder.close();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the listeners to be handed every message queued before {@link #shutdown()}.
+	 * Only meaningful for a runtime with executors of its own.
+	 * @param timeout the longest time to wait
+	 * @param unit the unit of the timeout
+	 * @return true if every listener thread finished in time
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return listenerExecutor.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Takes a snapshot of the runtime's counters, completed with the connection state kept by whoever runs the stream.
+	 * @param reconnects the number of times the stream has reconnected
+	 * @param connected whether a connection is currently open
+	 * @param backoffMillis the current wait before the next attempt to connect
+	 * @return the stream's metrics
+	 */
+	StreamMetrics getMetrics(long reconnects, boolean connected, long backoffMillis) {
+		return new StreamMetrics(counters.getMessagesReceived(), counters.getMessagesPerSecond(), counters.getMessagesParsed(), counters.getParseErrors(),
+				counters.getMeanParseNanos(), counters.getMaxParseNanos(), counters.getListenerCalls(), counters.getMeanListenerNanos(), counters.getMaxListenerNanos(),
+				getDispatcherQueueDepth(), getListenerQueueDepth(), getBackpressureDroppedCount(), getListenerDroppedCount(),
+				counters.getLimitNotices(), counters.getLimitedTweets(), reconnects, connected, backoffMillis);
+	}
+
+	static final class StreamThreadFactory implements ThreadFactory {
+
+		private final String namePrefix;
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		StreamThreadFactory(String namePrefix) {
+			this.namePrefix = namePrefix;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package org.springframework.social.twitter.api.impl;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
@@ -24,14 +25,21 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 
+import javax.management.MBeanServer;
+
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.social.support.ClientHttpRequestFactorySelector;
 import org.springframework.social.twitter.api.FilterStreamParameters;
 import org.springframework.social.twitter.api.Stream;
 import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
 import org.springframework.social.twitter.api.StreamingOperations;
 import org.springframework.social.twitter.api.UserStreamParameters;
 import org.springframework.util.Assert;
@@ -39,52 +47,174 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * @author Craig Walls
  */
 public class StreamingTemplate extends AbstractTwitterOperations implements StreamingOperations {
 	
 	private final RestTemplate restTemplate;
+
+	private final ObjectMapper objectMapper = TwitterObjectMappers.getObjectMapper();
+
+	private final StreamConfiguration configuration = new StreamConfiguration();
+
+	private MBeanServer mbeanServer;
+
+	private StreamManager streamManager;
+
+	private ClientHttpRequestFactory requestFactory;
+
+	private ClientHttpRequestFactory restRequestFactory;
+
+	private List<ClientHttpRequestInterceptor> interceptors;
 					
 	public StreamingTemplate(RestTemplate restTemplate, boolean isAuthorizedForUser, boolean isAuthorizedForApp) {
 		super(isAuthorizedForUser, isAuthorizedForApp);
 		this.restTemplate = restTemplate;
 	}
 
+	public synchronized void setWaitStrategy(StreamWaitStrategy waitStrategy) {
+		configuration.setWaitStrategy(waitStrategy);
+	}
+
+	/**
+	 * Sets how many messages may be queued for each listener of a stream.
+	 * Every listener gets its own queue, delivered in order on a fixed set of worker threads.
+	 * Applies to streams opened after this call. Defaults to 1024.
+	 * @param capacity the maximum number of messages waiting to be delivered to a single listener
+	 */
+	public synchronized void setListenerQueueCapacity(int capacity) {
+		configuration.setListenerQueueCapacity(capacity);
+	}
+
+	/**
+	 * Sets what happens when a listener's queue is full.
+	 * With {@link StreamOverflowPolicy#DROP_OLDEST}, the default, a listener that falls behind loses its oldest queued messages
+	 * and the other listeners of its stream carry on; every message discarded is counted in {@link org.springframework.social.twitter.api.StreamMetrics#getListenerDropped()}.
+	 * {@link StreamOverflowPolicy#BLOCK} loses nothing, but one listener that falls behind holds up the stream's dispatcher and with it
+	 * delivery to every other listener of the stream, and then the reading of the connection, so it should only be chosen when no
+	 * listener can ever stall.
+	 * Applies to streams opened after this call.
+	 * @param overflowPolicy the policy applied to each listener's queue
+	 */
+	public synchronized void setListenerOverflowPolicy(StreamOverflowPolicy overflowPolicy) {
+		configuration.setListenerOverflowPolicy(overflowPolicy);
+	}
+
+	public synchronized void setBackpressureQueueCapacity(int capacity) {
+		configuration.setBackpressureQueueCapacity(capacity);
+	}
+
+	public synchronized void setBackpressurePolicy(StreamOverflowPolicy policy) {
+		configuration.setBackpressurePolicy(policy);
+	}
+
+	public synchronized void setSampleRate(int sampleRate) {
+		configuration.setSampleRate(sampleRate);
+	}
+
+	/**
+	 * Sets whether streams are opened with delimited=length, so that Twitter precedes every message with its length in bytes
+	 * and each message can be read off the connection without searching it for the end of the line.
+	 * Newline-delimited and length-delimited messages are both read correctly either way.
+	 * Applies to streams opened after this call. Defaults to false.
+	 * @param lengthDelimited true to ask for length-delimited messages
+	 */
+	public synchronized void setLengthDelimited(boolean lengthDelimited) {
+		configuration.setLengthDelimited(lengthDelimited);
+	}
+
+	/**
+	 * Sets a directory to record streams into. Each stream opened afterward appends every message it reads, with the time it arrived,
+	 * to memory-mapped segment files in a directory of its own under this one, until it is closed.
+	 * Recordings can be played back with {@link StreamReplayer}.
+	 * Set to null, the default, to stop recording new streams.
+	 * @param recordingDirectory the directory to keep recordings in
+	 */
+	public synchronized void setRecordingDirectory(File recordingDirectory) {
+		configuration.setRecordingDirectory(recordingDirectory);
+	}
+
+	/**
+	 * Sets whether each tweet's entities are only mapped when {@link org.springframework.social.twitter.api.Tweet#getEntities()} is first called.
+	 * Until then a tweet keeps the parsed tokens of its entities, so listeners that never look at them skip the work of building them.
+	 * Applies to streams opened after this call. Defaults to false.
+	 * @param lazyEntities true to build entities on first use
+	 */
+	public synchronized void setLazyEntities(boolean lazyEntities) {
+		configuration.setLazyEntities(lazyEntities);
+	}
+
+	/**
+	 * Sets the server each stream's metrics are exported to, as a {@link StreamMetricsMXBean} registered while the stream is open.
+	 * Applies to streams opened after this call. By default, and when set to null, metrics are only available from {@link Stream#getMetrics()}.
+	 * @param mbeanServer the server to register stream MXBeans with, such as the platform MBean server
+	 */
+	public synchronized void setMBeanServer(MBeanServer mbeanServer) {
+		this.mbeanServer = mbeanServer;
+	}
+
+	/**
+	 * Sets a manager to run streams opened afterward on, sharing its threads with every other stream it runs
+	 * instead of starting threads of their own. Set to null, the default, to give each new stream its own threads again.
+	 * @param streamManager the manager to open streams on
+	 */
+	public synchronized void setStreamManager(StreamManager streamManager) {
+		this.streamManager = streamManager;
+	}
+
+	/**
+	 * Opens streams with connections of their own rather than the RestTemplate's, still signed by its interceptors.
+	 * @param requestFactory the factory of stream requests, as {@link TwitterHttpTransport#getStreamingRequestFactory()} gives it;
+	 * null to go back to the RestTemplate's
+	 */
+	public synchronized void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+		this.requestFactory = requestFactory;
+	}
+
+	/**
+	 * Signs streams with the given interceptors rather than every one of the RestTemplate's, some of which only apply to REST requests.
+	 * @param interceptors the interceptors that sign requests; null to go back to the RestTemplate's
+	 */
+	public synchronized void setInterceptors(List<ClientHttpRequestInterceptor> interceptors) {
+		this.interceptors = interceptors;
+	}
+
+	// the factory the RestTemplate's requests connect with, under its interceptors, as it was set on the TwitterTemplate
+	synchronized void setRestRequestFactory(ClientHttpRequestFactory restRequestFactory) {
+		this.restRequestFactory = restRequestFactory;
+	}
+
 	public Stream firehose(final List<StreamListener> listeners) {
 		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
-		Stream stream = new ThreadedStreamConsumer() {
-			protected StreamReader getStreamReader() throws StreamCreationException {
-				return createStream(HttpMethod.GET, FIREHOSE_STREAM_URL, EMPTY_BODY, listeners);
+		return open("firehose", listeners, new StreamConnector() {
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+				return createStream(HttpMethod.GET, FIREHOSE_STREAM_URL, EMPTY_BODY, runtime);
 			}
-		};
-		stream.open();
-		return stream;
+		});
 	}
 	
 	public Stream firehose(final int backfill, final List<StreamListener> listeners) {
 		Assert.isTrue(Math.abs(backfill) >= -1 && Math.abs(backfill) <= 150000, "'backfill' must be a value between 1 to 150000 or -1 to -150000");
 		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
-		Stream stream = new ThreadedStreamConsumer() {
-			protected StreamReader getStreamReader() throws StreamCreationException {				
+		return open("firehose", listeners, new StreamConnector() {
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
 				MultiValueMap<String, String> parameters = new LinkedMultiValueMap<String, String>(1);
 				parameters.set("count", String.valueOf(backfill));
-				return createStream(HttpMethod.GET, FIREHOSE_STREAM_URL, parameters, listeners);
+				return createStream(HttpMethod.GET, FIREHOSE_STREAM_URL, parameters, runtime);
 			}
-		};
-		stream.open();
-		return stream;
+		});
 	}
 	
 	public Stream sample(final List<StreamListener> listeners) {
 		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
-		Stream stream = new ThreadedStreamConsumer() {
-			protected StreamReader getStreamReader() throws StreamCreationException {
-				return createStream(HttpMethod.GET, SAMPLE_STREAM_URL, EMPTY_BODY, listeners);
+		return open("sample", listeners, new StreamConnector() {
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+				return createStream(HttpMethod.GET, SAMPLE_STREAM_URL, EMPTY_BODY, runtime);
 			}
-		};
-		stream.open();
-		return stream;
+		});
 	}
 	
 	public Stream filter(String trackKeywords, List<StreamListener> listeners) {
@@ -95,13 +225,11 @@ public class StreamingTemplate extends AbstractTwitterOperations implements Stre
 		Assert.notNull(parameters, "StreamFilter may not be null");
 		Assert.isTrue(parameters.isValid(), "At least one of follow, track, or location must be specified in StreamFilter");
 		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
-		Stream stream = new ThreadedStreamConsumer() {
-			protected StreamReader getStreamReader() throws StreamCreationException {
-				return createStream(HttpMethod.POST, FILTERED_STREAM_URL, parameters.toParameterMap(), listeners);
+		return open("filter", listeners, new StreamConnector() {
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+				return createStream(HttpMethod.POST, FILTERED_STREAM_URL, parameters.toParameterMap(), runtime);
 			}
-		};
-		stream.open();
-		return stream;
+		});
 	}
 	
 	public Stream user(List<StreamListener> listeners) {
@@ -111,29 +239,61 @@ public class StreamingTemplate extends AbstractTwitterOperations implements Stre
 	public Stream user(final UserStreamParameters parameters, final List<StreamListener> listeners) {
 		Assert.notNull(parameters, "StreamFilter may not be null");
 		Assert.notEmpty(listeners, "Listeners collection may not be null or empty");
-		Stream stream = new ThreadedStreamConsumer() {
+		return open("user", listeners, new StreamConnector() {
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+				return createStream(HttpMethod.POST, USER_STREAM_URL, parameters.toParameterMap(), runtime);
+			}
+		});
+	}
+	
+	private Stream open(String kind, List<StreamListener> listeners, final StreamConnector connector) {
+		StreamManager manager;
+		MBeanServer server;
+		StreamConfiguration streamConfiguration;
+		synchronized (this) {
+			manager = streamManager;
+			server = mbeanServer;
+			streamConfiguration = configuration.copy();
+		}
+		if (manager != null) {
+			ManagedStream stream = manager.createStream(objectMapper, listeners, streamConfiguration, connector);
+			if (server != null) {
+				stream.exportMetrics(kind, server);
+			}
+			stream.open();
+			return stream;
+		}
+		ThreadedStreamConsumer stream = new ThreadedStreamConsumer(new StreamRuntime(objectMapper, listeners, streamConfiguration)) {
 			protected StreamReader getStreamReader() throws StreamCreationException {
-				return createStream(HttpMethod.POST, USER_STREAM_URL, parameters.toParameterMap(), listeners);
+				return connector.connect(getRuntime());
 			}
 		};
+		if (server != null) {
+			stream.exportMetrics(kind, server);
+		}
 		stream.open();
 		return stream;
 	}
-	
-	private StreamReader createStream(HttpMethod method, String streamUrl, MultiValueMap<String, String> body, List<StreamListener> listeners) throws StreamCreationException {
+
+	private StreamReader createStream(HttpMethod method, String streamUrl, MultiValueMap<String, String> body, StreamRuntime runtime) throws StreamCreationException {
+		if (runtime.getConfiguration().isLengthDelimited()) {
+			body = new LinkedMultiValueMap<String, String>(body);
+			body.set("delimited", "length");
+		}
 		try {
 			ClientHttpResponse response = executeRequest(method, streamUrl, body);
 			if (response.getStatusCode().value() > 200) {
+				response.close();
 				throw new StreamCreationException("Unable to create stream", response.getStatusCode());
 			}
-			return new StreamReaderImpl(response.getBody(), listeners);
+			return new StreamReaderImpl(response.getBody(), runtime);
 		} catch (IOException e) {
 			throw new StreamCreationException("Unable to create stream.", e);
 		}
 	}
 	
 	private ClientHttpResponse executeRequest(HttpMethod method, String url, MultiValueMap<String, String> body) throws IOException {
-		ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+		ClientHttpRequestFactory requestFactory = getRequestFactory();
 		ClientHttpRequest request = requestFactory.createRequest(URI.create(url), method);
 		OutputStreamWriter writer = new OutputStreamWriter(request.getBody());
 		writer.write(createFormUrlEncodedBodyString(body));
@@ -142,6 +302,22 @@ public class StreamingTemplate extends AbstractTwitterOperations implements Stre
 		return request.execute();
 	}
 
+	private synchronized ClientHttpRequestFactory getRequestFactory() {
+		if (requestFactory == null && interceptors == null) {
+			return restTemplate.getRequestFactory();
+		}
+		return new InterceptingClientHttpRequestFactory(requestFactory != null ? requestFactory : getRestRequestFactory(),
+				interceptors != null ? interceptors : restTemplate.getInterceptors());
+	}
+
+	// streams connect as REST requests do, even when they skip some of the RestTemplate's interceptors
+	private ClientHttpRequestFactory getRestRequestFactory() {
+		if (restRequestFactory == null) {
+			restRequestFactory = ClientHttpRequestFactorySelector.getRequestFactory(); // the RestTemplate's own default
+		}
+		return restRequestFactory;
+	}
+
 	private String createFormUrlEncodedBodyString(MultiValueMap<String, String> body) {
 		StringBuffer bodyBuffer = new StringBuffer();
 		for (Iterator<Entry<String, List<String>>> bodyIt = body.entrySet().iterator(); bodyIt.hasNext(); ) {
@@ -17,29 +17,55 @@ package org.springframework.social.twitter.api.impl;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.management.MBeanServer;
+
 import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamMetrics;
 import org.springframework.social.twitter.api.StreamingException;
 
 public abstract class ThreadedStreamConsumer extends Thread implements Stream {
 		
 	private AtomicBoolean open;
 
-	private StreamReader streamReader;
+	private volatile StreamReader streamReader;
+
+	private final StreamRuntime runtime;
+
+	// written by the consumer thread only
+	private volatile long reconnects;
+
+	private volatile long backoffMillis;
+
+	private volatile StreamMetricsExporter metricsExporter;
 
 	public ThreadedStreamConsumer() {
-		this.open = new AtomicBoolean(true);		
+		this(null);
+	}
+
+	ThreadedStreamConsumer(StreamRuntime runtime) {
+		this.open = new AtomicBoolean(true);
+		this.runtime = runtime;
 	}
 	
 	@Override
 	public void run() {
 		long timeToSleep = 250;
+		boolean connectedBefore = false;
 		streamReader = null;
 		
 		while(open.get()) {
 			try {
 				if(streamReader == null) {
 					streamReader = getStreamReader();
+					if(connectedBefore) {
+						reconnects++;
+					}
+					connectedBefore = true;
 					timeToSleep = MIN_WAIT;
+					if(!open.get()) { // closed while connecting
+						streamReader.close();
+						break;
+					}
 				}
 				streamReader.next();
 			} catch (StreamingException e) {
@@ -51,7 +77,7 @@ public abstract class ThreadedStreamConsumer extends Thread implements Stream {
 					if(timeToSleep == MIN_WAIT) {
 						timeToSleep = 5000;
 					}
-					sleepBeforeRetry(timeToSleep);
+					backOff(timeToSleep);
 					timeToSleep = timeToSleep * 2;				
 					// TODO: Should eventually fail...repeated tries could cause ban
 					if(timeToSleep > HTTP_ERROR_SLEEP_MAX) {
@@ -63,7 +89,7 @@ public abstract class ThreadedStreamConsumer extends Thread implements Stream {
 						if(timeToSleep == MIN_WAIT) {
 							timeToSleep = 250;
 						}
-						sleepBeforeRetry(timeToSleep);
+						backOff(timeToSleep);
 						timeToSleep = Math.min(timeToSleep + 250, NETWORK_ERROR_SLEEP_MAX);
 					}
 				}
@@ -77,14 +103,73 @@ public abstract class ThreadedStreamConsumer extends Thread implements Stream {
 
 	public void close() {
 		open.set(false);
-		if(streamReader != null) {
-			streamReader.close();
+		StreamReader currentReader = streamReader;
+		if(currentReader != null) {
+			currentReader.close();
+		}
+		if(runtime != null) {
+			runtime.shutdown();
+		}
+		StreamMetricsExporter exporter = metricsExporter;
+		if(exporter != null) {
+			exporter.unregister();
+		}
+	}
+
+	public StreamMetrics getMetrics() {
+		boolean connected = open.get() && streamReader != null;
+		if(runtime == null) {
+			return new StreamMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, reconnects, connected, backoffMillis);
 		}
+		return runtime.getMetrics(reconnects, connected, backoffMillis);
+	}
+
+	/**
+	 * Exports the stream's metrics as an MXBean until the stream is closed.
+	 * @param kind the kind of stream, used in the bean's name
+	 * @param mbeanServer the server to register with
+	 */
+	void exportMetrics(String kind, MBeanServer mbeanServer) {
+		metricsExporter = StreamMetricsExporter.export(this, kind, mbeanServer);
+	}
+
+	StreamMetricsExporter getMetricsExporter() {
+		return metricsExporter;
+	}
+
+	/**
+	 * @return the number of messages discarded by the backpressure policy since the stream was opened, across reconnects
+	 */
+	public long getBackpressureDroppedCount() {
+		return runtime != null ? runtime.getBackpressureDroppedCount() : 0;
+	}
+
+	/**
+	 * @return the number of messages discarded by the listener overflow policy since the stream was opened, summed over every listener
+	 */
+	public long getListenerDroppedCount() {
+		return runtime != null ? runtime.getListenerDroppedCount() : 0;
 	}
 
 	// subclass hook
 	protected abstract StreamReader getStreamReader() throws StreamCreationException;
 
+	/**
+	 * @return the runtime this stream's connections share across reconnects, or null if the subclass manages its own resources
+	 */
+	StreamRuntime getRuntime() {
+		return runtime;
+	}
+
+	private void backOff(long timeToSleep) {
+		backoffMillis = timeToSleep;
+		try {
+			sleepBeforeRetry(timeToSleep);
+		} finally {
+			backoffMillis = 0;
+		}
+	}
+
 	protected void sleepBeforeRetry(long timeToSleep) {
 		try {
 			Thread.sleep(timeToSleep);
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Parses dates in the format Twitter uses for every created_at field, such as "Mon Sep 24 03:35:21 +0000 2012".
+ * <p>
+ * Dates laid out exactly that way are parsed by reading the fields at their fixed positions, allocating nothing but the returned Date,
+ * and the most recently parsed ones are kept in a small cache, since the messages of a busy stream mostly carry dates from the same few seconds.
+ * Anything else is handed to a SimpleDateFormat, so every string parses to the same Date it always has.
+ * </p>
+ */
+final class TimelineDateParser {
+
+	private TimelineDateParser() {
+	}
+
+	/**
+	 * @param text a date in Twitter's timeline format
+	 * @return the date, or null if the text isn't a date in that format
+	 */
+	static Date parse(String text) {
+		if (text == null) {
+			return null;
+		}
+		int slot = text.hashCode() & (CACHE_SIZE - 1);
+		Entry entry = CACHE[slot];
+		if (entry != null && entry.text.equals(text)) {
+			return new Date(entry.millis);
+		}
+		long millis = parseFixedLayout(text);
+		if (millis == NOT_PARSED) {
+			return parseWithDateFormat(text);
+		}
+		CACHE[slot] = new Entry(text, millis);
+		return new Date(millis);
+	}
+
+	// returns NOT_PARSED for anything SimpleDateFormat might read differently, such as out-of-range fields it would roll over
+	private static long parseFixedLayout(String text) {
+		if (text.length() != 30 || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' ' || text.charAt(13) != ':'
+				|| text.charAt(16) != ':' || text.charAt(19) != ' ' || text.charAt(25) != ' ') {
+			return NOT_PARSED;
+		}
+		if (indexOf(DAYS, text, 0) < 0) {
+			return NOT_PARSED;
+		}
+		int month = indexOf(MONTHS, text, 4) + 1;
+		int day = digits(text, 8, 2);
+		int hour = digits(text, 11, 2);
+		int minute = digits(text, 14, 2);
+		int second = digits(text, 17, 2);
+		int offsetHours = digits(text, 21, 2);
+		int offsetMinutes = digits(text, 23, 2);
+		int year = digits(text, 26, 4);
+		char sign = text.charAt(20);
+		if (month == 0 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59
+				|| second < 0 || second > 59 || (sign != '+' && sign != '-') || offsetHours < 0 || offsetHours > 23
+				|| offsetMinutes < 0 || offsetMinutes > 59 || year < FIRST_GREGORIAN_YEAR) {
+			return NOT_PARSED;
+		}
+		long offsetSeconds = (offsetHours * 60 + offsetMinutes) * 60;
+		long seconds = daysSinceEpoch(year, month, day) * 86400 + (hour * 60 + minute) * 60 + second;
+		return (sign == '+' ? seconds - offsetSeconds : seconds + offsetSeconds) * 1000;
+	}
+
+	private static Date parseWithDateFormat(String text) {
+		try {
+			return new SimpleDateFormat(TIMELINE_DATE_FORMAT, Locale.ENGLISH).parse(text);
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+
+	private static int indexOf(String[] names, String text, int offset) {
+		for (int i = 0; i < names.length; i++) {
+			if (text.regionMatches(offset, names[i], 0, 3)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// -1 unless every character is a digit
+	private static int digits(String text, int offset, int count) {
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		if (month == 2) {
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		}
+		return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+	}
+
+	// days from 1970-01-01 in the proleptic Gregorian calendar
+	private static long daysSinceEpoch(int year, int month, int day) {
+		int y = month <= 2 ? year - 1 : year;
+		int era = y / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
+	private static final class Entry {
+
+		private final String text;
+
+		private final long millis;
+
+		private Entry(String text, long millis) {
+			this.text = text;
+			this.millis = millis;
+		}
+
+	}
+
+	private static final int CACHE_SIZE = 256;
+
+	// entries are immutable, so a slot may be read and replaced by several threads at once without locking
+	private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+	private static final long NOT_PARSED = Long.MIN_VALUE;
+
+	// before it, SimpleDateFormat counts in the Julian calendar
+	private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+	private static final String[] DAYS = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+
+	private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+
+	static final String TIMELINE_DATE_FORMAT = "EEE MMM dd HH:mm:ss ZZZZZ yyyy";
+
+}
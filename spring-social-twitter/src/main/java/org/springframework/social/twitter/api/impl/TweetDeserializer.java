@@ -16,15 +16,12 @@
 package org.springframework.social.twitter.api.impl;
 
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
-import java.util.regex.MatchResult;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.springframework.social.UncategorizedApiException;
 import org.springframework.social.twitter.api.Entities;
 import org.springframework.social.twitter.api.TickerSymbolEntity;
 import org.springframework.social.twitter.api.Tweet;
@@ -32,31 +29,264 @@ import org.springframework.social.twitter.api.TwitterProfile;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
  * Custom Jackson deserializer for tweets. Tweets can't be simply mapped like other Twitter model objects because the JSON structure
  * varies between the search API and the timeline API. This deserializer determine which structure is in play and creates a tweet from it.
+ * <p>
+ * Tweets are read in a single pass over the parser's tokens, without building a tree, and their entities and user are mapped
+ * by readers shared across every tweet.
+ * </p>
+ * <p>
+ * A reader with the {@link #LAZY_ENTITIES} attribute set to true keeps each tweet's entities as the tokens they were read from,
+ * and only maps them when {@link Tweet#getEntities()} is first called.
+ * </p>
+ * <p>
+ * Each tweet gets a {@link TwitterProfile} of its own unless sharing is asked for. A reader with the {@link #SHARED_PROFILES}
+ * attribute set to true lets the tweets it reads in one go that are by the same author share one profile for as long as the profile
+ * stays the same, so a timeline doesn't keep a copy of it for every tweet; one from {@link #withSharedProfiles(ObjectReader)}
+ * does the same across everything it reads, as a stream's tweets are. An unchanged profile is recognized as it's read and
+ * isn't built again. Shared profiles can't be changed: their extra data is read-only.
+ * {@link TwitterTemplate} and {@link StreamingTemplate} share profiles between the tweets they read.
+ * </p>
  * 
  * @author Craig Walls
  */
 public class TweetDeserializer extends JsonDeserializer<Tweet> {
 
+    /**
+     * The attribute that, set to {@link Boolean#TRUE} with {@link ObjectReader#withAttribute(Object, Object)},
+     * defers mapping each tweet's entities until they are asked for.
+     */
+    public static final String LAZY_ENTITIES = TweetDeserializer.class.getName() + ".LAZY_ENTITIES";
+
+    /**
+     * The attribute that, set to {@link Boolean#TRUE} with {@link ObjectReader#withAttribute(Object, Object)},
+     * lets the tweets read by one call to the reader share their authors' profiles.
+     */
+    public static final String SHARED_PROFILES = TweetDeserializer.class.getName() + ".SHARED_PROFILES";
+
+    /**
+     * @param reader a reader of tweets, or of something holding them
+     * @return a reader whose tweets share their authors' profiles with every other tweet it reads, for as long as it's kept
+     */
+    public static ObjectReader withSharedProfiles(ObjectReader reader) {
+        return reader.withAttribute(SHARED_PROFILES, new TwitterProfileCache());
+    }
+
     @Override
     public Tweet deserialize(final JsonParser jp, final DeserializationContext ctx) throws IOException {
-        final JsonNode node = jp.readValueAs(JsonNode.class);
-        if (null == node || node.isMissingNode() || node.isNull()) {
+        JsonToken token = jp.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            jp.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            jp.skipChildren();
             return null;
         }
-        final Tweet tweet = this.deserialize(node);
-        jp.skipChildren();
+        return readTweet(jp, Boolean.TRUE.equals(ctx.getAttribute(LAZY_ENTITIES)), profiles(ctx));
+    }
+
+    // the reader's own cache, one kept for this read alone, or none if profiles aren't shared
+    private static TwitterProfileCache profiles(DeserializationContext ctx) {
+        Object sharedProfiles = ctx.getAttribute(SHARED_PROFILES);
+        if (sharedProfiles instanceof TwitterProfileCache) {
+            return (TwitterProfileCache) sharedProfiles;
+        }
+        if (!Boolean.TRUE.equals(sharedProfiles)) {
+            return null;
+        }
+        TwitterProfileCache profiles = (TwitterProfileCache) ctx.getAttribute(TwitterProfileCache.class);
+        if (profiles == null) {
+            profiles = new TwitterProfileCache();
+            ctx.setAttribute(TwitterProfileCache.class, profiles);
+        }
+        return profiles;
+    }
+
+    // reads the fields of a tweet up to and including its END_OBJECT, in whatever order they come
+    private Tweet readTweet(JsonParser jp, boolean lazyEntities, TwitterProfileCache profiles) throws IOException {
+        long id = 0;
+        String text = "";
+        Date createdAt = null;
+        String source = null;
+        Long toUserId = null;
+        String languageCode = null;
+        TwitterProfile user = null;
+        Entities entities = null;
+        TokenBuffer entityTokens = null;
+        Long inReplyToStatusId = null;
+        Long inReplyToUserId = null;
+        String inReplyToScreenName = null;
+        Integer retweetCount = null;
+        boolean retweeted = false;
+        Tweet retweetedStatus = null;
+        boolean favorited = false;
+        Integer favoriteCount = null;
+        Boolean truncated = null;
+        Boolean possiblySensitive = null;
+
+        for (; jp.getCurrentToken() == JsonToken.FIELD_NAME; jp.nextToken()) {
+            String field = jp.getCurrentName();
+            JsonToken value = jp.nextToken();
+            switch (field) {
+            case "id":
+                id = asLong(jp);
+                break;
+            case "text":
+                text = asText(jp);
+                break;
+            case "created_at":
+                createdAt = TimelineDateParser.parse(asText(jp));
+                break;
+            case "source":
+                source = asText(jp);
+                break;
+            case "lang":
+                languageCode = asText(jp);
+                break;
+            case "user":
+                if (value == JsonToken.VALUE_NULL) {
+                    user = null;
+                } else {
+                    user = profiles != null ? profiles.read(jp) : PROFILE_READER.<TwitterProfile>readValue(jp);
+                }
+                break;
+            case "entities":
+                entities = null;
+                entityTokens = null;
+                if (lazyEntities && value == JsonToken.START_OBJECT) {
+                    entityTokens = new TokenBuffer(MAPPER, false);
+                    entityTokens.copyCurrentStructure(jp);
+                } else if (value != JsonToken.VALUE_NULL) {
+                    entities = ENTITIES_READER.readValue(jp);
+                }
+                break;
+            case "in_reply_to_status_id":
+                inReplyToStatusId = value != JsonToken.VALUE_NULL ? asLong(jp) : null;
+                break;
+            case "in_reply_to_user_id":
+                toUserId = asLong(jp);
+                inReplyToUserId = value != JsonToken.VALUE_NULL ? toUserId : null;
+                break;
+            case "in_reply_to_screen_name":
+                inReplyToScreenName = value != JsonToken.VALUE_NULL ? asText(jp) : null;
+                break;
+            case "retweet_count":
+                retweetCount = value != JsonToken.VALUE_NULL ? asInt(jp) : null;
+                break;
+            case "retweeted":
+                retweeted = asBoolean(jp);
+                break;
+            case "retweeted_status":
+                if (value == JsonToken.START_OBJECT) {
+                    jp.nextToken();
+                    retweetedStatus = readTweet(jp, lazyEntities, profiles);
+                } else {
+                    jp.skipChildren();
+                    retweetedStatus = null;
+                }
+                break;
+            case "favorited":
+                favorited = asBoolean(jp);
+                break;
+            case "favorite_count":
+                favoriteCount = value != JsonToken.VALUE_NULL ? asInt(jp) : null;
+                break;
+            case "truncated":
+                truncated = asBoolean(jp);
+                break;
+            case "possibly_sensitive":
+                possiblySensitive = asBoolean(jp);
+                break;
+            default:
+                jp.skipChildren();
+            }
+        }
+
+        if (id <= 0 || text == null || text.isEmpty()) {
+            return null;
+        }
+        String fromScreenName = user != null ? user.getScreenName() : null;
+        String fromImageUrl = user != null ? user.getProfileImageUrl() : null;
+        long fromId = user != null ? user.getId() : 0;
+        Tweet tweet = new Tweet(id, text, createdAt, fromScreenName, fromImageUrl, toUserId, fromId, languageCode, source);
+        if (entityTokens != null) {
+            tweet.setLazyEntities(new LazyEntities(entityTokens, text));
+        } else {
+            if (entities != null) {
+                extractTickerSymbolEntitiesFromText(text, entities);
+            }
+            tweet.setEntities(entities);
+        }
+        tweet.setUser(user);
+        tweet.setInReplyToStatusId(inReplyToStatusId);
+        tweet.setInReplyToUserId(inReplyToUserId);
+        tweet.setInReplyToScreenName(inReplyToScreenName);
+        tweet.setRetweetCount(retweetCount);
+        tweet.setRetweeted(retweeted);
+        tweet.setRetweetedStatus(retweetedStatus);
+        tweet.setFavorited(favorited);
+        tweet.setFavoriteCount(favoriteCount);
+        if (truncated != null)
+            tweet.setTruncated(truncated);
+        if (possiblySensitive != null)
+            tweet.setPossiblySensitive(possiblySensitive);
         return tweet;
     }
 
+    // the scalar readers below read a value the way the JsonNode methods of the same name do, skipping over objects and arrays
+
+    private static String asText(JsonParser jp) throws IOException {
+        switch (jp.getCurrentToken()) {
+        case VALUE_STRING:
+        case VALUE_NUMBER_INT:
+            return jp.getText();
+        case VALUE_NUMBER_FLOAT:
+            return String.valueOf(jp.getDoubleValue());
+        case VALUE_TRUE:
+            return "true";
+        case VALUE_FALSE:
+            return "false";
+        case VALUE_NULL:
+            return "null";
+        default:
+            jp.skipChildren();
+            return "";
+        }
+    }
 
+    private static long asLong(JsonParser jp) throws IOException {
+        long value = jp.getValueAsLong();
+        jp.skipChildren();
+        return value;
+    }
+
+    private static int asInt(JsonParser jp) throws IOException {
+        int value = jp.getValueAsInt();
+        jp.skipChildren();
+        return value;
+    }
+
+    private static boolean asBoolean(JsonParser jp) throws IOException {
+        boolean value = jp.getValueAsBoolean();
+        jp.skipChildren();
+        return value;
+    }
+
+    /**
+     * Creates a tweet from a JSON tree that has already been read.
+     * @param node the tweet's JSON
+     * @return the tweet, or null if the JSON has no id or text
+     * @throws IOException if the tweet's entities or user can't be mapped
+     * @throws JsonProcessingException if the tweet's entities or user can't be mapped
+     */
     public Tweet deserialize(JsonNode node) throws IOException, JsonProcessingException {
         final long id = node.path("id").asLong();
         final String text = node.path("text").asText();
@@ -75,7 +305,6 @@ public class TweetDeserializer extends JsonDeserializer<Tweet> {
 
     private Tweet readTweetFromJson(JsonNode node, Long id, String text) throws IOException {
         JsonNode fromUserNode = node.get("user");
-        String dateFormat = TIMELINE_DATE_FORMAT;
 
         String fromScreenName = null;
         JsonNode fromScreenNameNode = fromUserNode.get("screen_name");
@@ -92,7 +321,7 @@ public class TweetDeserializer extends JsonDeserializer<Tweet> {
         if (fromImageUrlNode != null)
             fromImageUrl = fromImageUrlNode.asText();
 
-        Date createdAt = toDate(node.get("created_at").asText(), new SimpleDateFormat(dateFormat, Locale.ENGLISH));
+        Date createdAt = TimelineDateParser.parse(node.get("created_at").asText());
         String source = node.get("source").asText();
 
         Long toUserId = null;
@@ -169,44 +398,22 @@ public class TweetDeserializer extends JsonDeserializer<Tweet> {
     }
 
 
-    private ObjectMapper createMapper() {
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new TwitterModule());
-        return mapper;
-    }
-
-    private Date toDate(String dateString, DateFormat dateFormat) {
-        if (dateString == null) {
-            return null;
-        }
-
-        try {
-            return dateFormat.parse(dateString);
-        }
-        catch (ParseException e) {
-            return null;
-        }
-    }
-
     // passing in text to fetch ticker symbol pseudo-entities
     private Entities toEntities(final JsonNode node, String text) throws IOException {
         if (null == node || node.isNull() || node.isMissingNode()) {
             return null;
         }
-        final ObjectMapper mapper = this.createMapper();
-        Entities entities = mapper.reader(Entities.class).readValue(node);
+        Entities entities = ENTITIES_READER.readValue(node);
         extractTickerSymbolEntitiesFromText(text, entities);
         return entities;
     }
 
-    private void extractTickerSymbolEntitiesFromText(String text, Entities entities) {
-        Pattern pattern = Pattern.compile("\\$[A-Za-z]+");
-        Matcher matcher = pattern.matcher(text);
+    private static void extractTickerSymbolEntitiesFromText(String text, Entities entities) {
+        Matcher matcher = TICKER_SYMBOL_PATTERN.matcher(text);
         while (matcher.find()) {
-            MatchResult matchResult = matcher.toMatchResult();
-            String tickerSymbol = matchResult.group().substring(1);
+            String tickerSymbol = text.substring(matcher.start() + 1, matcher.end());
             String url = "https://twitter.com/search?q=%24" + tickerSymbol + "&src=ctag";
-            entities.getTickerSymbols().add(new TickerSymbolEntity(tickerSymbol, url, new int[] {matchResult.start(), matchResult.end()}));
+            entities.getTickerSymbols().add(new TickerSymbolEntity(tickerSymbol, url, new int[] {matcher.start(), matcher.end()}));
         }
     }
 
@@ -215,11 +422,41 @@ public class TweetDeserializer extends JsonDeserializer<Tweet> {
         if (null == node || node.isNull() || node.isMissingNode()) {
             return null;
         }
-        final ObjectMapper mapper = this.createMapper();
-        return mapper.reader(TwitterProfile.class).readValue(node);
+        return PROFILE_READER.readValue(node);
     }
 
 
-    private static final String TIMELINE_DATE_FORMAT = "EEE MMM dd HH:mm:ss ZZZZZ yyyy";
+    // maps a tweet's entities from the tokens kept for them, on whichever thread first asks for them
+    private static final class LazyEntities implements Supplier<Entities> {
+
+        private final TokenBuffer tokens;
+
+        private final String text;
+
+        private LazyEntities(TokenBuffer tokens, String text) {
+            this.tokens = tokens;
+            this.text = text;
+        }
+
+        public Entities get() {
+            try {
+                Entities entities = ENTITIES_READER.readValue(tokens.asParser());
+                extractTickerSymbolEntitiesFromText(text, entities);
+                return entities;
+            } catch (IOException e) {
+                throw new UncategorizedApiException("twitter", "Unable to read the tweet's entities", e);
+            }
+        }
+
+    }
+
+    // entities and users are mapped with a mapper of our own, so their mixins apply whatever mapper is reading the tweet
+    private static final ObjectMapper MAPPER = TwitterObjectMappers.getObjectMapper();
+
+    private static final ObjectReader ENTITIES_READER = TwitterObjectMappers.reader(Entities.class);
+
+    private static final ObjectReader PROFILE_READER = TwitterObjectMappers.reader(TwitterProfile.class);
+
+    private static final Pattern TICKER_SYMBOL_PATTERN = Pattern.compile("\\$[A-Za-z]+");
 
 }
@@ -17,10 +17,12 @@ package org.springframework.social.twitter.api.impl;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatus.Series;
 import org.springframework.http.client.ClientHttpResponse;
@@ -30,7 +32,6 @@ import org.springframework.social.InvalidAuthorizationException;
 import org.springframework.social.MissingAuthorizationException;
 import org.springframework.social.NotAuthorizedException;
 import org.springframework.social.OperationNotPermittedException;
-import org.springframework.social.RateLimitExceededException;
 import org.springframework.social.ResourceNotFoundException;
 import org.springframework.social.RevokedAuthorizationException;
 import org.springframework.social.ServerDownException;
@@ -38,16 +39,23 @@ import org.springframework.social.ServerOverloadedException;
 import org.springframework.social.UncategorizedApiException;
 import org.springframework.social.twitter.api.InvalidMessageRecipientException;
 import org.springframework.social.twitter.api.MessageTooLongException;
+import org.springframework.social.twitter.api.RateLimitStatus;
+import org.springframework.social.twitter.api.TwitterRateLimitExceededException;
 import org.springframework.web.client.DefaultResponseErrorHandler;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 /**
  * Subclass of {@link DefaultResponseErrorHandler} that handles errors from Twitter's
  * REST API, interpreting them into appropriate exceptions.
+ * <p>
+ * The error body is read token by token and the error is told apart by the numeric code Twitter gives it, falling back
+ * to the text of the message for errors without a known code. Rate limit errors are thrown as
+ * {@link TwitterRateLimitExceededException}s carrying the limit's status from the x-rate-limit-* headers.
+ * </p>
  * 
  * @author Craig Walls
  */
@@ -74,70 +82,31 @@ public class TwitterErrorHandler extends DefaultResponseErrorHandler {
 
     private void handleClientErrors(ClientHttpResponse response) throws IOException {
         HttpStatus statusCode = response.getStatusCode();
-        Map<String, Object> errorMap = extractErrorDetailsFromResponse(response);
-
-        List<String> validationErrors = new ArrayList<>();
-        String errorText = "";
-        if (errorMap.containsKey("error")) {
-            errorText = (String) errorMap.get("error");
-        }
-        else if (errorMap.containsKey("errors")) {
-            Object errors = errorMap.get("errors");
-            if (errors instanceof List) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, String>> errorsList = (List<Map<String, String>>) errors;
-                for (Map<String, String> error : errorsList) {
-                    Object rawErrorCode = error.get("code");
-                    String treatedErrorCode = "";
-                    if (rawErrorCode.getClass() == Integer.class) {
-                        treatedErrorCode = ((Integer) rawErrorCode).toString();
-                    }
-                    else {
-                        treatedErrorCode = rawErrorCode.toString();
-                    }
-
-                    boolean isValidationError = treatedErrorCode.equals("INCLUSIVE_PARAMETERS") ||
-                            treatedErrorCode.equals("MISSING_PARAMETER") ||
-                            treatedErrorCode.equals("INVALID_PARAMETER") ||
-                            treatedErrorCode.equals("INVALID") ||
-                            treatedErrorCode.equals("INVALID_DENOMINATION");
-
-                    if (isValidationError) {
-                        validationErrors.add(error.get("message"));
-                    }
-                    else {
-                        if (errorText.length() != 0)
-                            errorText += "; ";
-
-                        errorText += error.get("message");
-                    }
-                }
-            }
-            else if (errors instanceof String) {
-                errorText = (String) errors;
-            }
-        }
+        ErrorDetails details = extractErrorDetailsFromResponse(response);
+        ErrorKind kind = details.classify();
+        String errorText = details.getErrorText();
 
         if (statusCode == HttpStatus.BAD_REQUEST) {
-            if (errorText.contains("Rate limit exceeded.")) {
-                throw new RateLimitExceededException("twitter");
+            if (kind == ErrorKind.RATE_LIMIT) {
+                throw new TwitterRateLimitExceededException(extractRateLimitStatus(response));
             }
 
+            List<String> validationErrors = details.getValidationErrors();
             if (validationErrors.size() != 0) {
-                throw new InvalidInputDataException("twitter", validationErrors);
+                throw new InvalidInputDataException("twitter", validationErrors, extractRateLimitStatus(response));
             }
         }
         else if (statusCode == HttpStatus.UNAUTHORIZED) {
             if (errorText == null) {
                 throw new NotAuthorizedException("twitter", response.getStatusText());
             }
-            else if (errorText.equals("Could not authenticate you.")) {
+            else if (kind == ErrorKind.MISSING_AUTHORIZATION) {
                 throw new MissingAuthorizationException("twitter");
             }
-            else if (errorText.equals("Could not authenticate with OAuth.")) { // revoked token
+            else if (kind == ErrorKind.REVOKED_AUTHORIZATION) {
                 throw new RevokedAuthorizationException("twitter");
             }
-            else if (errorText.equals("Invalid / expired Token")) { // Note that Twitter doesn't actually expire tokens
+            else if (kind == ErrorKind.INVALID_AUTHORIZATION) { // Note that Twitter doesn't actually expire tokens
                 throw new InvalidAuthorizationException("twitter", errorText);
             }
             else {
@@ -145,17 +114,17 @@ public class TwitterErrorHandler extends DefaultResponseErrorHandler {
             }
         }
         else if (statusCode == HttpStatus.FORBIDDEN) {
-            if (errorText.equals(DUPLICATE_STATUS_TEXT) || errorText.contains("You already said that")) {
+            if (kind == ErrorKind.DUPLICATE_STATUS) {
                 throw new DuplicateStatusException("twitter", errorText);
             }
-            else if (errorText.equals(STATUS_TOO_LONG_TEXT) || errorText.contains(MESSAGE_TOO_LONG_TEXT)) {
+            else if (kind == ErrorKind.MESSAGE_TOO_LONG) {
                 throw new MessageTooLongException(errorText);
             }
-            else if (errorText.equals(INVALID_MESSAGE_RECIPIENT_TEXT)) {
+            else if (kind == ErrorKind.INVALID_MESSAGE_RECIPIENT) {
                 throw new InvalidMessageRecipientException(errorText);
             }
-            else if (errorText.equals(DAILY_RATE_LIMIT_TEXT)) {
-                throw new RateLimitExceededException("twitter");
+            else if (kind == ErrorKind.RATE_LIMIT) {
+                throw new TwitterRateLimitExceededException(extractRateLimitStatus(response));
             }
             else {
                 throw new OperationNotPermittedException("twitter", errorText);
@@ -165,7 +134,7 @@ public class TwitterErrorHandler extends DefaultResponseErrorHandler {
             throw new ResourceNotFoundException("twitter", errorText);
         }
         else if (statusCode == HttpStatus.valueOf(ENHANCE_YOUR_CALM) || statusCode == HttpStatus.valueOf(TOO_MANY_REQUESTS)) {
-            throw new RateLimitExceededException("twitter");
+            throw new TwitterRateLimitExceededException(extractRateLimitStatus(response));
         }
 
     }
@@ -183,14 +152,182 @@ public class TwitterErrorHandler extends DefaultResponseErrorHandler {
         }
     }
 
-    private Map<String, Object> extractErrorDetailsFromResponse(ClientHttpResponse response) throws IOException {
-        ObjectMapper mapper = new ObjectMapper(new JsonFactory());
-        try {
-            return mapper.<Map<String, Object>>readValue(response.getBody(), new TypeReference<Map<String, Object>>() {});
+    private ErrorDetails extractErrorDetailsFromResponse(ClientHttpResponse response) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+            return ErrorDetails.read(parser);
         }
         catch (JsonParseException e) {
-            return Collections.emptyMap();
+            return new ErrorDetails();
+        }
+    }
+
+    // the limit's status as the x-rate-limit-* headers give it, or null if they don't
+    private RateLimitStatus extractRateLimitStatus(ClientHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        String reset = headers.getFirst("x-rate-limit-reset");
+        if (reset == null) {
+            return null;
+        }
+        try {
+            return new RateLimitStatus(null, parseHeader(headers.getFirst("x-rate-limit-limit")),
+                    parseHeader(headers.getFirst("x-rate-limit-remaining")), Long.parseLong(reset.trim()));
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int parseHeader(String value) {
+        return value != null ? Integer.parseInt(value.trim()) : 0;
+    }
+
+    private enum ErrorKind {
+        RATE_LIMIT,
+        MISSING_AUTHORIZATION,
+        REVOKED_AUTHORIZATION,
+        INVALID_AUTHORIZATION,
+        DUPLICATE_STATUS,
+        MESSAGE_TOO_LONG,
+        INVALID_MESSAGE_RECIPIENT
+    }
+
+    // what was read from an error body: {"error":"..."} or {"errors":[{"code":...,"message":"..."},...]} or {"errors":"..."}
+    private static final class ErrorDetails {
+        private boolean hasError;
+        private String error;
+        private final StringBuilder errorsText = new StringBuilder();
+        private final List<String> validationErrors = new ArrayList<>();
+        private ErrorKind codeKind;
+
+        static ErrorDetails read(JsonParser parser) throws IOException {
+            ErrorDetails details = new ErrorDetails();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return details;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("error".equals(field)) {
+                    details.hasError = true;
+                    details.error = value == JsonToken.VALUE_NULL ? null : value.isScalarValue() ? parser.getText() : skip(parser);
+                }
+                else if ("errors".equals(field) && value == JsonToken.START_ARRAY) {
+                    for (JsonToken error = parser.nextToken(); error != JsonToken.END_ARRAY; error = parser.nextToken()) {
+                        if (error == JsonToken.START_OBJECT) {
+                            details.readError(parser);
+                        }
+                        else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                else if ("errors".equals(field) && value == JsonToken.VALUE_STRING) {
+                    details.errorsText.append(parser.getText());
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            return details;
         }
+
+        private void readError(JsonParser parser) throws IOException {
+            int code = -1;
+            String codeName = null;
+            String message = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("code".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    code = parser.getIntValue();
+                }
+                else if ("code".equals(field) && value.isScalarValue()) {
+                    codeName = parser.getText();
+                }
+                else if ("message".equals(field) && value.isScalarValue()) {
+                    message = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            if (codeName != null && VALIDATION_ERROR_CODES.contains(codeName)) {
+                validationErrors.add(message);
+                return;
+            }
+            if (errorsText.length() != 0) {
+                errorsText.append("; ");
+            }
+            errorsText.append(message);
+            if (codeKind == null && code >= 0 && code < ERROR_CODES.length) {
+                codeKind = ERROR_CODES[code];
+            }
+        }
+
+        String getErrorText() {
+            return hasError ? error : errorsText.toString();
+        }
+
+        List<String> getValidationErrors() {
+            return hasError ? new ArrayList<String>() : validationErrors;
+        }
+
+        // by the first error with a known code, or failing that by the text of the message
+        ErrorKind classify() {
+            if (!hasError && codeKind != null) {
+                return codeKind;
+            }
+            String text = getErrorText();
+            if (text == null) {
+                return null;
+            }
+            if (text.contains("Rate limit exceeded.") || text.equals(DAILY_RATE_LIMIT_TEXT)) {
+                return ErrorKind.RATE_LIMIT;
+            }
+            if (text.equals("Could not authenticate you.")) {
+                return ErrorKind.MISSING_AUTHORIZATION;
+            }
+            if (text.equals("Could not authenticate with OAuth.")) { // revoked token
+                return ErrorKind.REVOKED_AUTHORIZATION;
+            }
+            if (text.equals("Invalid / expired Token")) {
+                return ErrorKind.INVALID_AUTHORIZATION;
+            }
+            if (text.equals(DUPLICATE_STATUS_TEXT) || text.contains("You already said that")) {
+                return ErrorKind.DUPLICATE_STATUS;
+            }
+            if (text.equals(STATUS_TOO_LONG_TEXT) || text.contains(MESSAGE_TOO_LONG_TEXT)) {
+                return ErrorKind.MESSAGE_TOO_LONG;
+            }
+            if (text.equals(INVALID_MESSAGE_RECIPIENT_TEXT)) {
+                return ErrorKind.INVALID_MESSAGE_RECIPIENT;
+            }
+            return null;
+        }
+
+        private static String skip(JsonParser parser) throws IOException {
+            parser.skipChildren();
+            return "";
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = TwitterObjectMappers.getObjectMapper().getFactory();
+
+    private static final Set<String> VALIDATION_ERROR_CODES = new HashSet<>(Arrays.asList(
+            "INCLUSIVE_PARAMETERS", "MISSING_PARAMETER", "INVALID_PARAMETER", "INVALID", "INVALID_DENOMINATION"));
+
+    // Twitter's numeric error codes, indexed by code
+    private static final ErrorKind[] ERROR_CODES = new ErrorKind[400];
+
+    static {
+        ERROR_CODES[32] = ErrorKind.MISSING_AUTHORIZATION; // Could not authenticate you
+        ERROR_CODES[88] = ErrorKind.RATE_LIMIT; // Rate limit exceeded
+        ERROR_CODES[89] = ErrorKind.INVALID_AUTHORIZATION; // Invalid or expired token
+        ERROR_CODES[150] = ErrorKind.INVALID_MESSAGE_RECIPIENT; // You cannot send messages to users who are not following you
+        ERROR_CODES[185] = ErrorKind.RATE_LIMIT; // User is over daily status update limit
+        ERROR_CODES[186] = ErrorKind.MESSAGE_TOO_LONG; // Status is over 140 characters
+        ERROR_CODES[187] = ErrorKind.DUPLICATE_STATUS; // Status is a duplicate
+        ERROR_CODES[354] = ErrorKind.MESSAGE_TOO_LONG; // The text of your direct message is over the max character limit
     }
 
     private static final String INVALID_MESSAGE_RECIPIENT_TEXT = "You cannot send messages to users who are not following you.";
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.net.ProxySelector;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Pooled, keep-alive HTTP transport for {@link TwitterTemplate}, given to it with {@link TwitterTemplate#setTransport(TwitterHttpTransport)}.
+ * <p>
+ * REST requests go through one pool of persistent connections, so that a run of calls to the same host pays for the TCP and TLS
+ * handshakes once instead of on every call. Streams get a pool of their own: a stream holds its connection for as long as it is open,
+ * and would otherwise take connections the REST calls are waiting for. Both pools are capped per host and in total, open sockets with
+ * TCP_NODELAY and SO_KEEPALIVE, and time out connecting and reading; a stream's read timeout is longer, since Twitter only sends a
+ * keep-alive newline every 30 seconds on a quiet stream.
+ * </p>
+ * <p>
+ * A transport may be shared by any number of TwitterTemplates, which then share its pools. Its settings are read when a request
+ * factory is first asked for. Requires Apache HttpClient 4.3 or later on the classpath.
+ * </p>
+ */
+public class TwitterHttpTransport implements DisposableBean {
+
+	private int maxConnections = 50;
+
+	private int maxConnectionsPerHost = 20;
+
+	private int maxStreams = 4;
+
+	private int connectTimeout = 5000;
+
+	private int readTimeout = 30000;
+
+	private int streamReadTimeout = 90000;
+
+	private int connectionRequestTimeout = 10000;
+
+	private long keepAlive = 30000;
+
+	private boolean tcpNoDelay = true;
+
+	private CloseableHttpClient httpClient;
+
+	private CloseableHttpClient streamingHttpClient;
+
+	private ClientHttpRequestFactory requestFactory;
+
+	private ClientHttpRequestFactory streamingRequestFactory;
+
+	/**
+	 * @param maxConnections the most connections the REST pool holds, across every host; 50 by default
+	 */
+	public synchronized void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * @param maxConnectionsPerHost the most connections the REST pool holds to any one host; 20 by default
+	 */
+	public synchronized void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+	/**
+	 * @param maxStreams the most streams open at once, to any one host or across them; 4 by default
+	 */
+	public synchronized void setMaxStreams(int maxStreams) {
+		this.maxStreams = maxStreams;
+	}
+
+	/**
+	 * @param connectTimeout milliseconds to wait for a connection to be established; 5000 by default
+	 */
+	public synchronized void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * @param readTimeout milliseconds to wait for a REST response's next bytes; 30000 by default
+	 */
+	public synchronized void setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * @param streamReadTimeout milliseconds a stream may go without sending anything, keep-alive newlines included,
+	 * before it's taken to have stalled; 90000 by default
+	 */
+	public synchronized void setStreamReadTimeout(int streamReadTimeout) {
+		this.streamReadTimeout = streamReadTimeout;
+	}
+
+	/**
+	 * @param connectionRequestTimeout milliseconds to wait for a pooled connection once the pool is exhausted; 10000 by default
+	 */
+	public synchronized void setConnectionRequestTimeout(int connectionRequestTimeout) {
+		this.connectionRequestTimeout = connectionRequestTimeout;
+	}
+
+	/**
+	 * @param keepAlive milliseconds an idle connection is kept for reuse when the server doesn't say for how long; 30000 by default
+	 */
+	public synchronized void setKeepAlive(long keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	/**
+	 * @param tcpNoDelay whether to disable Nagle's algorithm, so that small requests aren't held back; true by default
+	 */
+	public synchronized void setTcpNoDelay(boolean tcpNoDelay) {
+		this.tcpNoDelay = tcpNoDelay;
+	}
+
+	/**
+	 * @return the factory of requests to the REST API, over the pooled connections
+	 */
+	public synchronized ClientHttpRequestFactory getRequestFactory() {
+		if (requestFactory == null) {
+			httpClient = createHttpClient(maxConnections, maxConnectionsPerHost, readTimeout);
+			requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+		}
+		return requestFactory;
+	}
+
+	/**
+	 * @return the factory of stream requests, over connections of their own
+	 */
+	public synchronized ClientHttpRequestFactory getStreamingRequestFactory() {
+		if (streamingRequestFactory == null) {
+			streamingHttpClient = createHttpClient(maxStreams, maxStreams, streamReadTimeout);
+			streamingRequestFactory = new HttpComponentsClientHttpRequestFactory(streamingHttpClient);
+		}
+		return streamingRequestFactory;
+	}
+
+	/**
+	 * Closes both pools, and every connection in them.
+	 */
+	public synchronized void destroy() throws IOException {
+		try {
+			if (httpClient != null) {
+				httpClient.close();
+			}
+		} finally {
+			if (streamingHttpClient != null) {
+				streamingHttpClient.close();
+			}
+			httpClient = null;
+			streamingHttpClient = null;
+			requestFactory = null;
+			streamingRequestFactory = null;
+		}
+	}
+
+	private CloseableHttpClient createHttpClient(int maxTotal, int maxPerHost, int soTimeout) {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerHost);
+		connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+				.setTcpNoDelay(tcpNoDelay)
+				.setSoKeepAlive(true)
+				.setSoTimeout(soTimeout)
+				.build());
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setSocketTimeout(soTimeout)
+				.setConnectionRequestTimeout(connectionRequestTimeout)
+				.build();
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(new DefaultKeepAliveStrategy(keepAlive))
+				.setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()))
+				.build();
+	}
+
+	// keeps a connection for as long as the server's Keep-Alive header says, or for the default if it doesn't
+	private static class DefaultKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+		private final long keepAlive;
+
+		DefaultKeepAliveStrategy(long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return duration > 0 ? duration : keepAlive;
+		}
+
+	}
+
+}
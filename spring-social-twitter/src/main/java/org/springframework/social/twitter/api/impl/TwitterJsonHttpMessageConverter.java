@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Reads Twitter's JSON with the shared {@link TwitterObjectMappers#getObjectMapper() ObjectMapper} and its cached readers.
+ * The tweets of every timeline, list and search read through one converter share their authors' profiles,
+ * for as long as the profiles stay the same.
+ * @see TweetDeserializer#withSharedProfiles(ObjectReader)
+ */
+class TwitterJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+	private final TwitterProfileCache profiles = new TwitterProfileCache();
+
+	TwitterJsonHttpMessageConverter() {
+		setObjectMapper(TwitterObjectMappers.getObjectMapper());
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+		return read(getJavaType(clazz, null), inputMessage);
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+		return read(getJavaType(type, contextClass), inputMessage);
+	}
+
+	private Object read(JavaType javaType, HttpInputMessage inputMessage) throws IOException {
+		ObjectMapper objectMapper = getObjectMapper();
+		ObjectReader reader = objectMapper == TwitterObjectMappers.getObjectMapper() ? TwitterObjectMappers.reader(javaType) : objectMapper.reader(javaType);
+		try {
+			return reader.withAttribute(TweetDeserializer.SHARED_PROFILES, profiles).readValue(inputMessage.getBody());
+		} catch (IOException ex) {
+			throw new HttpMessageNotReadableException("Could not read JSON: " + ex.getMessage(), ex);
+		}
+	}
+
+}
@@ -102,6 +102,7 @@ public class TwitterModule extends SimpleModule {
     @Override
     public void setupModule(SetupContext context) {
         context.setMixInAnnotations(TwitterProfile.class, TwitterProfileMixin.class);
+        context.setMixInAnnotations(SharedTwitterProfile.class, TwitterProfileMixin.class);
         context.setMixInAnnotations(SavedSearch.class, SavedSearchMixin.class);
         context.setMixInAnnotations(Trend.class, TrendMixin.class);
         context.setMixInAnnotations(Trends.class, TrendsMixin.class);
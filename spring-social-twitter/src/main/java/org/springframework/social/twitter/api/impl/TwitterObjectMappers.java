@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.social.twitter.api.AccountSettings;
+import org.springframework.social.twitter.api.DirectMessage;
+import org.springframework.social.twitter.api.Entities;
+import org.springframework.social.twitter.api.OEmbedTweet;
+import org.springframework.social.twitter.api.Place;
+import org.springframework.social.twitter.api.SavedSearch;
+import org.springframework.social.twitter.api.SearchResults;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.social.twitter.api.UserList;
+import org.springframework.social.twitter.api.advertising.AdvertisingAccount;
+import org.springframework.social.twitter.api.advertising.Campaign;
+import org.springframework.social.twitter.api.advertising.Card;
+import org.springframework.social.twitter.api.advertising.FundingInstrument;
+import org.springframework.social.twitter.api.advertising.GlobalOptOut;
+import org.springframework.social.twitter.api.advertising.LineItem;
+import org.springframework.social.twitter.api.advertising.PromotableUser;
+import org.springframework.social.twitter.api.advertising.PromotedTweetReference;
+import org.springframework.social.twitter.api.advertising.PromotedUserReference;
+import org.springframework.social.twitter.api.advertising.TailoredAudience;
+import org.springframework.social.twitter.api.advertising.TailoredAudienceChange;
+import org.springframework.social.twitter.api.advertising.TargetingCriteria;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForAppStoreCategories;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForBehaviorTaxonomies;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForBehaviors;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForDevices;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForInterests;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForLanguages;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForLocations;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForNetworkOperators;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForPlatformVersions;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForPlatforms;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForTvChannel;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForTvGenre;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForTvMarket;
+import org.springframework.social.twitter.api.advertising.TargetingCriteriaDiscoveryForTvShow;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * The ObjectMapper shared by everything in the library that reads or writes Twitter's JSON, and the ObjectReaders built from it.
+ * <p>
+ * An ObjectMapper works out how to read each type the first time it meets it, by introspecting the type and its mixin,
+ * and keeps what it worked out for as long as the mapper lives. Sharing one mapper means that work is done once per type for the
+ * whole application rather than once for every TwitterTemplate, stream and error response.
+ * {@link #warmUp()} does it for every type the library reads up front, so the first requests after startup don't pay for it.
+ * </p>
+ * <p>
+ * The mapper is thread-safe but shared; it must not be reconfigured after it's in use.
+ * </p>
+ */
+public final class TwitterObjectMappers {
+
+	private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+	private static final ConcurrentMap<JavaType, ObjectReader> READERS = new ConcurrentHashMap<JavaType, ObjectReader>();
+
+	private TwitterObjectMappers() {
+	}
+
+	/**
+	 * @return the shared ObjectMapper, with the {@link TwitterModule} and the mixins for stream messages registered
+	 */
+	public static ObjectMapper getObjectMapper() {
+		return OBJECT_MAPPER;
+	}
+
+	/**
+	 * @param type the type to read
+	 * @return a reader for the type, with its deserializer already resolved
+	 */
+	public static ObjectReader reader(Class<?> type) {
+		return reader(OBJECT_MAPPER.getTypeFactory().constructType(type));
+	}
+
+	/**
+	 * @param type the type to read, with its type parameters
+	 * @return a reader for the type, with its deserializer already resolved
+	 */
+	public static ObjectReader reader(TypeReference<?> type) {
+		return reader(OBJECT_MAPPER.getTypeFactory().constructType(type));
+	}
+
+	/**
+	 * @param type the type to read
+	 * @return a reader for the type, with its deserializer already resolved
+	 */
+	public static ObjectReader reader(JavaType type) {
+		ObjectReader reader = READERS.get(type);
+		if (reader == null) {
+			reader = OBJECT_MAPPER.reader(type);
+			ObjectReader existing = READERS.putIfAbsent(type, reader);
+			if (existing != null) {
+				reader = existing;
+			}
+		}
+		return reader;
+	}
+
+	/**
+	 * Resolves how to read every type the library reads from Twitter, so the first requests and stream messages don't.
+	 * It's optional and meant to be called once at startup, perhaps on a background thread; calling it again does nothing more.
+	 */
+	public static void warmUp() {
+		for (JavaType type : responseTypes()) {
+			reader(type);
+		}
+	}
+
+	static List<JavaType> responseTypes() {
+		TypeFactory types = OBJECT_MAPPER.getTypeFactory();
+		List<JavaType> responseTypes = new ArrayList<JavaType>();
+		for (Class<?> type : RESPONSE_TYPES) {
+			responseTypes.add(types.constructType(type));
+		}
+		for (Class<?> type : LIST_ELEMENT_TYPES) {
+			responseTypes.add(types.constructCollectionType(List.class, type));
+		}
+		for (Class<?> type : ADVERTISING_TYPES) {
+			responseTypes.add(types.constructParametrizedType(DataListHolder.class, DataListHolder.class, type));
+			responseTypes.add(types.constructParametrizedType(DataSingleHolder.class, DataSingleHolder.class, type));
+		}
+		responseTypes.add(types.constructMapType(Map.class, String.class, Object.class));
+		return Collections.unmodifiableList(responseTypes);
+	}
+
+	private static ObjectMapper createObjectMapper() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new TwitterModule());
+		objectMapper.addMixInAnnotations(StreamDeleteEvent.class, StreamDeleteEventMixin.class);
+		objectMapper.addMixInAnnotations(StreamWarningEvent.class, StreamWarningEventMixin.class);
+		return objectMapper;
+	}
+
+	private static final Class<?>[] RESPONSE_TYPES = {
+		Tweet.class, TwitterProfile.class, DirectMessage.class, Entities.class, UserList.class, SavedSearch.class, Place.class,
+		SearchResults.class, OEmbedTweet.class, AccountSettings.class, SimilarPlacesResponse.class, StreamDeleteEvent.class,
+		StreamWarningEvent.class, CursoredLongList.class, UserListList.class, TwitterProfileUsersList.class,
+		CursoredTwitterProfileUsersList.class, TwitterProfileList.class, DirectMessageList.class, SavedSearchList.class,
+		SuggestionCategoryList.class, PlacesList.class, RateLimitStatusHolder.class, LocalTrendsHolder.class, DataStatsHolder.class };
+
+	private static final Class<?>[] LIST_ELEMENT_TYPES = { Tweet.class, TwitterProfile.class, DirectMessage.class, UserList.class };
+
+	private static final Class<?>[] ADVERTISING_TYPES = {
+		AdvertisingAccount.class, Campaign.class, Card.class, FundingInstrument.class, GlobalOptOut.class, LineItem.class,
+		PromotableUser.class, PromotedTweetReference.class, PromotedUserReference.class, TailoredAudience.class,
+		TailoredAudienceChange.class, TargetingCriteria.class, Tweet.class, TargetingCriteriaDiscoveryForAppStoreCategories.class,
+		TargetingCriteriaDiscoveryForBehaviorTaxonomies.class, TargetingCriteriaDiscoveryForBehaviors.class,
+		TargetingCriteriaDiscoveryForDevices.class, TargetingCriteriaDiscoveryForInterests.class,
+		TargetingCriteriaDiscoveryForLanguages.class, TargetingCriteriaDiscoveryForLocations.class,
+		TargetingCriteriaDiscoveryForNetworkOperators.class, TargetingCriteriaDiscoveryForPlatformVersions.class,
+		TargetingCriteriaDiscoveryForPlatforms.class, TargetingCriteriaDiscoveryForTvChannel.class,
+		TargetingCriteriaDiscoveryForTvGenre.class, TargetingCriteriaDiscoveryForTvMarket.class,
+		TargetingCriteriaDiscoveryForTvShow.class };
+
+}
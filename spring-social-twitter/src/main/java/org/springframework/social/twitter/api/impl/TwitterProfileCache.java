@@ -0,0 +1,190 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.social.twitter.api.TwitterProfile;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Hands out one instance for every unchanged copy of a user's profile, so that the many tweets a timeline or stream carries
+ * from the same few authors hold one profile between them rather than one each.
+ * <p>
+ * The most recently seen profiles are kept in a fixed number of slots, picked by user id, so it never holds more than that many.
+ * The profiles it hands out are {@link SharedTwitterProfile}s, which none of the tweets holding them can change.
+ * </p>
+ * <p>
+ * A profile whose {@code id} comes first, as it does in Twitter's responses, is checked against the one kept for that user as it's read:
+ * once its names, description, location, url, image and counts have all been found to match, the rest of it is skipped
+ * and the kept profile is handed out without a new one being built. Changes confined to the other fields, such as colors or
+ * settings, are therefore only picked up along with the next change to one of those. Any other profile is read in full,
+ * and only swapped for the kept one if it equals it, extra data included; one that has changed takes over the slot instead.
+ * </p>
+ */
+final class TwitterProfileCache {
+
+	private static final int SLOT_BITS = 10;
+
+	private static final String[] CHANGE_FIELDS = { "screen_name", "name", "description", "location", "url", "profile_image_url",
+		"statuses_count", "followers_count", "friends_count", "favourites_count", "listed_count" };
+
+	private static final int ALL_CHANGE_FIELDS = (1 << CHANGE_FIELDS.length) - 1;
+
+	private static final ObjectReader PROFILE_READER = TwitterObjectMappers.reader(SharedTwitterProfile.class);
+
+	// shared by every thread reading through the same template or reader
+	private final AtomicReferenceArray<SharedTwitterProfile> slots = new AtomicReferenceArray<SharedTwitterProfile>(1 << SLOT_BITS);
+
+	/**
+	 * Reads a profile, leaving the parser where its next token is the one after the profile.
+	 * @param jp a parser on the first token of a profile
+	 * @return the profile kept for its user if it hasn't changed, or the profile as read
+	 * @throws IOException if the profile can't be read
+	 */
+	TwitterProfile read(JsonParser jp) throws IOException {
+		if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+			return canonicalize(PROFILE_READER.<SharedTwitterProfile>readValue(jp));
+		}
+		// everything read so far, in case the profile turns out to have changed and has to be read in full after all
+		TokenBuffer tokens = new TokenBuffer(jp.getCodec(), false);
+		tokens.copyCurrentEvent(jp);
+		SharedTwitterProfile cached = null;
+		int unchecked = ALL_CHANGE_FIELDS;
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			tokens.copyCurrentEvent(jp);
+			String field = jp.getCurrentName();
+			jp.nextToken();
+			boolean unchanged;
+			if (cached == null) {
+				cached = "id".equals(field) && jp.getCurrentToken() == JsonToken.VALUE_NUMBER_INT ? cached(jp.getLongValue()) : null;
+				unchanged = cached != null;
+			} else {
+				int changeField = changeField(field);
+				unchanged = changeField == 0 || matches(cached, field, jp);
+				unchecked &= ~changeField;
+			}
+			tokens.copyCurrentStructure(jp);
+			if (!unchanged) {
+				JsonParser profile = JsonParserSequence.createFlattened(tokens.asParser(), jp);
+				profile.nextToken();
+				return canonicalize(PROFILE_READER.<SharedTwitterProfile>readValue(profile));
+			}
+			if (unchecked == 0) {
+				while (jp.nextToken() == JsonToken.FIELD_NAME) {
+					jp.nextToken();
+					jp.skipChildren();
+				}
+				return cached;
+			}
+		}
+		// one of the change fields is missing
+		tokens.copyCurrentEvent(jp);
+		JsonParser profile = tokens.asParser();
+		profile.nextToken();
+		return canonicalize(PROFILE_READER.<SharedTwitterProfile>readValue(profile));
+	}
+
+	/**
+	 * @param profile a profile just read
+	 * @return an equal profile read before, or the profile itself if there isn't one
+	 */
+	SharedTwitterProfile canonicalize(SharedTwitterProfile profile) {
+		if (profile == null) {
+			return null;
+		}
+		int slot = slot(profile.getId());
+		SharedTwitterProfile cached = slots.get(slot);
+		if (cached != null && cached.getId() == profile.getId() && cached.equals(profile)
+				&& cached.getExtraData().equals(profile.getExtraData())) {
+			return cached;
+		}
+		slots.set(slot, profile);
+		return profile;
+	}
+
+	void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.set(i, null);
+		}
+	}
+
+	private SharedTwitterProfile cached(long userId) {
+		SharedTwitterProfile cached = slots.get(slot(userId));
+		return cached != null && cached.getId() == userId ? cached : null;
+	}
+
+	private static int slot(long userId) {
+		int hash = (int) (userId ^ (userId >>> 32)) * 0x9E3779B9;
+		return hash >>> (32 - SLOT_BITS);
+	}
+
+	private static int changeField(String field) {
+		for (int i = 0; i < CHANGE_FIELDS.length; i++) {
+			if (CHANGE_FIELDS[i].equals(field)) {
+				return 1 << i;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean matches(TwitterProfile cached, String field, JsonParser jp) throws IOException {
+		switch (field) {
+		case "screen_name":
+			return sameText(cached.getScreenName(), jp);
+		case "name":
+			return sameText(cached.getName(), jp);
+		case "description":
+			return sameText(cached.getDescription(), jp);
+		case "location":
+			return sameText(cached.getLocation(), jp);
+		case "url":
+			return sameText(cached.getUrl(), jp);
+		case "profile_image_url":
+			return sameText(cached.getProfileImageUrl(), jp);
+		case "statuses_count":
+			return sameNumber(cached.getStatusesCount(), jp);
+		case "followers_count":
+			return sameNumber(cached.getFollowersCount(), jp);
+		case "friends_count":
+			return sameNumber(cached.getFriendsCount(), jp);
+		case "favourites_count":
+			return sameNumber(cached.getFavoritesCount(), jp);
+		case "listed_count":
+			return sameNumber(cached.getListedCount(), jp);
+		default:
+			return true;
+		}
+	}
+
+	private static boolean sameText(String cached, JsonParser jp) throws IOException {
+		if (jp.getCurrentToken() == JsonToken.VALUE_NULL) {
+			return cached == null;
+		}
+		return jp.getCurrentToken() == JsonToken.VALUE_STRING && jp.getText().equals(cached);
+	}
+
+	private static boolean sameNumber(int cached, JsonParser jp) throws IOException {
+		return jp.getCurrentToken() == JsonToken.VALUE_NUMBER_INT && jp.getLongValue() == cached;
+	}
+
+}
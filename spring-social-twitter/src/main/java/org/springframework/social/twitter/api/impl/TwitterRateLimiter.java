@@ -0,0 +1,351 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.twitter.api.RateLimitPolicy;
+import org.springframework.social.twitter.api.RateLimitStatus;
+import org.springframework.social.twitter.api.ResourceFamily;
+import org.springframework.social.twitter.api.TwitterRateLimitExceededException;
+
+/**
+ * Holds requests back before Twitter would reject them for going over a rate limit, given to a {@link TwitterTemplate} with
+ * {@link TwitterTemplate#setRateLimiter(TwitterRateLimiter)}.
+ * <p>
+ * Each endpoint's limit is tracked per user or application, as the x-rate-limit-limit, x-rate-limit-remaining and
+ * x-rate-limit-reset headers of its responses give it, and may be seeded ahead of the first response with
+ * {@link #seed(TwitterTemplate, ResourceFamily...)}. A request takes one of the calls left in the endpoint's window before
+ * it goes; once none are left, it waits for the window to reset or fails fast, as the {@link RateLimitPolicy} says, instead of
+ * spending a call on a 429 and risking the penalty for going on regardless. Calls in flight are counted against what the
+ * headers say is left, since Twitter may not have counted them yet. An endpoint whose window has reset is let through freely
+ * until a response says what its new window holds.
+ * </p>
+ * <p>
+ * Endpoints are named as Twitter's rate limit status names them, /statuses/show/:id say, once seeded; before that, as
+ * {@link TwitterApiUriResourceForStandard} and {@link TwitterApiUriResourceForAdvertising} do. Streams aren't limited.
+ * </p>
+ * <p>
+ * A limiter is meant to be shared, by every TwitterTemplate of a web tier say; it's thread-safe.
+ * </p>
+ */
+public class TwitterRateLimiter {
+
+	// Twitter's windows are reset on its clock, to the second; the margin keeps a request from going a little too early
+	private static final long RESET_MARGIN = 1000;
+
+	private static final long WINDOW = TimeUnit.MINUTES.toMillis(15);
+
+	private static final String ADVERTISING_PREFIX = "ads:";
+
+	private static final int SWEEP_INTERVAL = 1024;
+
+	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	private final Set<String> seededLiterals = ConcurrentHashMap.newKeySet();
+
+	private final List<SeededTemplate> seededTemplates = new CopyOnWriteArrayList<SeededTemplate>();
+
+	private volatile RateLimitPolicy policy = RateLimitPolicy.WAIT;
+
+	private volatile long maxWait = TimeUnit.MINUTES.toMillis(1);
+
+	private final AtomicLong bucketsCreated = new AtomicLong();
+
+	private final AtomicLong admittedCount = new AtomicLong();
+
+	private final AtomicLong delayedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	/**
+	 * @param policy what a request does when its endpoint has no calls left; {@link RateLimitPolicy#WAIT} by default
+	 */
+	public void setPolicy(RateLimitPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * @param maxWait the most milliseconds a request waits for its endpoint's window to reset before it fails fast instead;
+	 * 60000 by default
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * @return the number of requests let through
+	 */
+	public long getAdmittedCount() {
+		return admittedCount.get();
+	}
+
+	/**
+	 * @return the number of times a request waited for its endpoint's window to reset
+	 */
+	public long getDelayedCount() {
+		return delayedCount.get();
+	}
+
+	/**
+	 * @return the number of requests failed fast rather than sent to be rejected
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * Seeds the limits of the template's user or application with what Twitter's rate limit status says of them now.
+	 * @param twitter the template whose limits to seed; the status is fetched with it, and counts against its limit
+	 * @param families the families of the endpoints to seed; every family if none
+	 */
+	public void seed(TwitterTemplate twitter, ResourceFamily... families) {
+		Map<ResourceFamily, List<RateLimitStatus>> statuses = twitter.userOperations().getRateLimitStatus(families);
+		for (List<RateLimitStatus> family : statuses.values()) {
+			for (RateLimitStatus status : family) {
+				register(status.getEndpoint());
+				bucket(twitter.getIdentity(), status.getEndpoint()).seed(status.getQuarterOfHourLimit(), status.getRemainingHits(),
+						TimeUnit.SECONDS.toMillis(status.getResetTimeInSeconds()));
+			}
+		}
+	}
+
+	/**
+	 * @param twitter the template whose limit to look up
+	 * @param endpoint the endpoint, as Twitter's rate limit status names it if it was seeded
+	 * @return the endpoint's limit in the current window, less the calls in flight; null if it isn't known
+	 */
+	public RateLimitStatus getRateLimitStatus(TwitterTemplate twitter, String endpoint) {
+		Bucket bucket = buckets.get(key(twitter.getIdentity(), endpoint));
+		return bucket != null ? bucket.getStatus(endpoint, System.currentTimeMillis()) : null;
+	}
+
+	/**
+	 * @param identity the user or application the requests are made on behalf of
+	 * @return an interceptor limiting the requests of a RestTemplate, to be placed before the one that signs them
+	 */
+	ClientHttpRequestInterceptor interceptorFor(final String identity) {
+		return new ClientHttpRequestInterceptor() {
+			public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+				String endpoint = endpoint(request.getURI());
+				Bucket bucket = bucket(identity, endpoint);
+				admit(bucket, endpoint);
+				try {
+					ClientHttpResponse response = execution.execute(request, body);
+					bucket.update(response.getRawStatusCode(), response.getHeaders(), System.currentTimeMillis());
+					return response;
+				} finally {
+					bucket.release();
+				}
+			}
+		};
+	}
+
+	private void admit(Bucket bucket, String endpoint) throws IOException {
+		long delay;
+		while ((delay = bucket.acquire(System.currentTimeMillis())) > 0) {
+			if (policy == RateLimitPolicy.FAIL_FAST || delay > maxWait) {
+				rejectedCount.incrementAndGet();
+				throw new TwitterRateLimitExceededException(bucket.getStatus(endpoint, System.currentTimeMillis()));
+			}
+			delayedCount.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the rate limit of " + endpoint + " to reset");
+			}
+		}
+		admittedCount.incrementAndGet();
+	}
+
+	private Bucket bucket(String identity, String endpoint) {
+		String key = key(identity, endpoint);
+		Bucket bucket = buckets.get(key);
+		if (bucket == null) {
+			Bucket created = new Bucket();
+			bucket = buckets.putIfAbsent(key, created);
+			if (bucket == null) {
+				bucket = created;
+				if (bucketsCreated.incrementAndGet() % SWEEP_INTERVAL == 0) {
+					sweep();
+				}
+			}
+		}
+		return bucket;
+	}
+
+	// drops the buckets that know nothing worth keeping, so that one-off users don't hold on to theirs
+	private void sweep() {
+		long now = System.currentTimeMillis();
+		buckets.values().removeIf(bucket -> bucket.isIdle(now));
+	}
+
+	private void register(String endpoint) {
+		if (endpoint.indexOf(':') < 0) {
+			seededLiterals.add(endpoint);
+			return;
+		}
+		for (SeededTemplate seeded : seededTemplates) {
+			if (seeded.endpoint.equals(endpoint)) {
+				return;
+			}
+		}
+		// an id at the end may be given as a query parameter instead, as /users/show/:id is by users/show.json?user_id=
+		String path = endpoint;
+		int trailingPlaceholders = 0;
+		while (path.lastIndexOf('/') >= 0 && path.charAt(path.lastIndexOf('/') + 1) == ':') {
+			path = path.substring(0, path.lastIndexOf('/'));
+			trailingPlaceholders++;
+		}
+		String regex = ResourceTable.regex(path) + (trailingPlaceholders > 0 ? "(?:/[^/]+){0," + trailingPlaceholders + "}" : "");
+		seededTemplates.add(new SeededTemplate(Pattern.compile(regex), endpoint));
+	}
+
+	private String endpoint(URI uri) {
+		String standardPath = ResourceTable.relativePath(uri, TwitterApiHosts.getStandardApi());
+		if (standardPath != null) {
+			String endpoint = "/" + withoutExtension(standardPath);
+			if (seededLiterals.contains(endpoint)) {
+				return endpoint;
+			}
+			for (SeededTemplate seeded : seededTemplates) {
+				if (seeded.pattern.matcher(endpoint).matches()) {
+					return seeded.endpoint;
+				}
+			}
+			TwitterApiUriResourceForStandard resource = ResourceTable.STANDARD.resolve(standardPath);
+			return resource != null ? "/" + withoutExtension(resource.getPath()) : endpoint;
+		}
+		String advertisingPath = ResourceTable.relativePath(uri, TwitterApiHosts.getAdsApi());
+		if (advertisingPath != null) {
+			TwitterApiUriResourceForAdvertising resource = ResourceTable.ADVERTISING.resolve(advertisingPath);
+			return ADVERTISING_PREFIX + "/" + (resource != null ? resource.getPath() : advertisingPath);
+		}
+		return uri.getRawAuthority() + uri.getRawPath();
+	}
+
+	private static String withoutExtension(String path) {
+		return path.endsWith(".json") ? path.substring(0, path.length() - 5) : path;
+	}
+
+	private static String key(String identity, String endpoint) {
+		return identity + " " + endpoint;
+	}
+
+	// the calls left in an endpoint's window for one user or application
+	private static class Bucket {
+
+		private int limit = -1;
+
+		private int remaining;
+
+		private long reset;
+
+		private int inFlight;
+
+		// takes a call and returns 0, or returns the milliseconds until the window resets if none are left
+		synchronized long acquire(long now) {
+			if (limit >= 0 && now >= reset + RESET_MARGIN) {
+				limit = -1;
+			}
+			if (limit >= 0 && remaining <= 0) {
+				return reset + RESET_MARGIN - now;
+			}
+			if (limit >= 0) {
+				remaining--;
+			}
+			inFlight++;
+			return 0;
+		}
+
+		synchronized void release() {
+			inFlight--;
+		}
+
+		// the response counts its own call, but not the ones still in flight besides it
+		synchronized void update(int statusCode, HttpHeaders headers, long now) {
+			Long limit = parse(headers.getFirst("x-rate-limit-limit"));
+			Long remaining = parse(headers.getFirst("x-rate-limit-remaining"));
+			Long reset = parse(headers.getFirst("x-rate-limit-reset"));
+			if (limit != null && remaining != null && reset != null) {
+				set(limit.intValue(), remaining.intValue() - (inFlight - 1), TimeUnit.SECONDS.toMillis(reset));
+			} else if (statusCode == 429 || statusCode == 420) {
+				set(Math.max(this.limit, 0), 0, this.limit >= 0 ? this.reset : now + WINDOW);
+			}
+		}
+
+		synchronized void seed(int limit, int remaining, long reset) {
+			set(limit, remaining - inFlight, reset);
+		}
+
+		synchronized RateLimitStatus getStatus(String endpoint, long now) {
+			if (limit < 0 || now >= reset + RESET_MARGIN) {
+				return null;
+			}
+			return new RateLimitStatus(endpoint, limit, remaining, TimeUnit.MILLISECONDS.toSeconds(reset));
+		}
+
+		synchronized boolean isIdle(long now) {
+			return inFlight == 0 && (limit < 0 || now >= reset + RESET_MARGIN);
+		}
+
+		private void set(int limit, int remaining, long reset) {
+			this.limit = limit;
+			this.remaining = Math.max(remaining, 0);
+			this.reset = reset;
+		}
+
+		private static Long parse(String header) {
+			try {
+				return header != null ? Long.valueOf(header.trim()) : null;
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+	}
+
+	private static class SeededTemplate {
+
+		private final Pattern pattern;
+
+		private final String endpoint;
+
+		SeededTemplate(Pattern pattern, String endpoint) {
+			this.pattern = pattern;
+			this.endpoint = endpoint;
+		}
+
+	}
+
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+/**
+ * Caches the responses of read-mostly endpoints for a while, given to a {@link TwitterTemplate} with
+ * {@link TwitterTemplate#setResponseCache(TwitterResponseCache)}.
+ * <p>
+ * How long a response is kept is set per resource, as {@link TwitterApiUriResourceForStandard} and
+ * {@link TwitterApiUriResourceForAdvertising} name them; resources without a time to live aren't cached. By default, profiles,
+ * lists and account settings are kept for a minute, trends for five minutes, suggestion categories, places and targeting
+ * criteria discovery results for an hour and the rate limit status for fifteen seconds. Twitter's own Cache-Control headers,
+ * which forbid caching nearly everything, are ignored. Only successful GETs are cached, on behalf of the user or application
+ * that made them.
+ * </p>
+ * <p>
+ * Once a response has expired, it's revalidated rather than fetched again if Twitter gave it an ETag or a Last-Modified date:
+ * a 304 Not Modified keeps it for another time to live. Any other request, a write, drops the cached responses it may have made
+ * stale: those of the same family of the standard API, a list's after a list's members are changed say, or of the same
+ * advertising account. The cache is bounded in number of responses and in bytes, and evicts the least recently used response
+ * first.
+ * </p>
+ * <p>
+ * A cache is meant to be shared, by every TwitterTemplate of a web tier say; it's thread-safe.
+ * </p>
+ */
+public class TwitterResponseCache {
+
+	// the families of the standard API whose responses a write to another family changes too
+	private static final Map<String, Set<String>> RELATED_FAMILIES = new HashMap<String, Set<String>>();
+
+	static {
+		relate("account", "users");
+		relate("blocks", "friends", "followers", "users");
+		relate("favorites", "statuses", "users");
+		relate("friendships", "friends", "followers", "users");
+		relate("statuses", "users");
+	}
+
+	private final ConcurrentMap<Enum<?>, Long> timesToLive = new ConcurrentHashMap<Enum<?>, Long>();
+
+	// in access order, so that the least recently used response comes first; guarded by this
+	private final LinkedHashMap<RequestKey, Entry> entries = new LinkedHashMap<RequestKey, Entry>(16, 0.75f, true);
+
+	private long bytes;
+
+	private int maxEntries = 1000;
+
+	private long maxBytes = 8 * 1024 * 1024;
+
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong revalidationCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public TwitterResponseCache() {
+		long minute = TimeUnit.MINUTES.toMillis(1);
+		long hour = TimeUnit.HOURS.toMillis(1);
+		setTimeToLive(TwitterApiUriResourceForStandard.APPLICATION_RATE_LIMIT_STATUS, TimeUnit.SECONDS.toMillis(15));
+		setTimeToLive(TwitterApiUriResourceForStandard.ACCOUNT_VERIFY_CREDENTIALS, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.ACCOUNT_SETTINGS, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.USERS_SHOW, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.USERS_LOOKUP, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.LISTS, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.LISTS_SHOW, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.LISTS_MEMBERSHIPS, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.LISTS_SUBSCRIPTIONS, minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.TRENDS_PLACE, 5 * minute);
+		setTimeToLive(TwitterApiUriResourceForStandard.USERS_SUGGESTIONS, hour);
+		setTimeToLive(TwitterApiUriResourceForStandard.USERS_SUGGESTIONS_WITH_SLUG, hour);
+		setTimeToLive(TwitterApiUriResourceForStandard.GEO_ID, hour);
+		setTimeToLive(TwitterApiUriResourceForStandard.GEO_SEARCH, hour);
+		setTimeToLive(TwitterApiUriResourceForStandard.GEO_SIMILAR_PLACES, hour);
+		setTimeToLive(TwitterApiUriResourceForStandard.GEO_REVERSE_GEOCODE, hour);
+		for (TwitterApiUriResourceForAdvertising resource : TwitterApiUriResourceForAdvertising.values()) {
+			if (resource.name().startsWith("TARGETINGS_DISCOVERY_")) {
+				setTimeToLive(resource, hour);
+			}
+		}
+	}
+
+	/**
+	 * @param resource a resource of the standard API
+	 * @param timeToLive milliseconds its responses are kept for; 0 not to cache them
+	 */
+	public void setTimeToLive(TwitterApiUriResourceForStandard resource, long timeToLive) {
+		putTimeToLive(resource, timeToLive);
+	}
+
+	/**
+	 * @param resource a resource of the advertising API
+	 * @param timeToLive milliseconds its responses are kept for; 0 not to cache them
+	 */
+	public void setTimeToLive(TwitterApiUriResourceForAdvertising resource, long timeToLive) {
+		putTimeToLive(resource, timeToLive);
+	}
+
+	/**
+	 * @return milliseconds the resource's responses are kept for; 0 if they aren't cached
+	 */
+	public long getTimeToLive(TwitterApiUriResourceForStandard resource) {
+		return getTimeToLive((Enum<?>) resource);
+	}
+
+	/**
+	 * @return milliseconds the resource's responses are kept for; 0 if they aren't cached
+	 */
+	public long getTimeToLive(TwitterApiUriResourceForAdvertising resource) {
+		return getTimeToLive((Enum<?>) resource);
+	}
+
+	/**
+	 * @param maxEntries the most responses kept; 1000 by default
+	 */
+	public synchronized void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+		evict();
+	}
+
+	/**
+	 * @param maxBytes the most bytes of response bodies kept, in total; 8MB by default
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/**
+	 * @return the number of responses kept now
+	 */
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the bytes of response bodies kept now
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return the number of GET requests of cached resources answered from the cache, without going to Twitter
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of GET requests of cached resources that went to Twitter, to be revalidated or fetched anew
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of expired responses Twitter answered were not modified
+	 */
+	public long getRevalidationCount() {
+		return revalidationCount.get();
+	}
+
+	/**
+	 * @return the number of responses evicted to keep within bounds
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * Drops every response kept.
+	 */
+	public synchronized void clear() {
+		invalidationCount.incrementAndGet();
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @param identity the user or application the requests are made on behalf of
+	 * @return an interceptor caching the responses of a RestTemplate, to be placed before every other one
+	 */
+	ClientHttpRequestInterceptor interceptorFor(final String identity) {
+		return new ClientHttpRequestInterceptor() {
+			public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+				if (request.getMethod() != HttpMethod.GET) {
+					try {
+						return execution.execute(request, body);
+					} finally {
+						invalidate(request.getURI());
+					}
+				}
+				HttpHeaders headers = request.getHeaders();
+				long timeToLive = getTimeToLive(request.getURI());
+				if (timeToLive <= 0 || headers.getIfNoneMatch().size() > 0 || headers.containsKey("If-Modified-Since")) {
+					return execution.execute(request, body);
+				}
+				return execute(new RequestKey(identity, request.getURI()), timeToLive, request, body, execution);
+			}
+		};
+	}
+
+	private ClientHttpResponse execute(RequestKey key, long timeToLive, HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		long now = System.currentTimeMillis();
+		Entry entry = get(key);
+		if (entry != null && entry.expires > now) {
+			hitCount.incrementAndGet();
+			return entry.response.copy();
+		}
+		missCount.incrementAndGet();
+		long invalidations = invalidationCount.get();
+		if (entry != null && entry.isRevalidatable()) {
+			request = conditional(request, entry);
+		} else if (entry != null) {
+			remove(key, entry);
+			entry = null;
+		}
+
+		ClientHttpResponse response = execution.execute(request, body);
+		if (entry != null && response.getRawStatusCode() == 304) {
+			BufferedResponse revalidated;
+			try {
+				revalidated = entry.response.withHeaders(response.getHeaders());
+			} finally {
+				response.close();
+			}
+			revalidationCount.incrementAndGet();
+			put(key, new Entry(revalidated, now + timeToLive), invalidations);
+			return revalidated.copy();
+		}
+		if (response.getRawStatusCode() != 200) {
+			return response;
+		}
+		BufferedResponse buffered = new BufferedResponse(response);
+		put(key, new Entry(buffered, now + timeToLive), invalidations);
+		return buffered.copy();
+	}
+
+	// the request, asking for its response only if it has changed since the entry was kept
+	private HttpRequest conditional(HttpRequest request, Entry entry) {
+		final HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.getHeaders());
+		if (entry.response.getHeader("ETag") != null) {
+			headers.setIfNoneMatch(entry.response.getHeader("ETag"));
+		}
+		if (entry.response.getHeader("Last-Modified") != null) {
+			headers.set("If-Modified-Since", entry.response.getHeader("Last-Modified"));
+		}
+		return new HttpRequestWrapper(request) {
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+		};
+	}
+
+	private synchronized Entry get(RequestKey key) {
+		return entries.get(key);
+	}
+
+	// keeps the entry unless something was invalidated while its response was on its way, which may have made it stale already
+	private synchronized void put(RequestKey key, Entry entry, long invalidations) {
+		if (invalidationCount.get() != invalidations || entry.response.getSize() > maxBytes) {
+			return;
+		}
+		Entry replaced = entries.put(key, entry);
+		if (replaced != null) {
+			bytes -= replaced.response.getSize();
+		}
+		bytes += entry.response.getSize();
+		evict();
+	}
+
+	private synchronized void remove(RequestKey key, Entry entry) {
+		if (entries.remove(key, entry)) {
+			bytes -= entry.response.getSize();
+		}
+	}
+
+	private void evict() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+			bytes -= eldest.next().response.getSize();
+			eldest.remove();
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	private synchronized void invalidate(URI written) {
+		invalidationCount.incrementAndGet();
+		String standardPath = ResourceTable.relativePath(written, TwitterApiHosts.getStandardApi());
+		String advertisingPath = ResourceTable.relativePath(written, TwitterApiHosts.getAdsApi());
+		for (Iterator<Map.Entry<RequestKey, Entry>> kept = entries.entrySet().iterator(); kept.hasNext();) {
+			Map.Entry<RequestKey, Entry> entry = kept.next();
+			if (isMadeStale(entry.getKey().getUri(), standardPath, advertisingPath)) {
+				bytes -= entry.getValue().response.getSize();
+				kept.remove();
+			}
+		}
+	}
+
+	// whether a write to either path may have changed the response of a GET of the URI
+	private static boolean isMadeStale(URI uri, String standardPath, String advertisingPath) {
+		if (standardPath != null) {
+			String path = ResourceTable.relativePath(uri, TwitterApiHosts.getStandardApi());
+			String family = family(standardPath);
+			Set<String> families = RELATED_FAMILIES.containsKey(family) ? RELATED_FAMILIES.get(family) : Collections.singleton(family);
+			return path != null && families.contains(family(path));
+		}
+		if (advertisingPath != null) {
+			String path = ResourceTable.relativePath(uri, TwitterApiHosts.getAdsApi());
+			String account = account(advertisingPath);
+			return path != null && (path.equals(account) || path.startsWith(account + "/"));
+		}
+		return false;
+	}
+
+	private void putTimeToLive(Enum<?> resource, long timeToLive) {
+		if (timeToLive > 0) {
+			timesToLive.put(resource, timeToLive);
+		} else {
+			timesToLive.remove(resource);
+		}
+	}
+
+	private long getTimeToLive(Enum<?> resource) {
+		Long timeToLive = resource != null ? timesToLive.get(resource) : null;
+		return timeToLive != null ? timeToLive : 0;
+	}
+
+	private long getTimeToLive(URI uri) {
+		String standardPath = ResourceTable.relativePath(uri, TwitterApiHosts.getStandardApi());
+		if (standardPath != null) {
+			return getTimeToLive(ResourceTable.STANDARD.resolve(standardPath));
+		}
+		String advertisingPath = ResourceTable.relativePath(uri, TwitterApiHosts.getAdsApi());
+		if (advertisingPath != null) {
+			return getTimeToLive(ResourceTable.ADVERTISING.resolve(advertisingPath));
+		}
+		return 0;
+	}
+
+	private static void relate(String family, String... related) {
+		Set<String> families = new HashSet<String>(Arrays.asList(related));
+		families.add(family);
+		RELATED_FAMILIES.put(family, families);
+	}
+
+	// the first segment of a standard API path, "lists" for lists/members.json say
+	private static String family(String path) {
+		int slash = path.indexOf('/');
+		String family = slash >= 0 ? path.substring(0, slash) : path;
+		return family.endsWith(".json") ? family.substring(0, family.length() - 5) : family;
+	}
+
+	// the account an advertising API path is under, accounts/:account_id; the whole path if it's under none
+	private static String account(String path) {
+		String[] segments = path.split("/");
+		return segments.length >= 2 && segments[0].equals("accounts") ? segments[0] + "/" + segments[1] : path;
+	}
+
+	private static class Entry {
+
+		private final BufferedResponse response;
+
+		private final long expires;
+
+		Entry(BufferedResponse response, long expires) {
+			this.response = response;
+			this.expires = expires;
+		}
+
+		boolean isRevalidatable() {
+			return response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null;
+		}
+
+	}
+
+}
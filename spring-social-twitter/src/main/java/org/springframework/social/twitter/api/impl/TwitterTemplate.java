@@ -15,9 +15,13 @@
  */
 package org.springframework.social.twitter.api.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -59,7 +63,6 @@ import org.springframework.util.Assert;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * This is the central class for interacting with Twitter.
@@ -114,6 +117,16 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
 
     private Settings settings = null;
 
+    private String identity;
+
+    private List<ClientHttpRequestInterceptor> signingInterceptors;
+
+    private ClientHttpRequestInterceptor cachingInterceptor;
+
+    private ClientHttpRequestInterceptor coalescingInterceptor;
+
+    private ClientHttpRequestInterceptor rateLimitingInterceptor;
+
     /**
      * Create a new instance of TwitterTemplate.
      * 
@@ -134,6 +147,7 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
         super(consumerKey, consumerSecret, accessToken, accessTokenSecret);
         initSubApis();
         initHosts(hostForStandardApi, hostForAdsApi);
+        initInterceptors("user:" + consumerKey + ":" + accessToken);
     }
 
     /**
@@ -148,6 +162,7 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
         super(consumerKey, consumerSecret, accessToken, accessTokenSecret);
         initSubApis();
         initHosts(null, null);
+        initInterceptors("user:" + consumerKey + ":" + accessToken);
     }
 
     /**
@@ -164,6 +179,7 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
         this.clientRestTemplate = createClientRestTemplate(clientToken);
         initSubApis();
         initHosts(null, null);
+        initInterceptors("app:" + clientToken);
     }
 
     /**
@@ -180,6 +196,65 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
         this(exchangeCredentialsForClientToken(consumerKey, consumerSecret));
     }
 
+    /**
+     * Sends requests through a pooled, keep-alive transport instead of a connection per request,
+     * and opens streams through the transport's separate streaming pool.
+     * The transport may be shared with other TwitterTemplates; closing it is left to its owner.
+     * 
+     * @param transport the transport whose request factories to use
+     */
+    public void setTransport(TwitterHttpTransport transport) {
+        Assert.notNull(transport, "Argument 'transport' cannot be null.");
+        setRequestFactory(transport.getRequestFactory());
+        ((StreamingTemplate) streamOperations).setRequestFactory(transport.getStreamingRequestFactory());
+    }
+
+    /**
+     * Sets the factory requests to Twitter are made with, streams' included unless a transport gives them one of their own.
+     * Prefer this to setting it on {@link #getRestTemplate()}, which streams don't see once coalescing, caching or rate limiting
+     * is turned on.
+     * 
+     * @param requestFactory the factory to make requests with
+     */
+    @Override
+    public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+        getRestTemplate().setRequestFactory(requestFactory);
+        ((StreamingTemplate) streamOperations).setRestRequestFactory(requestFactory);
+    }
+
+    /**
+     * Lets identical GET requests in flight at the same time, from this template or any other given the same coalescer on behalf of
+     * the same user or application, share one call to Twitter. Streams aren't coalesced.
+     * 
+     * @param coalescer the coalescer to go through, or null to stop coalescing
+     */
+    public void setRequestCoalescer(RequestCoalescer coalescer) {
+        this.coalescingInterceptor = coalescer != null ? coalescer.interceptorFor(identity) : null;
+        installInterceptors();
+    }
+
+    /**
+     * Keeps the responses of read-mostly resources for as long as the cache's policy for each says, and drops them when a write
+     * may have changed them. Streams aren't cached.
+     * 
+     * @param cache the cache to go through, or null to stop caching
+     */
+    public void setResponseCache(TwitterResponseCache cache) {
+        this.cachingInterceptor = cache != null ? cache.interceptorFor(identity) : null;
+        installInterceptors();
+    }
+
+    /**
+     * Holds requests back before Twitter would reject them for going over the rate limits of the user or application, as
+     * the limiter tracks them. Streams aren't limited.
+     * 
+     * @param limiter the limiter to go through, or null to stop limiting
+     */
+    public void setRateLimiter(TwitterRateLimiter limiter) {
+        this.rateLimitingInterceptor = limiter != null ? limiter.interceptorFor(identity) : null;
+        installInterceptors();
+    }
+
     @Override
     /**
      * Add additional media types for TON upload
@@ -308,9 +383,7 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
 
     @Override
     protected MappingJackson2HttpMessageConverter getJsonMessageConverter() {
-        MappingJackson2HttpMessageConverter converter = super.getJsonMessageConverter();
-        converter.setObjectMapper(new ObjectMapper().registerModule(new TwitterModule()));
-        return converter;
+        return new TwitterJsonHttpMessageConverter();
     }
 
     @Override
@@ -361,12 +434,44 @@ public class TwitterTemplate extends AbstractOAuth1ApiBinding implements Twitter
         this.settings = new SettingsImpl();
     }
 
+    private void initInterceptors(String identity) {
+        this.identity = identity;
+        this.signingInterceptors = new ArrayList<ClientHttpRequestInterceptor>(getRestTemplate().getInterceptors());
+    }
+
+    private void installInterceptors() {
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<ClientHttpRequestInterceptor>();
+        if (cachingInterceptor != null) {
+            interceptors.add(cachingInterceptor);
+        }
+        if (coalescingInterceptor != null) {
+            interceptors.add(coalescingInterceptor);
+        }
+        if (rateLimitingInterceptor != null) {
+            interceptors.add(rateLimitingInterceptor);
+        }
+        boolean restOnly = !interceptors.isEmpty();
+        interceptors.addAll(signingInterceptors);
+        getRestTemplate().setInterceptors(interceptors);
+        ((StreamingTemplate) streamOperations).setInterceptors(restOnly ? signingInterceptors : null);
+    }
+
     private void initHosts(String standardApiHost, String adsApiHost) {
         TwitterApiHosts.setStandardApiHost(standardApiHost);
         TwitterApiHosts.setAdsApiHost(adsApiHost);
     }
 
-    private boolean isAuthorizedForApp() {
+    // the user or application requests are made on behalf of, as the REST interceptors tell them apart
+    String getIdentity() {
+        return identity;
+    }
+
+    // the interceptors that sign requests, without the ones that only make sense for the REST API's requests
+    List<ClientHttpRequestInterceptor> getSigningInterceptors() {
+        return signingInterceptors;
+    }
+
+    boolean isAuthorizedForApp() {
         return clientRestTemplate != null;
     }
 
@@ -16,15 +16,11 @@
 package org.springframework.social.twitter.api.impl.advertising;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.AbstractMap;
-import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Spliterator;
 
 import org.springframework.social.twitter.api.advertising.StatisticsGranularity;
 import org.springframework.social.twitter.api.advertising.StatisticsMetric;
@@ -36,10 +32,9 @@ import org.springframework.social.twitter.api.impl.LocalDateTimeDeserializer;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Deserializes the complex object {@link StatisticsSnapshot} Differently from the other REST objects in the domain, the {@link StatisticsSnapshot}
@@ -48,110 +43,194 @@ import com.fasterxml.jackson.databind.JsonNode;
  * This deserializer tackles this complexity by getting the flexible JSON parts and pushing them
  * into a rigit model {@link StatisticsSnapshotMetric}
  * 
+ * It reads the snapshot in a single pass over its fields, looking each one up as it comes, and puts every metric's
+ * entries straight into the primitive series of a {@link StatisticsSnapshotMetric}, without a tree or a boxed value per entry.
+ * 
  * @author hudson
  *
  */
 public class StatisticsSnapshotDeserializer extends JsonDeserializer<StatisticsSnapshot> {
-    @Override
-    public StatisticsSnapshot deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-        ObjectCodec codec = p.getCodec();
-        JsonNode root = codec.readTree(p);
-        JsonNode data = root.get("data");
-        if (data == null)
-            data = root;
-
-        if (data.size() == 0)
-            return null;
-
-        return new StatisticsSnapshot(
-                extractId(data),
-                extractSegmentation(data),
-                extractGranularity(data),
-                extractMetrics(data),
-                extractStartTime(data),
-                extractEndTime(data));
-    }
+    private static final Map<String, StatisticsMetric> METRICS = new HashMap<String, StatisticsMetric>();
 
-    private String extractId(JsonNode data) {
-        return data.get("id").asText();
+    static {
+        for (StatisticsMetric metric : StatisticsMetric.values()) {
+            METRICS.put(metric.toString(), metric);
+        }
     }
 
-    private StatisticsSegmentation extractSegmentation(JsonNode data) {
-        JsonNode segmentationNode = data.get("segment");
-        if (segmentationNode == null)
+    @Override
+    public StatisticsSnapshot deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            p.nextToken();
+        }
+        else if (token != JsonToken.FIELD_NAME) {
+            p.skipChildren();
             return null;
-
-        return new StatisticsSegmentation(
-                StatisticsSegmentationType.valueOf(segmentationNode.get("segmentation_type").asText()),
-                segmentationNode.get("segmentation_value").asText(),
-                segmentationNode.get("name").asText());
-
-    }
-
-    private StatisticsGranularity extractGranularity(JsonNode data) {
-        return StatisticsGranularity.valueOf(data.get("granularity").asText());
+        }
+        return readSnapshot(p, true);
     }
 
-    private Map<StatisticsMetric, StatisticsSnapshotMetric> extractMetrics(JsonNode data) {
-        Map<StatisticsMetric, StatisticsSnapshotMetric> map = new HashMap<StatisticsMetric, StatisticsSnapshotMetric>();
-        StatisticsMetric[] values = StatisticsMetric.class.getEnumConstants();
-        for (int i = 0; i < values.length; i++) {
-            StatisticsMetric metric = values[i];
-            JsonNode metricNode = data.get(metric.toString());
-            if (metricNode != null) {
-                List<Object> entries = new ArrayList<Object>();
-                parseMetricEntries(metric, metricNode.spliterator(), entries);
-                map.put(metric, new StatisticsSnapshotMetric(metric, entries));
+    // reads the fields of an object, from its first field; at the root, a "data" object stands in for the whole snapshot
+    private StatisticsSnapshot readSnapshot(JsonParser p, boolean root) throws IOException {
+        int fieldCount = 0;
+        boolean hasData = false;
+        StatisticsSnapshot data = null;
+        String id = null;
+        StatisticsSegmentation segmentation = null;
+        StatisticsGranularity granularity = null;
+        Map<StatisticsMetric, StatisticsSnapshotMetric> metrics = new EnumMap<StatisticsMetric, StatisticsSnapshotMetric>(StatisticsMetric.class);
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+
+        for (JsonToken token = p.getCurrentToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            fieldCount++;
+            if (root && "data".equals(field)) {
+                hasData = true;
+                if (value == JsonToken.START_OBJECT) {
+                    p.nextToken();
+                    data = readSnapshot(p, false);
+                }
+                else {
+                    p.skipChildren();
+                    data = null;
+                }
+                continue;
+            }
+            switch (field) {
+            case "id":
+                id = asText(p);
+                break;
+            case "segment":
+                segmentation = readSegmentation(p);
+                break;
+            case "granularity":
+                granularity = StatisticsGranularity.valueOf(asText(p));
+                break;
+            case "start_time":
+                startTime = LocalDateTimeDeserializer.parse(asText(p));
+                break;
+            case "end_time":
+                endTime = LocalDateTimeDeserializer.parse(asText(p));
+                break;
+            default:
+                StatisticsMetric metric = METRICS.get(field);
+                if (metric != null) {
+                    metrics.put(metric, readMetric(p, metric));
+                }
+                else {
+                    p.skipChildren();
+                }
             }
         }
 
-        return map;
-    }
-
-    private LocalDateTime extractStartTime(JsonNode data) {
-        return LocalDateTimeDeserializer.parse(data.get("start_time").asText());
-    }
-
-    private LocalDateTime extractEndTime(JsonNode data) {
-        return LocalDateTimeDeserializer.parse(data.get("end_time").asText());
+        if (hasData) {
+            return data;
+        }
+        if (fieldCount == 0) {
+            return null;
+        }
+        return new StatisticsSnapshot(id, segmentation, granularity, metrics, startTime, endTime);
     }
 
-    private void parseMetricEntries(StatisticsMetric metric, Spliterator<JsonNode> iterator, List<Object> entries) {
-        Type metricType = metric.getValueType();
-        if (metricType == BigDecimal.class)
-            dumpEntriesAsDecimals(iterator, entries);
-        else if (metricType == Integer.class)
-            dumpEntriesAsNumbers(iterator, entries);
-        else if (metricType == Object.class)
-            dumpEntriesAsHashes(iterator, entries);
+    private StatisticsSegmentation readSegmentation(JsonParser p) throws IOException {
+        if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String type = null;
+        String value = null;
+        String name = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            p.nextToken();
+            if ("segmentation_type".equals(field)) {
+                type = asText(p);
+            }
+            else if ("segmentation_value".equals(field)) {
+                value = asText(p);
+            }
+            else if ("name".equals(field)) {
+                name = asText(p);
+            }
+            else {
+                p.skipChildren();
+            }
+        }
+        return new StatisticsSegmentation(StatisticsSegmentationType.valueOf(type), value, name);
     }
 
-    private void dumpEntriesAsDecimals(Spliterator<JsonNode> iterator, List<Object> entries) {
-        iterator.forEachRemaining(i -> {
-            String entryValue = i.asText();
-            entries.add(BigDecimalMicroAmountDeserializer.parse(entryValue));
-        });
+    // the entries are the elements of an array or the values of an object
+    private StatisticsSnapshotMetric readMetric(JsonParser p, StatisticsMetric metric) throws IOException {
+        StatisticsSnapshotMetric.Builder builder = new StatisticsSnapshotMetric.Builder(metric);
+        JsonToken token = p.getCurrentToken();
+        if (token != JsonToken.START_ARRAY && token != JsonToken.START_OBJECT) {
+            return builder.build();
+        }
+        JsonToken end = token == JsonToken.START_ARRAY ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+        Class<?> valueType = metric.getValueType();
+        while ((token = p.nextToken()) != end) {
+            if (token == JsonToken.FIELD_NAME) {
+                token = p.nextToken();
+            }
+            if (valueType == Integer.class) {
+                readCount(p, token, builder);
+            }
+            else if (valueType == BigDecimal.class) {
+                builder.addMicroAmount(token == JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : Long.parseLong(asText(p)));
+            }
+            else if (valueType == Object.class && token == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = p.getCurrentName();
+                    p.nextToken();
+                    builder.addBreakdown(key, asText(p));
+                }
+            }
+            else {
+                p.skipChildren();
+            }
+        }
+        return builder.build();
     }
 
-    private void dumpEntriesAsNumbers(Spliterator<JsonNode> iterator, List<Object> entries) {
-        iterator.forEachRemaining(i -> {
-            String entryValue = i.asText();
-            if (!entryValue.contains(".")) {
-                entries.add(new Long(entryValue));
+    // a count written with a decimal point is a decimal, as it always was
+    private void readCount(JsonParser p, JsonToken token, StatisticsSnapshotMetric.Builder builder) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            builder.addCount(p.getLongValue());
+        }
+        else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            builder.addDecimal(p.getDoubleValue());
+        }
+        else {
+            String text = asText(p);
+            if (text.indexOf('.') < 0) {
+                builder.addCount(Long.parseLong(text));
             }
-                else {
-                    entries.add(new Float(entryValue));
-                }
-            });
+            else {
+                builder.addDecimal(Double.parseDouble(text));
+            }
+        }
     }
 
-    private void dumpEntriesAsHashes(Spliterator<JsonNode> iterator, List<Object> entries) {
-        iterator.forEachRemaining(i -> {
-            i.fields().forEachRemaining(j -> {
-                String key = j.getKey();
-                String value = j.getValue().asText();
-                entries.add(new AbstractMap.SimpleEntry<String, String>(key, value));
-            });
-        });
+    // the text JsonNode.asText() would give for the current value, skipping it if it's an array or object
+    private static String asText(JsonParser p) throws IOException {
+        switch (p.getCurrentToken()) {
+        case START_ARRAY:
+        case START_OBJECT:
+            p.skipChildren();
+            return "";
+        case VALUE_NUMBER_FLOAT:
+            return Double.toString(p.getDoubleValue());
+        case VALUE_NULL:
+            return "null";
+        case VALUE_TRUE:
+            return "true";
+        case VALUE_FALSE:
+            return "false";
+        default:
+            return p.getText();
+        }
     }
 }
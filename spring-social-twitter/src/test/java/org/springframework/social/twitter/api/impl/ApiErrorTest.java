@@ -16,6 +16,7 @@
 package org.springframework.social.twitter.api.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpStatus.BAD_GATEWAY;
@@ -35,8 +36,10 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.social.ApiException;
+import org.springframework.social.DuplicateStatusException;
 import org.springframework.social.InternalServerErrorException;
 import org.springframework.social.InvalidAuthorizationException;
 import org.springframework.social.NotAuthorizedException;
@@ -44,6 +47,8 @@ import org.springframework.social.RateLimitExceededException;
 import org.springframework.social.RevokedAuthorizationException;
 import org.springframework.social.ServerDownException;
 import org.springframework.social.ServerOverloadedException;
+import org.springframework.social.twitter.api.RateLimitStatus;
+import org.springframework.social.twitter.api.TwitterRateLimitExceededException;
 
 public class ApiErrorTest extends AbstractTwitterApiTest {
 
@@ -95,6 +100,70 @@ public class ApiErrorTest extends AbstractTwitterApiTest {
         twitter.searchOperations().search("#spring");
     }
 
+    @Test(expected = TwitterRateLimitExceededException.class)
+    public void tooManyRequests_rateLimitStatus() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-rate-limit-limit", "180");
+        headers.set("x-rate-limit-remaining", "0");
+        headers.set("x-rate-limit-reset", "1403602426");
+        mockServer
+                .expect(requestTo("https://api.twitter.com/1.1/search/tweets.json?q=%23spring&count=50"))
+                .andExpect(method(GET))
+                .andRespond(
+                        withStatus(HttpStatus.valueOf(429)).body("{\"errors\":[ {\"code\":88, \"message\":\"Rate limit exceeded\"} ] }").headers(headers)
+                                .contentType(APPLICATION_JSON));
+        try {
+            twitter.searchOperations().search("#spring");
+        }
+        catch (TwitterRateLimitExceededException e) {
+            RateLimitStatus status = e.getRateLimitStatus();
+            assertEquals(180, status.getQuarterOfHourLimit());
+            assertEquals(0, status.getRemainingHits());
+            assertEquals(1403602426L, status.getResetTimeInSeconds());
+            throw e;
+        }
+    }
+
+    @Test(expected = TwitterRateLimitExceededException.class)
+    public void rateLimitByCode() {
+        mockServer
+                .expect(requestTo("https://api.twitter.com/1.1/search/tweets.json?q=%23spring&count=50"))
+                .andExpect(method(GET))
+                .andRespond(
+                        withBadRequest().body("{\"errors\":[ {\"code\":88, \"message\":\"Limite de requisi\u00e7\u00f5es excedido\"} ] }").contentType(
+                                APPLICATION_JSON));
+        twitter.searchOperations().search("#spring");
+    }
+
+    @Test(expected = DuplicateStatusException.class)
+    public void duplicateStatusByCode() {
+        mockServer
+                .expect(requestTo("https://api.twitter.com/1.1/statuses/update.json"))
+                .andExpect(method(POST))
+                .andRespond(
+                        withStatus(FORBIDDEN).body("{\"errors\":[ {\"code\":187, \"message\":\"Status is a duplicate\"} ] }").contentType(APPLICATION_JSON));
+        twitter.timelineOperations().updateStatus("Some message");
+    }
+
+    @Test(expected = InvalidInputDataException.class)
+    public void validationErrors_withoutRateLimitHeaders() {
+        mockServer
+                .expect(requestTo("https://api.twitter.com/1.1/search/tweets.json?q=%23spring&count=50"))
+                .andExpect(method(GET))
+                .andRespond(
+                        withStatus(HttpStatus.valueOf(400)).body(
+                                "{\"errors\":[ {\"code\":\"INVALID\", \"message\":\"'start_time' is required.\"}, 7, {\"code\":\"MISSING_PARAMETER\"} ] }")
+                                .contentType(APPLICATION_JSON));
+        try {
+            twitter.searchOperations().search("#spring");
+        }
+        catch (InvalidInputDataException e) {
+            assertEquals("Some validation errors occurred:\n - 'start_time' is required.\n - null\n", e.getMessage());
+            assertNull(e.getRateLimitStatus());
+            throw e;
+        }
+    }
+
     @Test(expected = InvalidInputDataException.class)
     public void requiredErrors() {
         mockServer
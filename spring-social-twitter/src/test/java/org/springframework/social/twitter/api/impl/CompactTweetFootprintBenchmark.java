@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.CompactTweet;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TweetCompactor;
+import org.springframework.util.FileCopyUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Compares the heap kept by tweets held as {@link Tweet}s, as {@link CompactTweet}s copied one by one, and as CompactTweets copied
+ * by a {@link TweetCompactor} that shares their authors' profiles. The tweets are the home timeline fixture read over and over,
+ * so each copy is a distinct set of objects, as it would be for tweets read from Twitter.
+ * Not a unit test; run it with {@code main}, with a heap large enough for the tweets, and read the results off standard out.
+ * Usage: CompactTweetFootprintBenchmark [tweets]
+ */
+public class CompactTweetFootprintBenchmark {
+
+	// what's being measured, kept here so that it can't be collected while it is
+	private static Object retained;
+
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		byte[] timeline = FileCopyUtils.copyToByteArray(new ClassPathResource("basic/timeline.json", CompactTweetFootprintBenchmark.class).getInputStream());
+		ObjectReader reader = TwitterObjectMappers.reader(new TypeReference<List<Tweet>>() {});
+		readTweets(reader, timeline, count); // warms up, so the mapper's own state isn't counted
+
+		long before = usedHeap();
+		retained = readTweets(reader, timeline, count);
+		report("Tweet", count, usedHeap() - before);
+
+		retained = null;
+		before = usedHeap();
+		retained = compact(readTweets(reader, timeline, count), null);
+		report("CompactTweet", count, usedHeap() - before);
+
+		retained = null;
+		before = usedHeap();
+		retained = compact(readTweets(reader, timeline, count), new TweetCompactor());
+		report("CompactTweet, shared", count, usedHeap() - before);
+	}
+
+	private static List<CompactTweet> compact(List<Tweet> tweets, TweetCompactor compactor) {
+		List<CompactTweet> compact = new ArrayList<CompactTweet>(tweets.size());
+		for (Tweet tweet : tweets) {
+			compact.add(compactor != null ? compactor.compact(tweet) : CompactTweet.of(tweet));
+		}
+		return compact;
+	}
+
+	private static List<Tweet> readTweets(ObjectReader reader, byte[] timeline, int count) throws Exception {
+		List<Tweet> tweets = new ArrayList<Tweet>(count);
+		while (tweets.size() < count) {
+			List<Tweet> read = reader.readValue(timeline);
+			tweets.addAll(read.subList(0, Math.min(read.size(), count - tweets.size())));
+		}
+		return tweets;
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report(String name, int count, long bytes) {
+		System.out.printf("%-22s %8d bytes/tweet%n", name, bytes / count);
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.CompactTweet;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TweetCompactor;
+import org.springframework.social.twitter.api.TwitterProfile;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+public class CompactTweetTest {
+
+	@Test
+	public void fixtureTimeline_sameAsTweet() throws Exception {
+		List<Tweet> tweets = readTimeline();
+		assertFalse(tweets.isEmpty());
+		for (Tweet tweet : tweets) {
+			CompactTweet compact = CompactTweet.of(tweet);
+			assertEquals(tweet.getCreatedAt(), compact.getCreatedAt());
+			assertEquals(tweet.getToUserId(), compact.getToUserId());
+			assertEquals(tweet.getRetweetCount(), compact.getRetweetCount());
+			assertEquals(tweet.hasMentions(), compact.hasMentions());
+			assertEquals(tweet.getEntities().getUrls(), compact.getUrls());
+			Tweet copy = compact.toTweet();
+			assertEquals(tweet, copy);
+			assertEquals(tweet.isFavorited(), copy.isFavorited());
+			assertEquals(tweet.getFavoriteCount(), copy.getFavoriteCount());
+			assertEquals(tweet.isTruncated(), copy.isTruncated());
+			assertEquals(tweet.isPossiblySensitive(), copy.isPossiblySensitive());
+			assertSame(tweet.getUser(), copy.getUser());
+		}
+	}
+
+	@Test
+	public void nullsKept() {
+		Tweet tweet = new Tweet(1, "Hello", null, "habuma", null, null, 42, null, null);
+		CompactTweet compact = CompactTweet.of(tweet);
+		assertNull(compact.getCreatedAt());
+		assertNull(compact.getToUserId());
+		assertNull(compact.getInReplyToStatusId());
+		assertNull(compact.getRetweetCount());
+		assertNull(compact.isTruncated());
+		assertNull(compact.isPossiblySensitive());
+		assertTrue(compact.getHashTags().isEmpty());
+		assertEquals(tweet, compact.toTweet());
+	}
+
+	@Test
+	public void compactor_sharesProfiles() throws Exception {
+		TweetCompactor compactor = new TweetCompactor();
+		List<Tweet> first = readTimeline();
+		List<Tweet> second = readTimeline(false);
+		for (int i = 0; i < first.size(); i++) {
+			assertNotSame(first.get(i).getUser(), second.get(i).getUser());
+			CompactTweet firstCompact = compactor.compact(first.get(i));
+			CompactTweet secondCompact = compactor.compact(second.get(i));
+			assertSame(firstCompact.getUser(), secondCompact.getUser());
+			assertSame(firstCompact.getFromUser(), secondCompact.getFromUser());
+			assertSame(firstCompact.getSource(), secondCompact.getSource());
+		}
+		assertTrue(compactor.getProfileCount() > 0);
+	}
+
+	@Test
+	public void compactor_changedProfileReplaces() {
+		TweetCompactor compactor = new TweetCompactor();
+		TwitterProfile before = new TwitterProfile(42, "habuma", "Craig Walls", null, null, null, null, null);
+		TwitterProfile same = new TwitterProfile(42, "habuma", "Craig Walls", null, null, null, null, null);
+		TwitterProfile renamed = new TwitterProfile(42, "habuma", "Craig", null, null, null, null, null);
+		assertSame(before, compactor.compact(tweetBy(before)).getUser());
+		assertSame(before, compactor.compact(tweetBy(same)).getUser());
+		assertSame(renamed, compactor.compact(tweetBy(renamed)).getUser());
+		assertSame(renamed, compactor.compact(tweetBy(new TwitterProfile(42, "habuma", "Craig", null, null, null, null, null))).getUser());
+		assertEquals(1, compactor.getProfileCount());
+	}
+
+	@Test
+	public void compactor_bounded() {
+		TweetCompactor compactor = new TweetCompactor(1);
+		compactor.compact(tweetBy(new TwitterProfile(1, "one", null, null, null, null, null, null)));
+		TwitterProfile other = new TwitterProfile(2, "two", null, null, null, null, null, null);
+		assertSame(other, compactor.compact(tweetBy(other)).getUser());
+		assertNotSame(other, compactor.compact(tweetBy(new TwitterProfile(2, "two", null, null, null, null, null, null))).getUser());
+		assertEquals(1, compactor.getProfileCount());
+		compactor.clear();
+		assertEquals(0, compactor.getProfileCount());
+	}
+
+	@Test
+	public void serializable() throws Exception {
+		CompactTweet compact = new TweetCompactor().compact(readTimeline().get(0));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(compact);
+		out.close();
+		CompactTweet copy = (CompactTweet) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(compact.toTweet(), copy.toTweet());
+	}
+
+	private Tweet tweetBy(TwitterProfile user) {
+		Tweet tweet = new Tweet(1, "Hello", null, user.getScreenName(), null, null, user.getId(), "en", "web");
+		tweet.setUser(user);
+		return tweet;
+	}
+
+	private List<Tweet> readTimeline() throws Exception {
+		return readTimeline(true);
+	}
+
+	private List<Tweet> readTimeline(boolean sharedProfiles) throws Exception {
+		return TwitterObjectMappers.reader(new TypeReference<List<Tweet>>() {})
+				.withAttribute(TweetDeserializer.SHARED_PROFILES, sharedProfiles)
+				.readValue(new ClassPathResource("basic/timeline.json", getClass()).getInputStream());
+	}
+
+}
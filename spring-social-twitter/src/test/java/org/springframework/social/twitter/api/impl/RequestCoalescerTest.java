@@ -0,0 +1,243 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class RequestCoalescerTest {
+
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private final CountDownLatch released = new CountDownLatch(1);
+
+	private volatile int status = 200;
+
+	private ExecutorService executor;
+
+	private HttpServer server;
+
+	private RequestCoalescer coalescer;
+
+	@Before
+	public void setup() throws IOException {
+		executor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(executor);
+		server.createContext("/profile", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				int hit = hits.incrementAndGet();
+				if ("GET".equals(exchange.getRequestMethod())) {
+					try {
+						released.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				byte[] body = ("{\"hit\":" + hit + "}").getBytes("UTF-8");
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(status, body.length);
+				exchange.getResponseBody().write(body);
+				exchange.close();
+			}
+		});
+		server.start();
+		coalescer = new RequestCoalescer();
+	}
+
+	@After
+	public void tearDown() {
+		released.countDown();
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void identicalGets_shareOneCall() throws Exception {
+		List<Future<String>> profiles = new ArrayList<Future<String>>();
+		for (int i = 0; i < 4; i++) {
+			profiles.add(executor.submit(getProfile(twitter("ACCESS_TOKEN"))));
+		}
+		awaitCount(3, new Callable<Long>() {
+			public Long call() {
+				return coalescer.getCoalescedCount();
+			}
+		});
+		assertEquals(1, coalescer.getInFlightCount());
+		released.countDown();
+		for (Future<String> profile : profiles) {
+			assertEquals("{\"hit\":1}", profile.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, hits.get());
+		assertEquals(4, coalescer.getRequestCount());
+		assertEquals(1, coalescer.getExecutionCount());
+		assertEquals(0, coalescer.getInFlightCount());
+	}
+
+	@Test
+	public void identicalGets_shareError() throws Exception {
+		status = 404;
+		List<Future<String>> profiles = new ArrayList<Future<String>>();
+		for (int i = 0; i < 2; i++) {
+			profiles.add(executor.submit(getProfile(twitter("ACCESS_TOKEN"))));
+		}
+		awaitCount(1, new Callable<Long>() {
+			public Long call() {
+				return coalescer.getCoalescedCount();
+			}
+		});
+		released.countDown();
+		for (Future<String> profile : profiles) {
+			try {
+				profile.get(10, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof ResourceNotFoundException);
+			}
+		}
+		assertEquals(1, hits.get());
+	}
+
+	@Test
+	public void differentUsers_notCoalesced() throws Exception {
+		Future<String> first = executor.submit(getProfile(twitter("ACCESS_TOKEN")));
+		Future<String> second = executor.submit(getProfile(twitter("OTHER_ACCESS_TOKEN")));
+		awaitCount(2, new Callable<Long>() {
+			public Long call() {
+				return (long) hits.get();
+			}
+		});
+		released.countDown();
+		assertNotEquals(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+		assertEquals(2, coalescer.getExecutionCount());
+		assertEquals(0, coalescer.getCoalescedCount());
+	}
+
+	@Test
+	public void sequentialGetsAndPosts_notCoalesced() throws Exception {
+		released.countDown();
+		TwitterTemplate twitter = twitter("ACCESS_TOKEN");
+		assertEquals("{\"hit\":1}", getProfile(twitter).call());
+		assertEquals("{\"hit\":2}", getProfile(twitter).call());
+		twitter.restOperations().postForObject(url(), null, String.class);
+		assertEquals(3, hits.get());
+		assertEquals(2, coalescer.getRequestCount());
+		assertEquals(0, coalescer.getCoalescedCount());
+
+		twitter.setRequestCoalescer(null);
+		getProfile(twitter).call();
+		assertEquals(2, coalescer.getRequestCount());
+	}
+
+	@Test
+	public void streams_connectWithTemplatesRequestFactory() throws Exception {
+		final List<MockClientHttpRequest> opened = new CopyOnWriteArrayList<MockClientHttpRequest>();
+		final CountDownLatch streamOpened = new CountDownLatch(1);
+		TwitterTemplate twitter = twitter("ACCESS_TOKEN");
+		twitter.setRequestFactory(new ClientHttpRequestFactory() {
+			public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+				MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri) {
+					@Override
+					protected ClientHttpResponse executeInternal() throws IOException {
+						ClientHttpResponse response = super.executeInternal();
+						streamOpened.countDown();
+						return response;
+					}
+				};
+				request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+				opened.add(request);
+				return request;
+			}
+		});
+		Stream stream = twitter.streamingOperations().sample(Collections.<StreamListener>singletonList(new StreamListener() {
+			public void onTweet(Tweet tweet) {}
+			public void onDelete(StreamDeleteEvent deleteEvent) {}
+			public void onLimit(int numberOfLimitedTweets) {}
+			public void onWarning(StreamWarningEvent warningEvent) {}
+		}));
+		try {
+			assertTrue(streamOpened.await(10, TimeUnit.SECONDS));
+		} finally {
+			stream.close();
+		}
+		assertTrue(opened.get(0).getURI().getPath().endsWith("statuses/sample.json"));
+		assertTrue(opened.get(0).getHeaders().getFirst("Authorization").startsWith("OAuth "));
+		assertEquals(0, coalescer.getRequestCount());
+	}
+
+	private TwitterTemplate twitter(String accessToken) {
+		TwitterTemplate twitter = new TwitterTemplate("API_KEY", "API_SECRET", accessToken, "ACCESS_TOKEN_SECRET");
+		twitter.setRequestCoalescer(coalescer);
+		return twitter;
+	}
+
+	private Callable<String> getProfile(final TwitterTemplate twitter) {
+		return new Callable<String>() {
+			public String call() {
+				return twitter.restOperations().getForObject(url(), String.class);
+			}
+		};
+	}
+
+	private String url() {
+		return "http://localhost:" + server.getAddress().getPort() + "/profile";
+	}
+
+	private static void awaitCount(long expected, Callable<Long> count) throws Exception {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (count.call() < expected) {
+			assertTrue("Timed out waiting for " + expected, System.currentTimeMillis() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+}
@@ -18,9 +18,18 @@ package org.springframework.social.twitter.api.impl;
 import static org.junit.Assert.*;
 
 import java.net.ConnectException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
 
 import org.junit.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.social.twitter.api.Stream;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamMetrics;
 
 public class StreamConsumerTest {
 	
@@ -66,6 +75,95 @@ public class StreamConsumerTest {
 		consumer.run();
 	}
 	
+	@Test
+	public void run_reusesRuntimeAcrossReconnects() {
+		final StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Collections.<StreamListener>emptyList(), new StreamConfiguration());
+		final ThreadedStreamConsumer consumer = new ThreadedStreamConsumer(runtime) {
+			@Override
+			protected StreamReader getStreamReader() throws StreamCreationException {
+				assertSame(runtime, getRuntime());
+				assertFalse(runtime.isShutdown());
+				if(streamsToCreateBeforeFailure == 0) {
+					close(); // closed while the 4th connection is being made
+					return new MockStream(5);
+				}
+				return createStream(null);
+			}
+		};
+
+		consumer.run();
+		assertTrue(runtime.isShutdown());
+	}
+
+	@Test
+	public void getMetrics_reconnectsAndBackoff() throws Exception {
+		final StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Collections.<StreamListener>emptyList(), new StreamConfiguration());
+		final ThreadedStreamConsumer consumer = new ThreadedStreamConsumer(runtime) {
+			@Override
+			protected StreamReader getStreamReader() throws StreamCreationException {
+				return createStream(new StreamCreationException("Unable to create stream", new ConnectException()));
+			}
+
+			@Override
+			protected void sleepBeforeRetry(long timeToSleep) {
+				StreamMetrics metrics = getMetrics();
+				assertEquals(2, metrics.getReconnects());
+				assertEquals(250, metrics.getBackoffMillis());
+				assertFalse(metrics.isConnected());
+				close();
+			}
+		};
+		MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+		consumer.exportMetrics("filter", mbeanServer);
+		ObjectName objectName = consumer.getMetricsExporter().getObjectName();
+		assertEquals(0L, mbeanServer.getAttribute(objectName, "Reconnects"));
+
+		consumer.run();
+		assertEquals(0, consumer.getMetrics().getBackoffMillis());
+		assertFalse(mbeanServer.isRegistered(objectName));
+	}
+
+	@Test
+	public void exportMetrics_onePollReadsOneSnapshot() throws Exception {
+		final AtomicInteger snapshots = new AtomicInteger();
+		StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Collections.<StreamListener>emptyList(), new StreamConfiguration());
+		ThreadedStreamConsumer consumer = new ThreadedStreamConsumer(runtime) {
+			@Override
+			public StreamMetrics getMetrics() {
+				snapshots.incrementAndGet();
+				return super.getMetrics();
+			}
+
+			@Override
+			protected StreamReader getStreamReader() throws StreamCreationException {
+				return createStream(null);
+			}
+		};
+		MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+		consumer.exportMetrics("sample", mbeanServer);
+		ObjectName objectName = consumer.getMetricsExporter().getObjectName();
+		String[] attributes = { "MessagesReceived", "MessagesPerSecond", "ListenerQueueDepth", "Reconnects", "Connected", "BackoffMillis" };
+		assertEquals(attributes.length, mbeanServer.getAttributes(objectName, attributes).size());
+		assertEquals(1, snapshots.get());
+
+		Thread.sleep(StreamMetricsExporter.SNAPSHOT_MILLIS + 50);
+		assertEquals(0L, mbeanServer.getAttribute(objectName, "Reconnects"));
+		assertEquals(2, snapshots.get());
+		consumer.close();
+	}
+
+	@Test
+	public void getMetrics_emptyForStreamsThatKeepNone() {
+		Stream stream = new Stream() {
+			public void open() {}
+			public void close() {}
+		};
+		StreamMetrics metrics = stream.getMetrics();
+		assertSame(StreamMetrics.EMPTY, metrics);
+		assertEquals(0, metrics.getMessagesReceived());
+		assertFalse(metrics.isConnected());
+	}
+
 	private void assertSleepWithExponentialBackOff(long timeToSleep) {
 		assertEquals(expectedTimeToSleep, timeToSleep);
 		expectedTimeToSleep = expectedTimeToSleep * 2;
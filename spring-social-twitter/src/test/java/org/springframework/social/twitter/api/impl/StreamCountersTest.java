@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+public class StreamCountersTest {
+
+	@Test
+	public void latencies() {
+		StreamCounters counters = new StreamCounters();
+		counters.messageParsed(100);
+		counters.messageParsed(300);
+		counters.messageDelivered(50);
+		assertEquals(2, counters.getMessagesParsed());
+		assertEquals(200, counters.getMeanParseNanos());
+		assertEquals(300, counters.getMaxParseNanos());
+		assertEquals(1, counters.getListenerCalls());
+		assertEquals(50, counters.getMeanListenerNanos());
+		assertEquals(0, new StreamCounters().getMeanParseNanos());
+	}
+
+	@Test
+	public void messagesPerSecond() throws Exception {
+		StreamCounters counters = new StreamCounters();
+		assertEquals(0, counters.getMessagesPerSecond(), 0);
+		for (int i = 0; i < 100; i++) {
+			counters.messageReceived();
+		}
+		Thread.sleep(1100);
+		double rate = counters.getMessagesPerSecond();
+		assertTrue(rate > 50 && rate <= 100);
+		assertEquals(rate, counters.getMessagesPerSecond(), 0); // holds until the next interval
+	}
+
+	@Test
+	public void dispatcherCountsParsesAndLimits() throws Exception {
+		StreamListener listener = new StreamListener() {
+			public void onTweet(Tweet tweet) {}
+			public void onDelete(StreamDeleteEvent deleteEvent) {}
+			public void onLimit(int numberOfLimitedTweets) {}
+			public void onWarning(StreamWarningEvent warningEvent) {}
+		};
+		StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Arrays.asList(listener), new StreamConfiguration());
+		try {
+			StreamRingBuffer<byte[]> buffer = runtime.createHandoffBuffer();
+			buffer.offer("{\"limit\":{\"track\":42}}".getBytes("UTF-8"));
+			buffer.offer("BOGUS LINE".getBytes("UTF-8"));
+			StreamDispatcher dispatcher = new StreamDispatcher(buffer, runtime);
+			runtime.startDispatcher(dispatcher);
+			StreamCounters counters = runtime.getCounters();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (counters.getListenerCalls() < 1 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, counters.getMessagesParsed());
+			assertEquals(1, counters.getParseErrors());
+			assertEquals(1, counters.getLimitNotices());
+			assertEquals(42, counters.getLimitedTweets());
+			assertEquals(1, counters.getListenerCalls());
+			dispatcher.stop();
+		} finally {
+			runtime.shutdown();
+		}
+	}
+
+}
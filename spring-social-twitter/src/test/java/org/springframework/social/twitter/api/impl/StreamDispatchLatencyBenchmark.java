@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+/**
+ * Measures the latency from the moment a line is handed off by the reader to the moment {@link StreamListener#onTweet(Tweet)} is called,
+ * once per {@link StreamWaitStrategy}.
+ * Not a unit test; run it with {@code main} and read the percentiles off standard out.
+ * Usage: StreamDispatchLatencyBenchmark [messages] [messagesPerSecond]
+ */
+public class StreamDispatchLatencyBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int messagesPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		String tweetLine = readFirstLine("basic/filter-stream-track.json");
+		for (StreamWaitStrategy waitStrategy : StreamWaitStrategy.values()) {
+			run(waitStrategy, tweetLine, messages / 10, messagesPerSecond); // warm up
+			long[] latencies = run(waitStrategy, tweetLine, messages, messagesPerSecond);
+			report(waitStrategy, latencies);
+		}
+	}
+
+	private static long[] run(StreamWaitStrategy waitStrategy, String tweetLine, int messages, int messagesPerSecond) throws Exception {
+		final long[] sentAt = new long[messages];
+		final long[] latencies = new long[messages];
+		final CountDownLatch received = new CountDownLatch(messages);
+		StreamListener listener = new StreamListener() {
+			public void onTweet(Tweet tweet) {
+				long now = System.nanoTime();
+				String text = tweet.getText();
+				int index = Integer.parseInt(text.substring(0, text.indexOf(' ')));
+				latencies[index] = now - sentAt[index];
+				received.countDown();
+			}
+			public void onDelete(StreamDeleteEvent deleteEvent) {}
+			public void onLimit(int numberOfLimitedTweets) {}
+			public void onWarning(StreamWarningEvent warningEvent) {}
+		};
+
+		StreamConfiguration configuration = new StreamConfiguration();
+		configuration.setWaitStrategy(waitStrategy);
+		StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Arrays.asList(listener), configuration);
+		StreamRingBuffer<byte[]> buffer = new StreamRingBuffer<byte[]>(8192, waitStrategy);
+		StreamDispatcher dispatcher = new StreamDispatcher(buffer, runtime);
+		runtime.startDispatcher(dispatcher);
+
+		byte[][] lines = new byte[messages][];
+		for (int i = 0; i < messages; i++) {
+			lines[i] = tweetLine.replaceFirst("\"text\":\"", "\"text\":\"" + i + " ").getBytes("UTF-8");
+		}
+
+		long interval = 1000000000L / messagesPerSecond;
+		long next = System.nanoTime();
+		for (int i = 0; i < messages; i++) {
+			long wait = next - System.nanoTime();
+			if (wait > 0) { // pace the producer to simulate the arrival rate
+				LockSupport.parkNanos(wait);
+			}
+			sentAt[i] = System.nanoTime();
+			buffer.put(lines[i]);
+			next += interval;
+		}
+		received.await();
+		dispatcher.stop();
+		runtime.shutdown();
+		return latencies;
+	}
+
+	private static void report(StreamWaitStrategy waitStrategy, long[] latencies) {
+		Arrays.sort(latencies);
+		System.out.printf("%-10s p50=%8.1fus  p99=%8.1fus  p99.9=%8.1fus  max=%8.1fus%n", waitStrategy,
+				percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), latencies[latencies.length - 1] / 1000.0);
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1000.0;
+	}
+
+	private static String readFirstLine(String resource) throws Exception {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(resource, StreamDispatchLatencyBenchmark.class).getInputStream(), "UTF-8"));
+		try {
+			return reader.readLine();
+		} finally {
+			reader.close();
+		}
+	}
+
+}
@@ -15,71 +15,76 @@
  */
 package org.springframework.social.twitter.api.impl;
 
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-import org.junit.Ignore;
+import org.junit.After;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.social.twitter.api.StreamDeleteEvent;
 import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
 import org.springframework.social.twitter.api.StreamWarningEvent;
 import org.springframework.social.twitter.api.Tweet;
 
-@Ignore
 public class StreamDispatcherTest {
 
+	private StreamListener mockListener = mock(StreamListener.class);
+
+	private StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Arrays.asList(mockListener), new StreamConfiguration());
+
+	@After
+	public void shutdownRuntime() {
+		runtime.shutdown();
+	}
+
 	@Test
 	public void activeWithItemsInQueue() throws Exception {
-		StreamListener mockListener = mock(StreamListener.class);		
-		Queue<String> queue = createQueueWithItems();
-		StreamDispatcher dispatcher = new StreamDispatcher(queue, Arrays.asList(mockListener));
+		StreamRingBuffer<byte[]> queue = createQueueWithItems();
+		StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
 		runAndAssert(mockListener, dispatcher, 4, 2, 1, 3);
 //		dispatcher.stop();
 	}
 
 	@Test
 	public void activeWithEmptyQueue() throws Exception {
-		StreamListener mockListener = mock(StreamListener.class);		
-		Queue<String> queue = new ConcurrentLinkedQueue<String>();
-		StreamDispatcher dispatcher = new StreamDispatcher(queue, Arrays.asList(mockListener));
+		StreamRingBuffer<byte[]> queue = createQueue();
+		StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
 		runAndAssert(mockListener, dispatcher, 0, 0, 0, 0);
 //		dispatcher.stop();
 	}
 	
 	@Test
 	public void stoppedWithItemsInQueue() throws Exception {
-		StreamListener mockListener = mock(StreamListener.class);		
-		Queue<String> queue = createQueueWithItems();
-		StreamDispatcher dispatcher = new StreamDispatcher(queue, Arrays.asList(mockListener));
+		StreamRingBuffer<byte[]> queue = createQueueWithItems();
+		StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
 //		dispatcher.stop();
 		runAndAssert(mockListener, dispatcher, 4, 2, 1, 3);
 	}
 	
 	@Test
 	public void stoppedWithEmptyQueue() throws Exception {
-		StreamListener mockListener = mock(StreamListener.class);		
-		Queue<String> queue = new ConcurrentLinkedQueue<String>();
-		StreamDispatcher dispatcher = new StreamDispatcher(queue, Arrays.asList(mockListener));
+		StreamRingBuffer<byte[]> queue = createQueue();
+		StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
 //		dispatcher.stop();
 		runAndAssert(mockListener, dispatcher, 0, 0, 0, 0);
 	}	
 	
 	@Test
 	public void ignoreUnrecognizedEvent() throws Exception {
-		StreamListener mockListener = mock(StreamListener.class);		
-		Queue<String> queue = new ConcurrentLinkedQueue<String>();
-		queue.add("BOGUS LINE");
-		queue.add("{\"unrecognized\":\"event\"}");
-		StreamDispatcher dispatcher = new StreamDispatcher(queue, Arrays.asList(mockListener));
+		StreamRingBuffer<byte[]> queue = createQueue();
+		queue.offer("BOGUS LINE".getBytes("UTF-8"));
+		queue.offer("{\"unrecognized\":\"event\"}".getBytes("UTF-8"));
+		StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
 		runAndAssert(mockListener, dispatcher, 0, 0, 0, 0);		
 //		dispatcher.stop();
 	}
@@ -91,16 +96,59 @@ public class StreamDispatcherTest {
 		verify(mockListener, times(deleteEvents)).onDelete(any(StreamDeleteEvent.class));
 		verify(mockListener, times(limitEvents)).onLimit(369);
 		verify(mockListener, times(warningEvents)).onWarning(any(StreamWarningEvent.class));
+		dispatcher.stop(); // release the dispatcher thread waiting on the empty queue
+	}
+
+	@Test
+	public void slowListenerDoesNotStarveOthers() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		StreamListener stuckListener = mock(StreamListener.class);
+		doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				release.await();
+				return null;
+			}
+		}).when(stuckListener).onLimit(anyInt());
+		final CountDownLatch lastDelivered = new CountDownLatch(1);
+		StreamListener otherListener = mock(StreamListener.class);
+		doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				lastDelivered.countDown();
+				return null;
+			}
+		}).when(otherListener).onLimit(31);
+		StreamConfiguration configuration = new StreamConfiguration();
+		configuration.setListenerQueueCapacity(4);
+		StreamRuntime runtime = new StreamRuntime(TwitterObjectMappers.getObjectMapper(), Arrays.asList(stuckListener, otherListener), configuration);
+		try {
+			StreamRingBuffer<byte[]> queue = new StreamRingBuffer<byte[]>(64, StreamWaitStrategy.BLOCKING);
+			for (int i = 0; i < 32; i++) {
+				queue.offer(("{\"limit\":{\"track\":" + i + "}}").getBytes("UTF-8"));
+			}
+			StreamDispatcher dispatcher = new StreamDispatcher(queue, runtime);
+			runtime.startDispatcher(dispatcher);
+			assertTrue(lastDelivered.await(5, TimeUnit.SECONDS));
+			assertTrue(runtime.getListenerDroppedCount() > 0);
+			dispatcher.stop();
+		} finally {
+			release.countDown();
+			runtime.shutdown();
+		}
+	}
+
+	private StreamRingBuffer<byte[]> createQueue() {
+		return new StreamRingBuffer<byte[]>(16, StreamWaitStrategy.BLOCKING);
 	}
 
-	private Queue<String> createQueueWithItems() {
+	private StreamRingBuffer<byte[]> createQueueWithItems() {
 		InputStream inputStream = null;
-		Queue<String> queue = new ConcurrentLinkedQueue<String>();
+		StreamRingBuffer<byte[]> queue = createQueue();
 		try {
-			inputStream = new ClassPathResource("filter-stream-track.json", getClass()).getInputStream();
-			BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-			while (reader.ready()) {
-				queue.add(reader.readLine());
+			inputStream = new ClassPathResource("basic/filter-stream-track.json", getClass()).getInputStream();
+			StreamFrameReader reader = new StreamFrameReader(inputStream);
+			byte[] message;
+			while ((message = reader.next()) != null) {
+				queue.offer(message);
 			}
 		} catch (IOException e) {
 			try {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+public class StreamFrameReaderTest {
+
+	@Test
+	public void next_newlineDelimited() throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(stream("{\"a\":1}\r\n\r\n\r\n{\"b\":2}\n\n{\"c\":3}\r\n"));
+		assertEquals("{\"a\":1}", next(reader));
+		assertEquals("{\"b\":2}", next(reader));
+		assertEquals("{\"c\":3}", next(reader));
+		assertNull(reader.next());
+	}
+
+	@Test
+	public void next_lengthDelimited() throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(stream(lengthDelimited("{\"a\":1}") + "\r\n" + lengthDelimited("{\"b\":\"x\\ny\"}")));
+		assertEquals("{\"a\":1}", next(reader));
+		assertEquals("{\"b\":\"x\\ny\"}", next(reader));
+		assertNull(reader.next());
+	}
+
+	@Test
+	public void next_mixedFraming() throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(stream("{\"a\":1}\r\n" + lengthDelimited("{\"b\":2}") + "{\"c\":3}\r\n"));
+		assertEquals("{\"a\":1}", next(reader));
+		assertEquals("{\"b\":2}", next(reader));
+		assertEquals("{\"c\":3}", next(reader));
+		assertNull(reader.next());
+	}
+
+	@Test
+	public void next_messagesLargerThanBufferAndSplitAcrossReads() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			text.append("abcdefghij");
+		}
+		String message = "{\"text\":\"" + text + "\"}";
+		StreamFrameReader reader = new StreamFrameReader(trickle(message + "\r\n" + lengthDelimited(message)), 4);
+		assertEquals(message, next(reader));
+		assertEquals(message, next(reader));
+		assertNull(reader.next());
+	}
+
+	@Test
+	public void next_leavesUtf8Undecoded() throws Exception {
+		String message = "{\"text\":\"caf\u00e9 \u2603 \ud83d\ude00\"}";
+		StreamFrameReader reader = new StreamFrameReader(trickle(lengthDelimited(message) + message + "\n"), 4);
+		assertArrayEquals(message.getBytes("UTF-8"), reader.next());
+		assertArrayEquals(message.getBytes("UTF-8"), reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	public void next_unterminatedLastMessage() throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(stream("{\"a\":1}\r\n{\"b\":2}"));
+		assertEquals("{\"a\":1}", next(reader));
+		assertEquals("{\"b\":2}", next(reader));
+		assertNull(reader.next());
+	}
+
+	@Test(expected = EOFException.class)
+	public void next_truncatedLengthDelimitedMessage() throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(stream("100\r\n{\"a\":1}\r\n"));
+		reader.next();
+	}
+
+	private String next(StreamFrameReader reader) throws IOException {
+		byte[] message = reader.next();
+		return message != null ? new String(message, "UTF-8") : null;
+	}
+
+	private String lengthDelimited(String message) throws IOException {
+		return (message.getBytes("UTF-8").length + 2) + "\r\n" + message + "\r\n";
+	}
+
+	private InputStream stream(String body) throws IOException {
+		return new ByteArrayInputStream(body.getBytes("UTF-8"));
+	}
+
+	// hands out one byte per read, as a slow connection might
+	private InputStream trickle(String body) throws IOException {
+		return new ByteArrayInputStream(body.getBytes("UTF-8")) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 1));
+			}
+		};
+	}
+
+}
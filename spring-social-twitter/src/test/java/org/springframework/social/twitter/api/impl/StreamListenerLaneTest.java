@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.social.twitter.api.BatchingStreamListener;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+public class StreamListenerLaneTest {
+
+	private ScheduledExecutorService workers = Executors.newScheduledThreadPool(2);
+
+	@After
+	public void shutdownWorkers() {
+		workers.shutdownNow();
+	}
+
+	@Test
+	public void enqueue_deliversInOrder() throws Exception {
+		RecordingListener listener = new RecordingListener(1000, null);
+		StreamListenerLane lane = new StreamListenerLane(listener, 16, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, workers);
+		for (int i = 0; i < 1000; i++) {
+			lane.enqueue(limitMessage(i));
+		}
+		assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Integer.valueOf(i), listener.limits.get(i));
+		}
+		assertEquals(0, lane.getDroppedCount());
+	}
+
+	@Test
+	public void enqueue_slowListenerDoesNotHoldUpOthers() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingListener slowListener = new RecordingListener(1, release);
+		RecordingListener fastListener = new RecordingListener(100, null);
+		StreamListenerLane slowLane = new StreamListenerLane(slowListener, 4, StreamOverflowPolicy.DROP_OLDEST, StreamWaitStrategy.BLOCKING, workers);
+		StreamListenerLane fastLane = new StreamListenerLane(fastListener, 4, StreamOverflowPolicy.DROP_OLDEST, StreamWaitStrategy.BLOCKING, workers);
+		for (int i = 0; i < 100; i++) {
+			StreamMessage message = limitMessage(i);
+			slowLane.enqueue(message);
+			fastLane.enqueue(message);
+			Thread.sleep(1); // give the fast lane time to keep up
+		}
+		assertTrue(fastListener.done.await(5, TimeUnit.SECONDS));
+		assertEquals(100, fastListener.limits.size());
+		assertTrue(slowLane.getDroppedCount() > 0);
+		assertTrue(slowLane.getQueueSize() <= 4);
+		release.countDown();
+	}
+
+	@Test
+	public void run_survivesFailingListener() throws Exception {
+		final CountDownLatch delivered = new CountDownLatch(2);
+		StreamListener listener = new RecordingListener(0, null) {
+			@Override
+			public void onLimit(int numberOfLimitedTweets) {
+				delivered.countDown();
+				throw new IllegalStateException("listener failure");
+			}
+		};
+		StreamListenerLane lane = new StreamListenerLane(listener, 4, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, workers);
+		lane.enqueue(limitMessage(1));
+		lane.enqueue(limitMessage(2));
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void batching_deliversFullBatches() throws Exception {
+		BatchRecordingListener listener = new BatchRecordingListener(10, 60000, 2);
+		StreamListenerLane lane = new StreamListenerLane(listener, 64, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, workers);
+		for (int i = 0; i < 25; i++) {
+			lane.enqueue(tweetMessage(i));
+		}
+		assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+		assertEquals("tweets[0..9]", listener.calls.get(0));
+		assertEquals("tweets[10..19]", listener.calls.get(1));
+	}
+
+	@Test
+	public void batching_deliversPartialBatchAfterMaxDelay() throws Exception {
+		BatchRecordingListener listener = new BatchRecordingListener(500, 50, 1);
+		StreamListenerLane lane = new StreamListenerLane(listener, 64, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, workers);
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			lane.enqueue(tweetMessage(i));
+		}
+		assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals("tweets[0..2]", listener.calls.get(0));
+	}
+
+	@Test
+	public void batching_deliversPartialBatchWhenTimerGoesOffMidRun() throws Exception {
+		BatchRecordingListener listener = new BatchRecordingListener(500, 200, 1);
+		ScheduledExecutorService racingWorkers = new ScheduledThreadPoolExecutor(2) {
+			private final AtomicBoolean raced = new AtomicBoolean();
+
+			@Override
+			public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+				if (delay > 0 && raced.compareAndSet(false, true)) { // execute() schedules with no delay
+					command.run(); // the first flush timer goes off before the lane has finished the run that set it
+					return super.schedule(() -> {}, 0, unit);
+				}
+				return super.schedule(command, delay, unit);
+			}
+		};
+		try {
+			StreamListenerLane lane = new StreamListenerLane(listener, 64, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, racingWorkers);
+			lane.enqueue(tweetMessage(0));
+			assertTrue(listener.done.await(2 * listener.getMaxBatchDelay(), TimeUnit.MILLISECONDS));
+			assertEquals("tweets[0..0]", listener.calls.get(0));
+		} finally {
+			racingWorkers.shutdownNow();
+		}
+	}
+
+	@Test
+	public void batching_keepsOtherMessagesInOrder() throws Exception {
+		BatchRecordingListener listener = new BatchRecordingListener(500, 60000, 4);
+		StreamListenerLane lane = new StreamListenerLane(listener, 64, StreamOverflowPolicy.BLOCK, StreamWaitStrategy.BLOCKING, workers);
+		lane.enqueue(tweetMessage(0));
+		lane.enqueue(new StreamMessage(StreamMessageType.DELETE, new StreamDeleteEvent(0, 1)));
+		lane.enqueue(tweetMessage(1));
+		lane.enqueue(limitMessage(5));
+		lane.enqueue(tweetMessage(2));
+		lane.close();
+		assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("tweets[0..1]", "deletes[0]", "limit 5", "tweets[2..2]"), listener.calls);
+	}
+
+	private StreamMessage tweetMessage(long id) {
+		return new StreamMessage(StreamMessageType.TWEET, new Tweet(id, "tweet " + id, new Date(), "habuma", null, null, 1, "en", "web"));
+	}
+
+	private StreamMessage limitMessage(int numberOfLimitedTweets) {
+		return new StreamMessage(StreamMessageType.LIMIT, numberOfLimitedTweets);
+	}
+
+	private static class BatchRecordingListener extends BatchingStreamListener {
+
+		final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+
+		final CountDownLatch done;
+
+		BatchRecordingListener(int maxBatchSize, long maxBatchDelay, int expectedCalls) {
+			super(maxBatchSize, maxBatchDelay);
+			this.done = new CountDownLatch(expectedCalls);
+		}
+
+		public void onTweets(List<Tweet> tweets) {
+			calls.add("tweets[" + tweets.get(0).getId() + ".." + tweets.get(tweets.size() - 1).getId() + "]");
+			done.countDown();
+		}
+
+		public void onDeletes(List<StreamDeleteEvent> deleteEvents) {
+			calls.add("deletes[" + deleteEvents.get(0).getTweetId() + "]");
+			done.countDown();
+		}
+
+		public void onLimit(int numberOfLimitedTweets) {
+			calls.add("limit " + numberOfLimitedTweets);
+			done.countDown();
+		}
+
+		public void onDelete(StreamDeleteEvent deleteEvent) {}
+
+		public void onWarning(StreamWarningEvent warningEvent) {}
+
+	}
+
+	private static class RecordingListener implements StreamListener {
+
+		final List<Integer> limits = Collections.synchronizedList(new ArrayList<Integer>());
+
+		final CountDownLatch done;
+
+		private final CountDownLatch release;
+
+		RecordingListener(int expected, CountDownLatch release) {
+			this.done = new CountDownLatch(expected);
+			this.release = release;
+		}
+
+		public void onLimit(int numberOfLimitedTweets) {
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			limits.add(numberOfLimitedTweets);
+			done.countDown();
+		}
+
+		public void onTweet(Tweet tweet) {}
+
+		public void onDelete(StreamDeleteEvent deleteEvent) {}
+
+		public void onWarning(StreamWarningEvent warningEvent) {}
+
+	}
+
+}
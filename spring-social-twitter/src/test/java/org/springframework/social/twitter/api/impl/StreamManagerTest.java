@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.util.FileCopyUtils;
+
+public class StreamManagerTest {
+
+	private StreamManager manager = new StreamManager(1, 1);
+
+	@After
+	public void shutdownManager() {
+		manager.shutdown();
+	}
+
+	@Test
+	public void streamsShareThreads() throws Exception {
+		byte[] fixture = FileCopyUtils.copyToByteArray(new ClassPathResource("basic/filter-stream-track.json", getClass()).getInputStream());
+		List<StreamListener> listeners = new ArrayList<StreamListener>();
+		List<ManagedStream> streams = new ArrayList<ManagedStream>();
+		for (int i = 0; i < 20; i++) {
+			StreamListener listener = mock(StreamListener.class);
+			listeners.add(listener);
+			ManagedStream stream = manager.createStream(TwitterObjectMappers.getObjectMapper(), Arrays.asList(listener), new StreamConfiguration(), connectOnce(fixture));
+			streams.add(stream);
+			stream.open();
+		}
+		assertEquals(20, manager.getStreamCount());
+		for (StreamListener listener : listeners) {
+			verify(listener, timeout(5000).times(4)).onTweet(any(Tweet.class));
+			verify(listener, timeout(5000).times(2)).onDelete(any(StreamDeleteEvent.class));
+		}
+		assertEquals(1, countThreads("twitter-stream-dispatcher-"));
+		assertEquals(1, countThreads("twitter-stream-listener-"));
+
+		// each stream now backs off without holding a thread
+		StreamMetrics metrics = streams.get(0).getMetrics();
+		assertEquals(10, metrics.getMessagesReceived());
+		assertFalse(metrics.isConnected());
+	}
+
+	@Test
+	public void closeAndShutdown() throws Exception {
+		StreamListener listener = mock(StreamListener.class);
+		ManagedStream first = manager.createStream(TwitterObjectMappers.getObjectMapper(), Arrays.asList(listener), new StreamConfiguration(), connectOnce(new byte[0]));
+		ManagedStream second = manager.createStream(TwitterObjectMappers.getObjectMapper(), Arrays.asList(listener), new StreamConfiguration(), connectOnce(new byte[0]));
+		first.open();
+		second.open();
+		first.close();
+		assertEquals(1, manager.getStreamCount());
+		assertTrue(first.getRuntime().isShutdown());
+		manager.shutdown();
+		assertEquals(0, manager.getStreamCount());
+		assertTrue(second.getRuntime().isShutdown());
+	}
+
+	@Test
+	public void backsOffOnTimers() throws Exception {
+		final AtomicInteger attempts = new AtomicInteger();
+		ManagedStream stream = manager.createStream(TwitterObjectMappers.getObjectMapper(), Arrays.asList(mock(StreamListener.class)), new StreamConfiguration(),
+				new StreamConnector() {
+					public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+						attempts.incrementAndGet();
+						throw new StreamCreationException("Unable to create stream", new ConnectException());
+					}
+				});
+		stream.open();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (attempts.get() < 3 && System.nanoTime() < deadline) { // 250ms, then 500ms
+			Thread.sleep(10);
+		}
+		assertTrue(attempts.get() >= 3);
+		assertTrue(stream.getMetrics().getBackoffMillis() >= 750);
+	}
+
+	private StreamConnector connectOnce(final byte[] body) {
+		return new StreamConnector() {
+			private final AtomicInteger connections = new AtomicInteger();
+			public StreamReader connect(StreamRuntime runtime) throws StreamCreationException {
+				if (connections.getAndIncrement() > 0) {
+					throw new StreamCreationException("Unable to create stream", new ConnectException());
+				}
+				return new StreamReaderImpl(new ByteArrayInputStream(body), runtime);
+			}
+		};
+	}
+
+	private int countThreads(String namePrefix) {
+		int count = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith(namePrefix) && thread.isAlive()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamDisconnectEvent;
+import org.springframework.social.twitter.api.StreamEvent;
+import org.springframework.social.twitter.api.StreamScrubGeoEvent;
+import org.springframework.social.twitter.api.StreamStatusWithheldEvent;
+import org.springframework.social.twitter.api.StreamUserWithheldEvent;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+public class StreamMessageRouterTest {
+
+	private StreamMessageRouter router = new StreamMessageRouter(TwitterObjectMappers.getObjectMapper());
+
+	@Test
+	public void route_tweet() throws Exception {
+		StreamMessage message = router.route(readFirstLine("basic/filter-stream-track.json"));
+		assertEquals(StreamMessageType.TWEET, message.getType());
+		Tweet tweet = (Tweet) message.getPayload();
+		assertTrue(tweet.getText().startsWith("RT @Karmyk_Li8erati: Heading to Dallas"));
+		assertNotNull(tweet.getUser());
+	}
+
+	@Test
+	public void route_tweetWithLazyEntities() throws Exception {
+		StreamMessageRouter lazyRouter = new StreamMessageRouter(TwitterObjectMappers.getObjectMapper(), true);
+		Tweet lazy = (Tweet) lazyRouter.route(readFirstLine("basic/filter-stream-track.json")).getPayload();
+		Tweet eager = (Tweet) router.route(readFirstLine("basic/filter-stream-track.json")).getPayload();
+		assertEquals(eager.getEntities(), lazy.getEntities());
+		assertEquals(eager, lazy);
+	}
+
+	@Test
+	public void route_tweetsShareUnchangedProfiles() throws Exception {
+		String line = readFirstLine("basic/filter-stream-track.json");
+		Tweet first = (Tweet) router.route(line).getPayload();
+		Tweet second = (Tweet) router.route(line).getPayload();
+		assertSame(first.getUser(), second.getUser());
+		Tweet other = (Tweet) new StreamMessageRouter(TwitterObjectMappers.getObjectMapper()).route(line).getPayload();
+		assertNotSame(first.getUser(), other.getUser());
+		assertEquals(first.getUser(), other.getUser());
+	}
+
+	@Test
+	public void route_tweetWithLeadingFields() throws Exception {
+		StreamMessage message = router.route("{\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\",\"id\":12345,\"text\":\"Hello\"," +
+				"\"user\":{\"id\":42,\"screen_name\":\"habuma\",\"profile_image_url\":\"http://a0.twimg.com/a.png\"}}");
+		assertEquals(StreamMessageType.TWEET, message.getType());
+		Tweet tweet = (Tweet) message.getPayload();
+		assertEquals(12345, tweet.getId());
+		assertEquals("Hello", tweet.getText());
+		assertEquals("web", tweet.getSource());
+		assertNotNull(tweet.getCreatedAt());
+		assertEquals("habuma", tweet.getFromUser());
+	}
+
+	@Test
+	public void route_delete() throws Exception {
+		StreamMessage message = router.route("{\"delete\":{\"status\":{\"id\":1234,\"id_str\":\"1234\",\"user_id\":3,\"user_id_str\":\"3\"}}}");
+		assertEquals(StreamMessageType.DELETE, message.getType());
+		StreamDeleteEvent deleteEvent = (StreamDeleteEvent) message.getPayload();
+		assertEquals(1234, deleteEvent.getTweetId());
+		assertEquals(3, deleteEvent.getUserId());
+	}
+
+	@Test
+	public void route_limit() throws Exception {
+		StreamMessage message = router.route("{\"limit\":{\"track\":369}}");
+		assertEquals(StreamMessageType.LIMIT, message.getType());
+		assertEquals(369, message.getPayload());
+	}
+
+	@Test
+	public void route_warning() throws Exception {
+		StreamMessage message = router.route("{\"warning\":{\"code\":\"FALLING_BEHIND\",\"message\":\"Falling behind\",\"percent_full\":60}}");
+		assertEquals(StreamMessageType.WARNING, message.getType());
+		StreamWarningEvent warningEvent = (StreamWarningEvent) message.getPayload();
+		assertEquals("FALLING_BEHIND", warningEvent.getCode());
+		assertEquals("Falling behind", warningEvent.getMessage());
+		assertEquals(60.0, warningEvent.getPercentFull(), 0.0);
+	}
+
+	@Test
+	public void route_scrubGeo() throws Exception {
+		StreamMessage message = router.route("{\"scrub_geo\":{\"user_id\":14090452,\"user_id_str\":\"14090452\",\"up_to_status_id\":23260136625,\"up_to_status_id_str\":\"23260136625\"}}");
+		assertEquals(StreamMessageType.SCRUB_GEO, message.getType());
+		StreamScrubGeoEvent scrubGeoEvent = (StreamScrubGeoEvent) message.getPayload();
+		assertEquals(14090452, scrubGeoEvent.getUserId());
+		assertEquals(23260136625L, scrubGeoEvent.getUpToStatusId());
+	}
+
+	@Test
+	public void route_statusWithheld() throws Exception {
+		StreamMessage message = router.route("{\"status_withheld\":{\"id\":1234567890,\"user_id\":123456,\"withheld_in_countries\":[\"DE\",\"AR\"]}}");
+		assertEquals(StreamMessageType.STATUS_WITHHELD, message.getType());
+		StreamStatusWithheldEvent withheldEvent = (StreamStatusWithheldEvent) message.getPayload();
+		assertEquals(1234567890, withheldEvent.getTweetId());
+		assertEquals(123456, withheldEvent.getUserId());
+		assertEquals(asList("DE", "AR"), withheldEvent.getWithheldInCountries());
+	}
+
+	@Test
+	public void route_userWithheld() throws Exception {
+		StreamMessage message = router.route("{\"user_withheld\":{\"id\":123456,\"withheld_in_countries\":[\"DE\"]}}");
+		assertEquals(StreamMessageType.USER_WITHHELD, message.getType());
+		StreamUserWithheldEvent withheldEvent = (StreamUserWithheldEvent) message.getPayload();
+		assertEquals(123456, withheldEvent.getUserId());
+		assertEquals(asList("DE"), withheldEvent.getWithheldInCountries());
+	}
+
+	@Test
+	public void route_disconnect() throws Exception {
+		StreamMessage message = router.route("{\"disconnect\":{\"code\":4,\"stream_name\":\"habuma-statuses\",\"reason\":\"Stall\"}}");
+		assertEquals(StreamMessageType.DISCONNECT, message.getType());
+		StreamDisconnectEvent disconnectEvent = (StreamDisconnectEvent) message.getPayload();
+		assertEquals(4, disconnectEvent.getCode());
+		assertEquals("habuma-statuses", disconnectEvent.getStreamName());
+		assertEquals("Stall", disconnectEvent.getReason());
+	}
+
+	@Test
+	public void route_friends() throws Exception {
+		StreamMessage message = router.route("{\"friends\":[1497,169686021,790205]}");
+		assertEquals(StreamMessageType.FRIENDS, message.getType());
+		assertEquals(asList(1497L, 169686021L, 790205L), message.getPayload());
+		message = router.route("{\"friends_str\":[\"1497\",\"169686021\"]}");
+		assertEquals(asList(1497L, 169686021L), message.getPayload());
+	}
+
+	@Test
+	public void route_event() throws Exception {
+		StreamMessage message = router.route("{\"target\":{\"id\":1,\"screen_name\":\"kdonald\"},\"source\":{\"id\":2,\"screen_name\":\"habuma\"}," +
+				"\"event\":\"favorite\",\"target_object\":{\"id\":12345,\"text\":\"Hello\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\"," +
+				"\"user\":{\"id\":1,\"screen_name\":\"kdonald\"}},\"created_at\":\"Sat Sep 04 16:10:54 +0000 2010\"}");
+		assertEquals(StreamMessageType.EVENT, message.getType());
+		StreamEvent event = (StreamEvent) message.getPayload();
+		assertEquals("favorite", event.getEventName());
+		assertEquals("habuma", event.getSource().getScreenName());
+		assertEquals("kdonald", event.getTarget().getScreenName());
+		assertEquals(12345, event.getTargetTweet().getId());
+		assertNull(event.getTargetList());
+		assertNotNull(event.getCreatedAt());
+	}
+
+	@Test
+	public void route_unrecognized() throws Exception {
+		assertNull(router.route("{\"unrecognized\":\"event\"}"));
+		assertNull(router.route("[1,2,3]"));
+	}
+
+	private String readFirstLine(String resource) throws Exception {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new ClassPathResource(resource, getClass()).getInputStream(), "UTF-8"));
+		try {
+			return reader.readLine();
+		} finally {
+			reader.close();
+		}
+	}
+
+}
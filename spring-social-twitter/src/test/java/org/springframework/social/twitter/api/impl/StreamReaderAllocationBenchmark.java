@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Compares the bytes allocated per message by {@link StreamFrameReader} with those allocated by reading lines with a BufferedReader,
+ * as stream readers used to.
+ * Not a unit test; run it with {@code main} on a HotSpot JVM and read the results off standard out.
+ * Usage: StreamReaderAllocationBenchmark [messages]
+ */
+public class StreamReaderAllocationBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int messages = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		byte[] body = createBody(messages);
+		for (int i = 0; i < 3; i++) { // warm up
+			readLines(body);
+			readFrames(body);
+		}
+		long lines = allocatedBy(() -> readLines(body));
+		long frames = allocatedBy(() -> readFrames(body));
+		System.out.printf("BufferedReader     %8d bytes/message%n", lines / messages);
+		System.out.printf("StreamFrameReader  %8d bytes/message%n", frames / messages);
+	}
+
+	private static void readLines(byte[] body) throws Exception {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), "UTF-8"));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line.getBytes("UTF-8"); // what Jackson's String parser ends up doing, less its own buffers
+		}
+	}
+
+	private static void readFrames(byte[] body) throws Exception {
+		StreamFrameReader reader = new StreamFrameReader(new ByteArrayInputStream(body));
+		while (reader.next() != null) {
+		}
+	}
+
+	private static long allocatedBy(Task task) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		task.run();
+		return threads.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	private static byte[] createBody(int messages) throws Exception {
+		byte[] tweet = firstLine(FileCopyUtils.copyToByteArray(new ClassPathResource("basic/filter-stream-track.json", StreamReaderAllocationBenchmark.class).getInputStream()));
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		for (int i = 0; i < messages; i++) {
+			body.write(tweet);
+			body.write(CRLF);
+			if (i % 10 == 0) {
+				body.write(CRLF); // keep-alive
+			}
+		}
+		return body.toByteArray();
+	}
+
+	private static byte[] firstLine(byte[] bytes) {
+		int end = 0;
+		while (end < bytes.length && bytes[end] != '\n' && bytes[end] != '\r') {
+			end++;
+		}
+		byte[] line = new byte[end];
+		System.arraycopy(bytes, 0, line, 0, end);
+		return line;
+	}
+
+	private interface Task {
+		void run() throws Exception;
+	}
+
+	private static final byte[] CRLF = { '\r', '\n' };
+
+}
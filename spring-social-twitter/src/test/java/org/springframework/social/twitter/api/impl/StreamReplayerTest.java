@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.StreamListener;
+import org.springframework.social.twitter.api.StreamMetrics;
+import org.springframework.social.twitter.api.StreamWarningEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+public class StreamReplayerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void replay_maxSpeedAcrossSegments() throws Exception {
+		StreamRecorder recorder = StreamRecorder.create(folder.getRoot(), 512); // small enough to spread the fixture over several segments
+		InputStream inputStream = new ClassPathResource("basic/filter-stream-track.json", getClass()).getInputStream();
+		try {
+			StreamFrameReader reader = new StreamFrameReader(inputStream);
+			byte[] message;
+			while ((message = reader.next()) != null) {
+				recorder.append(message);
+			}
+		} finally {
+			inputStream.close();
+		}
+		recorder.close();
+		assertTrue(recorder.getDirectory().listFiles().length > 1);
+
+		StreamListener listener = mock(StreamListener.class);
+		StreamMetrics metrics = new StreamReplayer(recorder.getDirectory()).replay(Arrays.asList(listener), StreamReplayer.MAX_SPEED);
+		verify(listener, times(4)).onTweet(any(Tweet.class));
+		verify(listener, times(2)).onDelete(any(StreamDeleteEvent.class));
+		verify(listener, times(1)).onLimit(369);
+		verify(listener, times(3)).onWarning(any(StreamWarningEvent.class));
+		assertEquals(10, metrics.getMessagesReceived());
+		assertEquals(10, metrics.getMessagesParsed());
+	}
+
+	@Test
+	public void replay_pacedBySpeed() throws Exception {
+		StreamRecorder recorder = StreamRecorder.create(folder.getRoot(), 4096);
+		long start = TimeUnit.SECONDS.toNanos(1000);
+		for (int i = 0; i < 3; i++) {
+			recorder.append(start + i * TimeUnit.MILLISECONDS.toNanos(200), ("{\"limit\":{\"track\":" + i + "}}").getBytes("UTF-8"));
+		}
+		recorder.close();
+
+		StreamListener listener = mock(StreamListener.class);
+		long replayStart = System.nanoTime();
+		new StreamReplayer(recorder.getDirectory()).replay(Arrays.asList(listener), 2);
+		long elapsed = System.nanoTime() - replayStart;
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(200));
+		verify(listener).onLimit(0);
+		verify(listener).onLimit(1);
+		verify(listener).onLimit(2);
+	}
+
+	@Test
+	public void recorder_oversizedMessageGetsItsOwnSegment() throws Exception {
+		StreamRecorder recorder = StreamRecorder.create(folder.getRoot(), 64);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			text.append("0123456789");
+		}
+		recorder.append(("{\"limit\":{\"track\":1}}").getBytes("UTF-8"));
+		recorder.append(("{\"warning\":{\"code\":\"FALLING_BEHIND\",\"message\":\"" + text + "\",\"percent_full\":60}}").getBytes("UTF-8"));
+		recorder.close();
+		File[] segments = recorder.getDirectory().listFiles();
+		assertEquals(2, segments.length);
+
+		StreamListener listener = mock(StreamListener.class);
+		new StreamReplayer(recorder.getDirectory()).replay(Arrays.asList(listener), StreamReplayer.MAX_SPEED);
+		verify(listener).onLimit(1);
+		verify(listener).onWarning(any(StreamWarningEvent.class));
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.springframework.social.twitter.api.StreamOverflowPolicy;
+import org.springframework.social.twitter.api.StreamWaitStrategy;
+
+public class StreamRingBufferTest {
+
+	@Test
+	public void capacityRoundedUpToPowerOfTwo() {
+		assertEquals(1, new StreamRingBuffer<String>(1, StreamWaitStrategy.BLOCKING).capacity());
+		assertEquals(8, new StreamRingBuffer<String>(5, StreamWaitStrategy.BLOCKING).capacity());
+		assertEquals(1024, new StreamRingBuffer<String>(1024, StreamWaitStrategy.BLOCKING).capacity());
+	}
+
+	@Test
+	public void offerAndPoll_preservesOrder() {
+		StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(4, StreamWaitStrategy.BLOCKING);
+		assertTrue(buffer.offer("a"));
+		assertTrue(buffer.offer("b"));
+		assertTrue(buffer.offer("c"));
+		assertEquals(3, buffer.size());
+		assertEquals("a", buffer.poll());
+		assertEquals("b", buffer.poll());
+		assertEquals("c", buffer.poll());
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	public void offer_full() {
+		StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(2, StreamWaitStrategy.BLOCKING);
+		assertTrue(buffer.offer("a"));
+		assertTrue(buffer.offer("b"));
+		assertFalse(buffer.offer("c"));
+		assertEquals("a", buffer.poll());
+		assertTrue(buffer.offer("c"));
+	}
+
+	@Test
+	public void publish_dropNewest() throws Exception {
+		StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(2, StreamWaitStrategy.BLOCKING);
+		assertTrue(buffer.publish("a", StreamOverflowPolicy.DROP_NEWEST));
+		assertTrue(buffer.publish("b", StreamOverflowPolicy.DROP_NEWEST));
+		assertFalse(buffer.publish("c", StreamOverflowPolicy.DROP_NEWEST));
+		assertEquals(1, buffer.getDroppedCount());
+		assertEquals("a", buffer.poll());
+		assertEquals("b", buffer.poll());
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	public void publish_dropOldest() throws Exception {
+		StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(2, StreamWaitStrategy.BLOCKING);
+		assertTrue(buffer.publish("a", StreamOverflowPolicy.DROP_OLDEST));
+		assertTrue(buffer.publish("b", StreamOverflowPolicy.DROP_OLDEST));
+		assertTrue(buffer.publish("c", StreamOverflowPolicy.DROP_OLDEST));
+		assertTrue(buffer.publish("d", StreamOverflowPolicy.DROP_OLDEST));
+		assertEquals(2, buffer.getDroppedCount());
+		assertEquals("c", buffer.poll());
+		assertEquals("d", buffer.poll());
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	public void publish_sample() throws Exception {
+		AtomicLong dropped = new AtomicLong();
+		StreamRingBuffer<Integer> buffer = new StreamRingBuffer<Integer>(8, StreamWaitStrategy.BLOCKING, 3, dropped);
+		for (int i = 1; i <= 6; i++) { // below three-quarters full, everything is kept
+			assertTrue(buffer.publish(i, StreamOverflowPolicy.SAMPLE));
+		}
+		for (int i = 7; i <= 15; i++) {
+			buffer.publish(i, StreamOverflowPolicy.SAMPLE);
+		}
+		assertEquals(8, buffer.size());
+		assertEquals(7, dropped.get());
+		for (int i = 1; i <= 7; i++) {
+			assertEquals(Integer.valueOf(i), buffer.poll());
+		}
+		assertEquals(Integer.valueOf(10), buffer.poll());
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	public void publish_sharedDropCounter() throws Exception {
+		AtomicLong dropped = new AtomicLong();
+		StreamRingBuffer<String> first = new StreamRingBuffer<String>(1, StreamWaitStrategy.BLOCKING, 10, dropped);
+		first.publish("a", StreamOverflowPolicy.DROP_NEWEST);
+		first.publish("b", StreamOverflowPolicy.DROP_NEWEST);
+		StreamRingBuffer<String> second = new StreamRingBuffer<String>(1, StreamWaitStrategy.BLOCKING, 10, dropped);
+		second.publish("c", StreamOverflowPolicy.DROP_OLDEST);
+		second.publish("d", StreamOverflowPolicy.DROP_OLDEST);
+		assertEquals(2, dropped.get());
+		assertEquals(2, second.getDroppedCount());
+	}
+
+	@Test
+	public void take_drainsBeforeReportingClosed() throws Exception {
+		StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(4, StreamWaitStrategy.BLOCKING);
+		buffer.offer("a");
+		buffer.offer("b");
+		buffer.close();
+		assertFalse(buffer.offer("c"));
+		assertEquals("a", buffer.take());
+		assertEquals("b", buffer.take());
+		assertNull(buffer.take());
+	}
+
+	@Test(timeout = 5000)
+	public void close_releasesWaitingConsumer() throws Exception {
+		final StreamRingBuffer<String> buffer = new StreamRingBuffer<String>(4, StreamWaitStrategy.BLOCKING);
+		Thread consumer = new Thread(new Runnable() {
+			public void run() {
+				try {
+					buffer.take();
+				} catch (InterruptedException e) {}
+			}
+		});
+		consumer.start();
+		Thread.sleep(100);
+		buffer.close();
+		consumer.join();
+	}
+
+	@Test(timeout = 10000)
+	public void handoff_blocking() throws Exception {
+		assertHandoff(StreamWaitStrategy.BLOCKING);
+	}
+
+	@Test(timeout = 10000)
+	public void handoff_yielding() throws Exception {
+		assertHandoff(StreamWaitStrategy.YIELDING);
+	}
+
+	@Test(timeout = 10000)
+	public void handoff_busySpin() throws Exception {
+		assertHandoff(StreamWaitStrategy.BUSY_SPIN);
+	}
+
+	// pushes more elements than the buffer can hold so that both sides have to wait on each other
+	private void assertHandoff(StreamWaitStrategy waitStrategy) throws Exception {
+		final StreamRingBuffer<Integer> buffer = new StreamRingBuffer<Integer>(8, waitStrategy);
+		final List<Integer> received = new ArrayList<Integer>();
+		Thread consumer = new Thread(new Runnable() {
+			public void run() {
+				try {
+					Integer next;
+					while ((next = buffer.take()) != null) {
+						received.add(next);
+					}
+				} catch (InterruptedException e) {}
+			}
+		});
+		consumer.start();
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(buffer.put(i));
+		}
+		buffer.close();
+		consumer.join();
+		assertEquals(1000, received.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Integer.valueOf(i), received.get(i));
+		}
+	}
+
+}
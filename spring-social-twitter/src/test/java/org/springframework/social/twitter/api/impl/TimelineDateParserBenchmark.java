@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Compares parsing created_at dates with a new SimpleDateFormat, as deserializers used to, against {@link TimelineDateParser},
+ * both for distinct dates that always miss its cache and for a stream-like burst where many dates share the same second.
+ * Not a unit test; run it with {@code main} on a HotSpot JVM and read the results off standard out.
+ * Usage: TimelineDateParserBenchmark [dates]
+ */
+public class TimelineDateParserBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		String[] distinct = createDates(count, 1);
+		String[] bursty = createDates(count, 50);
+		for (int i = 0; i < 5; i++) { // warm up
+			parseWithDateFormat(distinct);
+			parseWithParser(distinct);
+			parseWithParser(bursty);
+		}
+		report("SimpleDateFormat", distinct, () -> parseWithDateFormat(distinct));
+		report("parser, distinct", distinct, () -> parseWithParser(distinct));
+		report("parser, bursty", bursty, () -> parseWithParser(bursty));
+	}
+
+	private static long parseWithDateFormat(String[] dates) throws Exception {
+		long sum = 0;
+		for (String date : dates) {
+			sum += new SimpleDateFormat(TimelineDateParser.TIMELINE_DATE_FORMAT, Locale.ENGLISH).parse(date).getTime();
+		}
+		return sum;
+	}
+
+	private static long parseWithParser(String[] dates) {
+		long sum = 0;
+		for (String date : dates) {
+			sum += TimelineDateParser.parse(date).getTime();
+		}
+		return sum;
+	}
+
+	private static void report(String name, String[] dates, Task task) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		task.run();
+		long elapsed = System.nanoTime() - start;
+		long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.printf("%-18s %8d ns/date %8d bytes/date%n", name, elapsed / dates.length, allocated / dates.length);
+	}
+
+	// each second is repeated by as many dates as the burst, the way a busy stream's tweets are
+	private static String[] createDates(int count, int burst) {
+		SimpleDateFormat format = new SimpleDateFormat(TimelineDateParser.TIMELINE_DATE_FORMAT, Locale.ENGLISH);
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		long start = 1348457721000L;
+		String[] dates = new String[count];
+		for (int i = 0; i < count; i++) {
+			dates[i] = format.format(new Date(start + (i / burst) * 1000L));
+		}
+		return dates;
+	}
+
+	private interface Task {
+		long run() throws Exception;
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class TimelineDateParserTest {
+
+	@Test
+	public void parse() throws Exception {
+		assertEquals(1348457721000L, TimelineDateParser.parse("Mon Sep 24 03:35:21 +0000 2012").getTime());
+		assertEquals(1348457721000L, TimelineDateParser.parse("Sun Sep 23 22:35:21 -0500 2012").getTime());
+		assertEquals(951782400000L, TimelineDateParser.parse("Tue Feb 29 00:00:00 +0000 2000").getTime());
+	}
+
+	@Test
+	public void parse_sameAsSimpleDateFormat() throws Exception {
+		Random random = new Random(42);
+		String[] zones = { "UTC", "America/New_York", "Asia/Kolkata", "Pacific/Chatham", "America/St_Johns" };
+		for (int i = 0; i < 20000; i++) {
+			DateFormat format = new SimpleDateFormat(TimelineDateParser.TIMELINE_DATE_FORMAT, Locale.ENGLISH);
+			format.setTimeZone(TimeZone.getTimeZone(zones[i % zones.length]));
+			String text = format.format(new Date((long) (random.nextDouble() * 8000000000000L) - 4000000000000L));
+			assertEquals(text, referenceParse(text), TimelineDateParser.parse(text));
+			assertEquals(text, referenceParse(text), TimelineDateParser.parse(text)); // and again from the cache
+		}
+	}
+
+	@Test
+	public void parse_unusualInputSameAsSimpleDateFormat() throws Exception {
+		String[] texts = {
+				"Mon Feb 30 03:35:21 +0000 2012", // rolls over into March
+				"mon sep 24 03:35:21 +0000 2012",
+				"Tue Sep 24 03:35:21 +0000 2012", // wrong day of the week
+				"Mon Sep 24 03:35:21 +0000 2012 and more",
+				"Mon Sep 24 03:35:21 +0000 20123",
+				"Mon Sep 24 24:35:21 +0000 2012",
+				"Mon Sep 24 03:35:21 GMT 2012",
+				"Mon Sep 24 03:35:21 +0000 1500",
+				"Xyz Sep 24 03:35:21 +0000 2012",
+				"Mon Sep 24 03:35:2x +0000 2012",
+				"2012-09-24T03:35:21Z",
+				"" };
+		for (String text : texts) {
+			assertEquals(text, referenceParse(text), TimelineDateParser.parse(text));
+		}
+		assertNull(TimelineDateParser.parse(null));
+	}
+
+	@Test
+	public void parse_returnsNewDateEachTime() throws Exception {
+		Date first = TimelineDateParser.parse("Mon Sep 24 03:35:21 +0000 2012");
+		first.setTime(0);
+		assertEquals(1348457721000L, TimelineDateParser.parse("Mon Sep 24 03:35:21 +0000 2012").getTime());
+	}
+
+	private Date referenceParse(String text) {
+		try {
+			return new SimpleDateFormat(TimelineDateParser.TIMELINE_DATE_FORMAT, Locale.ENGLISH).parse(text);
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+
+}
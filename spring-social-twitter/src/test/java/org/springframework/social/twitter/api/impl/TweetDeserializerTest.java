@@ -0,0 +1,315 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.social.twitter.api.Entities;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.TwitterProfile;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Checks that tweets read token by token come out exactly as the tree-based {@link TweetDeserializer#deserialize(JsonNode)} builds them,
+ * for every tweet in the test fixtures.
+ */
+public class TweetDeserializerTest {
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new TwitterModule());
+
+	private final TweetDeserializer deserializer = new TweetDeserializer();
+
+	@Test
+	public void fixtureTweets_sameAsTree() throws Exception {
+		List<JsonNode> tweets = fixtureTweets();
+		assertTrue(tweets.size() > 10);
+		for (JsonNode node : tweets) {
+			Tweet expected = deserializer.deserialize(node);
+			assertNotNull(expected);
+			assertSameTweet(expected, mapper.reader(Tweet.class).<Tweet>readValue(node.toString()));
+		}
+	}
+
+	@Test
+	public void fixtureTweets_fieldsInAnyOrder() throws Exception {
+		for (JsonNode node : fixtureTweets()) {
+			Tweet expected = deserializer.deserialize(node);
+			assertSameTweet(expected, mapper.reader(Tweet.class).<Tweet>readValue(reversed(node).toString()));
+		}
+	}
+
+	@Test
+	public void fixtureTimeline_sameAsTree() throws Exception {
+		JsonNode timeline = mapper.readTree(new PathMatchingResourcePatternResolver().getResource("classpath:org/springframework/social/twitter/api/impl/basic/timeline.json").getInputStream());
+		List<Tweet> tweets = mapper.reader(new TypeReference<List<Tweet>>() {}).readValue(timeline.toString());
+		assertEquals(timeline.size(), tweets.size());
+		for (int i = 0; i < tweets.size(); i++) {
+			assertSameTweet(deserializer.deserialize(timeline.get(i)), tweets.get(i));
+		}
+	}
+
+	@Test
+	public void fixtureTweets_lazyEntitiesSameAsTree() throws Exception {
+		ObjectReader lazyReader = mapper.reader(Tweet.class).withAttribute(TweetDeserializer.LAZY_ENTITIES, Boolean.TRUE);
+		for (JsonNode node : fixtureTweets()) {
+			assertSameTweet(deserializer.deserialize(node), lazyReader.<Tweet>readValue(node.toString()));
+		}
+	}
+
+	@Test
+	public void lazyEntities_builtOnceOnFirstUse() throws Exception {
+		final AtomicInteger built = new AtomicInteger();
+		final Entities entities = new Entities(null, null, null, null);
+		Tweet tweet = new Tweet(1, "Hello", null, "habuma", null, null, 42, "en", "web");
+		tweet.setLazyEntities(new Supplier<Entities>() {
+			public Entities get() {
+				built.incrementAndGet();
+				return entities;
+			}
+		});
+		assertEquals(0, built.get());
+		assertSame(entities, tweet.getEntities());
+		assertSame(entities, tweet.getEntities());
+		assertFalse(tweet.hasTags());
+		assertEquals(1, built.get());
+	}
+
+	@Test
+	public void lazyEntities_serializable() throws Exception {
+		Tweet tweet = mapper.reader(Tweet.class).withAttribute(TweetDeserializer.LAZY_ENTITIES, Boolean.TRUE).readValue(
+				"{\"entities\":{\"hashtags\":[{\"text\":\"spring\",\"indices\":[6,13]}]},\"id\":1,\"text\":\"Hello #spring $VMW\"," +
+				"\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\",\"user\":{\"id\":42,\"screen_name\":\"habuma\"}}");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(tweet);
+		out.close();
+		Tweet copy = (Tweet) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals("spring", copy.getEntities().getHashTags().get(0).getText());
+		assertEquals("VMW", copy.getEntities().getTickerSymbols().get(0).getTickerSymbol());
+	}
+
+	@Test
+	public void tickerSymbols() throws Exception {
+		Tweet tweet = mapper.reader(Tweet.class).readValue("{\"entities\":{\"hashtags\":[]},\"id\":1,\"text\":\"Buying $CRM and $AAPL\"," +
+				"\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\",\"user\":{\"id\":42,\"screen_name\":\"habuma\"}}");
+		assertEquals(2, tweet.getEntities().getTickerSymbols().size());
+		assertEquals("CRM", tweet.getEntities().getTickerSymbols().get(0).getTickerSymbol());
+		assertEquals("AAPL", tweet.getEntities().getTickerSymbols().get(1).getTickerSymbol());
+		assertArrayEquals(new int[] {16, 21}, tweet.getEntities().getTickerSymbols().get(1).getIndices());
+	}
+
+	@Test
+	public void tweetWithoutIdOrText() throws Exception {
+		assertNull(mapper.reader(Tweet.class).readValue("{\"id\":0,\"text\":\"Hello\",\"user\":{\"id\":42}}"));
+		assertNull(mapper.reader(Tweet.class).readValue("{\"id\":1,\"text\":\"\",\"user\":{\"id\":42}}"));
+		List<Tweet> tweets = mapper.reader(new TypeReference<List<Tweet>>() {}).readValue("[{\"id\":1,\"user\":{\"id\":42}},{\"id\":2,\"text\":\"Hello\"}]");
+		assertEquals(2, tweets.size());
+		assertNull(tweets.get(0));
+		assertEquals(2, tweets.get(1).getId());
+	}
+
+	@Test
+	public void sharedProfiles_notSharedByDefault() throws Exception {
+		String first = "{\"id\":1,\"text\":\"Hello\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\"," +
+				"\"user\":{\"id\":8675309,\"screen_name\":\"jenny\",\"followers_count\":10}}";
+		String second = first.replace("\"id\":1,", "\"id\":2,");
+		List<Tweet> tweets = mapper.reader(new TypeReference<List<Tweet>>() {}).readValue("[" + first + "," + second + "]");
+		assertNotSame(tweets.get(0).getUser(), tweets.get(1).getUser());
+		tweets.get(0).getUser().getExtraData().put("verified_type", "none");
+		assertTrue(tweets.get(1).getUser().getExtraData().isEmpty());
+		Tweet tweet = mapper.reader(Tweet.class).readValue(first);
+		assertNotSame(tweet.getUser(), mapper.reader(Tweet.class).<Tweet>readValue(second).getUser());
+		assertNotSame(tweet.getUser(), deserializer.deserialize(mapper.readTree(second)).getUser());
+	}
+
+	@Test
+	public void sharedProfiles_identicalProfileSharedWithinOneRead() throws Exception {
+		String first = "{\"id\":1,\"text\":\"Hello\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\"," +
+				"\"user\":{\"id\":8675309,\"screen_name\":\"jenny\",\"followers_count\":10}}";
+		String second = first.replace("\"id\":1,", "\"id\":2,");
+		String changed = second.replace("\"followers_count\":10", "\"followers_count\":11");
+		ObjectReader shared = mapper.reader(new TypeReference<List<Tweet>>() {}).withAttribute(TweetDeserializer.SHARED_PROFILES, Boolean.TRUE);
+		List<Tweet> tweets = shared.readValue("[" + first + "," + second + "," + changed + "]");
+		assertSame(tweets.get(0).getUser(), tweets.get(1).getUser());
+		assertNotSame(tweets.get(1).getUser(), tweets.get(2).getUser());
+		assertEquals(11, tweets.get(2).getUser().getFollowersCount());
+		assertNotSame(tweets.get(0).getUser(), shared.<List<Tweet>>readValue("[" + first + "]").get(0).getUser());
+	}
+
+	@Test
+	public void sharedProfiles_identicalProfileSharedAcrossReadsOfOneReader() throws Exception {
+		String first = "{\"id\":1,\"text\":\"Hello\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\"," +
+				"\"user\":{\"id\":8675309,\"screen_name\":\"jenny\",\"followers_count\":10}}";
+		String second = first.replace("\"id\":1,", "\"id\":2,");
+		ObjectReader shared = TweetDeserializer.withSharedProfiles(mapper.reader(Tweet.class));
+		Tweet tweet = shared.readValue(first);
+		assertSame(tweet.getUser(), shared.<Tweet>readValue(second).getUser());
+		ObjectReader other = TweetDeserializer.withSharedProfiles(mapper.reader(Tweet.class));
+		assertNotSame(tweet.getUser(), other.<Tweet>readValue(second).getUser());
+	}
+
+	@Test
+	public void sharedProfiles_extraDataCompared() throws Exception {
+		TwitterProfileCache cache = new TwitterProfileCache();
+		String profile = "{\"screen_name\":\"habuma\",\"id\":42,\"name\":\"Craig Walls\"}";
+		TwitterProfile first = readProfile(cache, profile);
+		assertSame(first, readProfile(cache, profile));
+		TwitterProfile extra = readProfile(cache, profile.replace("}", ",\"verified_type\":\"none\"}"));
+		assertNotSame(first, extra);
+		assertEquals("none", extra.getExtraData().get("verified_type"));
+		assertSame(extra, readProfile(cache, profile.replace("}", ",\"verified_type\":\"none\"}")));
+		cache.clear();
+		assertNotSame(extra, readProfile(cache, profile.replace("}", ",\"verified_type\":\"none\"}")));
+	}
+
+	@Test
+	public void sharedProfiles_unchangedProfileRecognizedByItsChangeFields() throws Exception {
+		TwitterProfileCache cache = new TwitterProfileCache();
+		String profile = "{\"id\":42,\"screen_name\":\"habuma\",\"name\":\"Craig Walls\",\"description\":null,\"location\":\"Plano\"," +
+				"\"url\":null,\"profile_image_url\":\"http://a0.twimg.com/habuma.png\",\"statuses_count\":100,\"followers_count\":10," +
+				"\"friends_count\":20,\"favourites_count\":0,\"listed_count\":3,\"profile_text_color\":\"333333\",\"entities\":{\"url\":{}}}";
+		TwitterProfile first = readProfile(cache, profile);
+		assertEquals("333333", first.getTextColor());
+		assertSame(first, readProfile(cache, profile));
+		assertSame(first, readProfile(cache, profile.replace("333333", "000000")));
+		TwitterProfile changed = readProfile(cache, profile.replace("\"followers_count\":10", "\"followers_count\":11").replace("333333", "000000"));
+		assertNotSame(first, changed);
+		assertEquals(11, changed.getFollowersCount());
+		assertEquals("000000", changed.getTextColor());
+		assertEquals(Collections.singletonMap("url", Collections.emptyMap()), changed.getExtraData().get("entities"));
+		assertSame(changed, readProfile(cache, profile.replace("\"followers_count\":10", "\"followers_count\":11")));
+		assertNotSame(changed, readProfile(cache, profile.replace("\"id\":42", "\"id\":43")));
+	}
+
+	@Test
+	public void sharedProfiles_readOnly() throws Exception {
+		String first = "{\"id\":1,\"text\":\"Hello\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\",\"source\":\"web\"," +
+				"\"user\":{\"id\":8675309,\"screen_name\":\"jenny\",\"created_at\":\"Mon Sep 24 03:35:21 +0000 2012\"," +
+				"\"entities\":{\"urls\":[]}}}";
+		String second = first.replace("\"id\":1,", "\"id\":2,");
+		ObjectReader shared = TweetDeserializer.withSharedProfiles(mapper.reader(Tweet.class));
+		TwitterProfile user = shared.<Tweet>readValue(first).getUser();
+		assertSame(user, shared.<Tweet>readValue(second).getUser());
+		try {
+			user.getExtraData().put("verified_type", "none");
+			fail("Expected the extra data of a shared profile to be read-only");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			((List<?>) ((Map<?, ?>) user.getExtraData().get("entities")).get("urls")).clear();
+			fail("Expected the extra data of a shared profile to be read-only");
+		} catch (UnsupportedOperationException e) {
+		}
+		long createdAt = user.getCreatedDate().getTime();
+		user.getCreatedDate().setTime(0);
+		assertEquals(createdAt, user.getCreatedDate().getTime());
+	}
+
+	private TwitterProfile readProfile(TwitterProfileCache cache, String json) throws Exception {
+		JsonParser parser = mapper.getFactory().createParser(json);
+		parser.nextToken();
+		TwitterProfile profile = cache.read(parser);
+		assertNull(parser.nextToken());
+		return profile;
+	}
+
+	private void assertSameTweet(Tweet expected, Tweet actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected, actual);
+		assertEquals(expected.isFavorited(), actual.isFavorited());
+		assertEquals(expected.getFavoriteCount(), actual.getFavoriteCount());
+		assertEquals(expected.isTruncated(), actual.isTruncated());
+		assertEquals(expected.isPossiblySensitive(), actual.isPossiblySensitive());
+		assertEquals(expected.getExtraData(), actual.getExtraData());
+		if (expected.getEntities() != null) {
+			assertEquals(expected.getEntities().getExtraData(), actual.getEntities().getExtraData());
+		}
+		if (expected.getUser() != null) {
+			assertEquals(expected.getUser().getExtraData(), actual.getUser().getExtraData());
+			assertEquals(expected.getUser().getStatusesCount(), actual.getUser().getStatusesCount());
+			assertEquals(expected.getUser().getFollowersCount(), actual.getUser().getFollowersCount());
+		}
+		assertSameTweet(expected.getRetweetedStatus(), actual.getRetweetedStatus());
+	}
+
+	// every object in the fixtures that the tree-based deserializer accepts as a tweet
+	private List<JsonNode> fixtureTweets() throws Exception {
+		List<JsonNode> tweets = new ArrayList<JsonNode>();
+		for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:org/springframework/social/twitter/api/impl/**/*.json")) {
+			InputStream inputStream = resource.getInputStream();
+			try {
+				MappingIterator<JsonNode> values = mapper.reader(JsonNode.class).readValues(inputStream);
+				while (values.hasNext()) {
+					collectTweets(values.next(), tweets);
+				}
+			} finally {
+				inputStream.close();
+			}
+		}
+		return tweets;
+	}
+
+	private void collectTweets(JsonNode node, List<JsonNode> tweets) {
+		if (node.has("id") && node.has("text") && node.path("user").has("id") && node.has("created_at") && node.has("source")) {
+			tweets.add(node);
+			return;
+		}
+		for (JsonNode child : node) {
+			collectTweets(child, tweets);
+		}
+	}
+
+	private JsonNode reversed(JsonNode node) {
+		List<Entry<String, JsonNode>> fields = new ArrayList<Entry<String, JsonNode>>();
+		for (Iterator<Entry<String, JsonNode>> fieldIt = node.fields(); fieldIt.hasNext(); ) {
+			fields.add(fieldIt.next());
+		}
+		Collections.reverse(fields);
+		ObjectNode reversed = mapper.createObjectNode();
+		for (Entry<String, JsonNode> field : fields) {
+			reversed.set(field.getKey(), field.getValue());
+		}
+		return reversed;
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class TwitterHttpTransportTest {
+
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	private final List<String> authorizations = new CopyOnWriteArrayList<String>();
+
+	private final CountDownLatch streamReleased = new CountDownLatch(1);
+
+	private ExecutorService executor;
+
+	private HttpServer server;
+
+	private TwitterHttpTransport transport;
+
+	@Before
+	public void setup() throws IOException {
+		executor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(executor);
+		server.createContext("/rest", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				clientPorts.add(exchange.getRemoteAddress().getPort());
+				String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+				if (authorization != null) {
+					authorizations.add(authorization);
+				}
+				respond(exchange, "{}");
+			}
+		});
+		server.createContext("/stream", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, 0);
+				OutputStream body = exchange.getResponseBody();
+				body.write("{}\r\n".getBytes("UTF-8"));
+				body.flush();
+				try {
+					streamReleased.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				body.close();
+			}
+		});
+		server.start();
+		transport = new TwitterHttpTransport();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		streamReleased.countDown();
+		transport.destroy();
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void restRequests_reuseConnection() {
+		RestTemplate restTemplate = new RestTemplate(transport.getRequestFactory());
+		for (int i = 0; i < 5; i++) {
+			assertEquals("{}", restTemplate.getForObject(url("/rest"), String.class));
+		}
+		assertEquals(1, clientPorts.size());
+		assertSame(transport.getRequestFactory(), transport.getRequestFactory());
+	}
+
+	@Test
+	public void openStream_leavesRestConnectionsFree() throws IOException {
+		transport.setMaxConnectionsPerHost(1);
+		transport.setMaxConnections(1);
+		transport.setConnectionRequestTimeout(2000);
+		ClientHttpResponse stream = transport.getStreamingRequestFactory().createRequest(URI.create(url("/stream")), HttpMethod.GET).execute();
+		try {
+			assertEquals("{}", new BufferedReader(new InputStreamReader(stream.getBody(), "UTF-8")).readLine());
+			RestTemplate restTemplate = new RestTemplate(transport.getRequestFactory());
+			assertEquals("{}", restTemplate.getForObject(url("/rest"), String.class));
+			assertEquals("{}", restTemplate.getForObject(url("/rest"), String.class));
+		} finally {
+			streamReleased.countDown();
+			stream.close();
+		}
+	}
+
+	@Test
+	public void twitterTemplate_signsOverPooledConnections() {
+		TwitterTemplate twitter = new TwitterTemplate("consumerKey", "consumerSecret", "accessToken", "accessTokenSecret");
+		twitter.setTransport(transport);
+		for (int i = 0; i < 3; i++) {
+			twitter.restOperations().getForObject(url("/rest"), String.class);
+		}
+		assertEquals(1, clientPorts.size());
+		assertEquals(3, authorizations.size());
+		for (String authorization : authorizations) {
+			assertTrue(authorization.startsWith("OAuth "));
+		}
+	}
+
+	private String url(String path) {
+		return "http://localhost:" + server.getAddress().getPort() + path;
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+
+}
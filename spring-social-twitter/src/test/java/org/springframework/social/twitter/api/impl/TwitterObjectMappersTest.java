@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.social.twitter.api.StreamDeleteEvent;
+import org.springframework.social.twitter.api.Tweet;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+
+public class TwitterObjectMappersTest {
+
+	@Test
+	public void readersShared() {
+		assertSame(TwitterObjectMappers.reader(Tweet.class), TwitterObjectMappers.reader(Tweet.class));
+		assertSame(TwitterObjectMappers.reader(new TypeReference<List<Tweet>>() {}),
+				TwitterObjectMappers.reader(TwitterObjectMappers.getObjectMapper().getTypeFactory().constructCollectionType(List.class, Tweet.class)));
+	}
+
+	@Test
+	public void warmUp() {
+		TwitterObjectMappers.warmUp();
+		for (JavaType type : TwitterObjectMappers.responseTypes()) {
+			assertTrue(type.toString(), TwitterObjectMappers.getObjectMapper().canDeserialize(type));
+			assertSame(TwitterObjectMappers.reader(type), TwitterObjectMappers.reader(type));
+		}
+	}
+
+	@Test
+	public void readsStreamMessages() throws Exception {
+		StreamDeleteEvent event = TwitterObjectMappers.reader(StreamDeleteEvent.class).readValue("{\"delete\":{\"status\":{\"id\":1234,\"user_id\":3}}}");
+		assertEquals(1234, event.getTweetId());
+		assertEquals(3, event.getUserId());
+	}
+
+}
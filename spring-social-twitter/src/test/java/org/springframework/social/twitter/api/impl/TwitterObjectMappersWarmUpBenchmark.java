@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl;
+
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.util.FileCopyUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures reading a timeline with a newly built ObjectMapper, as each TwitterTemplate used to have, against reading it
+ * with the shared mapper once {@link TwitterObjectMappers#warmUp()} has run, averaged over several mappers and reads.
+ * Classes are loaded by a throwaway mapper first, so what's left is the cost of working out how to read the types.
+ * Not a unit test; run it with {@code main} in a fresh JVM and read the results off standard out.
+ * Usage: TwitterObjectMappersWarmUpBenchmark [reads]
+ */
+public class TwitterObjectMappersWarmUpBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int reads = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		byte[] timeline = FileCopyUtils.copyToByteArray(new ClassPathResource("basic/timeline.json", TwitterObjectMappersWarmUpBenchmark.class).getInputStream());
+		readTimeline(new ObjectMapper().registerModule(new TwitterModule()), timeline); // loads the classes
+
+		long start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			readTimeline(new ObjectMapper().registerModule(new TwitterModule()), timeline);
+		}
+		report("read, new mapper", (System.nanoTime() - start) / reads);
+
+		start = System.nanoTime();
+		TwitterObjectMappers.warmUp();
+		report("warm-up, once at startup", System.nanoTime() - start);
+
+		start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			readTimeline(TwitterObjectMappers.getObjectMapper(), timeline);
+		}
+		report("read, after warm-up", (System.nanoTime() - start) / reads);
+	}
+
+	private static int readTimeline(ObjectMapper mapper, byte[] timeline) throws Exception {
+		List<Tweet> tweets = mapper.readValue(timeline, new TypeReference<List<Tweet>>() {});
+		return tweets.size();
+	}
+
+	private static void report(String name, long elapsed) {
+		System.out.printf("%-26s %8d us%n", name, elapsed / 1000);
+	}
+
+}
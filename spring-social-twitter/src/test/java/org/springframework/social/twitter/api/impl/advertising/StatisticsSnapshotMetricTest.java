@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl.advertising;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.advertising.StatisticsMetric;
+import org.springframework.social.twitter.api.advertising.StatisticsSnapshot;
+import org.springframework.social.twitter.api.advertising.StatisticsSnapshotMetric;
+import org.springframework.social.twitter.api.impl.TwitterObjectMappers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that the primitive series {@link StatisticsSnapshotDeserializer} reads give back the entries the metrics have always held.
+ */
+public class StatisticsSnapshotMetricTest {
+    private final ObjectMapper mapper = TwitterObjectMappers.getObjectMapper();
+
+    @Test
+    public void fixtureSnapshots_sameEntriesAsTree() throws Exception {
+        int metrics = 0;
+        for (String fixture : new String[] { "ad-stats-segmented.json", "ad-stats-non-segmented.json", "statistics-snapshot.json" }) {
+            JsonNode data = mapper.readTree(new ClassPathResource(fixture, getClass()).getInputStream()).get("data");
+            for (JsonNode node : data.isArray() ? data : Arrays.asList(data)) {
+                StatisticsSnapshot snapshot = mapper.readValue(node.toString(), StatisticsSnapshot.class);
+                for (StatisticsMetric metric : StatisticsMetric.values()) {
+                    JsonNode metricNode = node.get(metric.toString());
+                    if (metricNode == null) {
+                        assertNull(snapshot.getMetric(metric));
+                        continue;
+                    }
+                    StatisticsSnapshotMetric read = snapshot.getMetric(metric);
+                    List<Object> expected = entriesFromTree(metric, metricNode);
+                    assertEquals(metric.toString(), expected, read.entries());
+                    assertEquals(expected.size(), read.size());
+                    metrics++;
+                }
+            }
+        }
+        assertTrue(metrics > 50);
+    }
+
+    @Test
+    public void counts() throws Exception {
+        StatisticsSnapshotMetric metric = readMetric("billed_engagements", "[1,2.5,\"3\",\"4.25\"]");
+        assertEquals(Arrays.<Object> asList(1L, 2.5f, 3L, 4.25f), metric.entries());
+        assertEquals(4, metric.size());
+        assertEquals(2, metric.getLong(1));
+        assertEquals(4.25, metric.getDouble(3), 0);
+
+        metric = readMetric("billed_engagements", "[1,2,3]");
+        assertEquals(Arrays.<Object> asList(1L, 2L, 3L), metric.entries());
+        assertEquals(3.0, metric.getDouble(2), 0);
+    }
+
+    @Test
+    public void microAmounts_exact() throws Exception {
+        StatisticsSnapshotMetric metric = readMetric("billed_charge_local_micro", "[1234567890123,0]");
+        assertTrue(metric.getName().isMicroAmount());
+        assertEquals(Arrays.<Object> asList(1234567890123L, 0L), metric.entries());
+        assertEquals(1234567890123L, metric.getLong(0));
+        assertEquals(new BigDecimal("1234567.890123"), metric.getAmount(0));
+        assertEquals(1234567.890123, metric.getDouble(0), 0.000001);
+        try {
+            readMetric("billed_engagements", "[1]").getAmount(0);
+            fail();
+        }
+        catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void breakdowns() throws Exception {
+        StatisticsSnapshotMetric metric = readMetric("mobile_conversion_installs_breakdown", "[{\"post_view\":\"1\",\"post_engagement\":2},{\"assisted\":\"0\"}]");
+        assertEquals(Arrays.<Object> asList(new AbstractMap.SimpleEntry<String, String>("post_view", "1"),
+                new AbstractMap.SimpleEntry<String, String>("post_engagement", "2"), new AbstractMap.SimpleEntry<String, String>("assisted", "0")),
+                metric.entries());
+        assertEquals(3, metric.size());
+        try {
+            metric.getLong(0);
+            fail();
+        }
+        catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void fromEntries() {
+        List<Object> entries = Arrays.<Object> asList(1L, 2.5f, 3L);
+        StatisticsSnapshotMetric metric = new StatisticsSnapshotMetric(StatisticsMetric.billed_engagements, entries);
+        assertEquals(entries, metric.entries());
+        assertEquals(2.5, metric.getDouble(1), 0);
+        assertEquals(3, metric.getLong(2));
+
+        List<Object> breakdown = Arrays.<Object> asList(new AbstractMap.SimpleEntry<String, String>("assisted", "0"));
+        assertEquals(breakdown, new StatisticsSnapshotMetric(StatisticsMetric.mobile_conversion_installs_breakdown, breakdown).entries());
+    }
+
+    @Test
+    public void builder() {
+        StatisticsSnapshotMetric metric = new StatisticsSnapshotMetric.Builder(StatisticsMetric.billed_engagements)
+                .addCount(1).addCount(2).addDecimal(0.5).addCount(4).build();
+        assertEquals(Arrays.<Object> asList(1L, 2L, 0.5f, 4L), metric.entries());
+        try {
+            new StatisticsSnapshotMetric.Builder(StatisticsMetric.billed_engagements).addCount(1).addBreakdown("assisted", "0");
+            fail();
+        }
+        catch (IllegalStateException e) {
+        }
+    }
+
+    private StatisticsSnapshotMetric readMetric(String name, String entries) throws Exception {
+        String json = "{\"id\":\"9q1o2\",\"granularity\":\"DAY\",\"start_time\":\"2015-06-23T07:00:00Z\",\"end_time\":\"2015-06-26T07:00:00Z\","
+                + "\"" + name + "\":" + entries + "}";
+        return mapper.readValue(json, StatisticsSnapshot.class).getMetric(StatisticsMetric.valueOf(name));
+    }
+
+    // the entries as the tree-based deserializer built them, before the series were kept as primitives
+    private List<Object> entriesFromTree(StatisticsMetric metric, JsonNode metricNode) {
+        List<Object> entries = new ArrayList<Object>();
+        for (JsonNode entry : metricNode) {
+            if (metric.getValueType() == BigDecimal.class) {
+                entries.add(BigDecimalMicroAmountDeserializer.parse(entry.asText()));
+            }
+            else if (metric.getValueType() == Integer.class) {
+                String value = entry.asText();
+                entries.add(value.contains(".") ? (Object) Float.valueOf(value) : (Object) Long.valueOf(value));
+            }
+            else {
+                for (Iterator<Map.Entry<String, JsonNode>> fields = entry.fields(); fields.hasNext();) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    entries.add(new AbstractMap.SimpleEntry<String, String>(field.getKey(), field.getValue().asText()));
+                }
+            }
+        }
+        return entries;
+    }
+}
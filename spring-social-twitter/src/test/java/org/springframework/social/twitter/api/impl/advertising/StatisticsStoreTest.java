@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl.advertising;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.twitter.api.advertising.StatisticsGranularity;
+import org.springframework.social.twitter.api.advertising.StatisticsMetric;
+import org.springframework.social.twitter.api.advertising.StatisticsSegmentationType;
+import org.springframework.social.twitter.api.advertising.StatisticsSnapshot;
+import org.springframework.social.twitter.api.advertising.StatisticsSnapshotMetric;
+import org.springframework.social.twitter.api.advertising.StatisticsStore;
+import org.springframework.social.twitter.api.advertising.StatisticsStore.GroupBy;
+import org.springframework.social.twitter.api.impl.DataStatsHolder;
+import org.springframework.social.twitter.api.impl.TwitterObjectMappers;
+
+public class StatisticsStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2015, 6, 25, 7, 0);
+
+    @Test
+    public void fixtureSegments_sumToTotal() throws Exception {
+        StatisticsStore store = new StatisticsStore();
+        store.addAll("hkk5", readFixture("ad-stats-segmented.json"));
+        store.addAll("hkk5", readFixture("ad-stats-non-segmented.json"));
+
+        StatisticsStore.Rollup unsegmented = store.rollup("hkk5", StatisticsMetric.billed_engagements)
+                .withStoredGranularity(StatisticsGranularity.DAY)
+                .withRange(START, START.plusDays(1))
+                .withGranularity(StatisticsGranularity.DAY);
+        assertArrayEquals(new double[] { 4511 }, unsegmented.compute().get(""), 0);
+
+        Map<String, double[]> bySegment = store.rollup("hkk5", StatisticsMetric.billed_engagements)
+                .withStoredGranularity(StatisticsGranularity.DAY)
+                .withSegmentation(StatisticsSegmentationType.GENDER)
+                .withRange(START, START.plusDays(1))
+                .withGranularity(StatisticsGranularity.DAY)
+                .groupedBy(GroupBy.SEGMENT)
+                .compute();
+        assertEquals(3, bySegment.size());
+        assertArrayEquals(new double[] { 580 }, bySegment.get("f"), 0);
+        assertArrayEquals(new double[] { 3808 }, bySegment.get("m"), 0);
+        assertArrayEquals(new double[] { 123 }, bySegment.get("unknown"), 0);
+
+        assertTrue(store.rollup("other", StatisticsMetric.billed_engagements).withRange(START, START.plusDays(1)).compute().isEmpty());
+    }
+
+    @Test
+    public void hoursRolledUp() {
+        StatisticsStore store = new StatisticsStore();
+        store.add("hkk5", hourly("a", START, 48, 1));
+        store.add("hkk5", hourly("b", START, 24, 5));
+
+        StatisticsStore.Rollup daily = store.rollup("hkk5", StatisticsMetric.billed_engagements)
+                .withRange(START, START.plusDays(2))
+                .withGranularity(StatisticsGranularity.DAY);
+        assertArrayEquals(new double[] { 24 + 120, 24 }, daily.compute().get(""), 0);
+        assertArrayEquals(new double[] { 24, 24 }, daily.withEntities("a").compute().get(""), 0);
+
+        Map<String, double[]> byEntity = daily.withEntities("a", "b").groupedBy(GroupBy.ENTITY).compute();
+        assertArrayEquals(new double[] { 24, 24 }, byEntity.get("a"), 0);
+        assertArrayEquals(new double[] { 120, 0 }, byEntity.get("b"), 0);
+
+        double[] hours = store.rollup("hkk5", StatisticsMetric.billed_engagements).withRange(START.plusHours(23), START.plusHours(25)).compute().get("");
+        assertArrayEquals(new double[] { 6, 1 }, hours, 0);
+    }
+
+    @Test
+    public void refetchedHoursReplaced() {
+        StatisticsStore store = new StatisticsStore();
+        store.add("hkk5", hourly("a", START, 48, 1));
+        store.add("hkk5", hourly("a", START.plusHours(24), 48, 2));
+        store.add("hkk5", hourly("a", START.minusHours(2), 1, 7));
+        assertEquals(1, store.getSeriesCount());
+
+        StatisticsStore.Rollup rollup = store.rollup("hkk5", StatisticsMetric.billed_engagements).withRange(START.minusHours(2), START.plusDays(3));
+        assertArrayEquals(new double[] { 7 + 24 + 48 + 48 }, rollup.withGranularity(StatisticsGranularity.TOTAL).compute().get(""), 0);
+        store.clear();
+        assertEquals(0, store.getSeriesCount());
+    }
+
+    @Test
+    public void microAmountsSummedInMicros() {
+        StatisticsStore store = new StatisticsStore();
+        StatisticsSnapshotMetric.Builder charges = new StatisticsSnapshotMetric.Builder(StatisticsMetric.billed_charge_local_micro);
+        charges.addMicroAmount(1500001).addMicroAmount(2500002);
+        store.add("hkk5", snapshot("a", START, StatisticsGranularity.HOUR, charges.build()));
+        double[] total = store.rollup("hkk5", StatisticsMetric.billed_charge_local_micro)
+                .withRange(START, START.plusHours(2)).withGranularity(StatisticsGranularity.TOTAL).compute().get("");
+        assertArrayEquals(new double[] { 4000003 }, total, 0);
+    }
+
+    private StatisticsSnapshot hourly(String entityId, LocalDateTime start, int hours, long value) {
+        StatisticsSnapshotMetric.Builder engagements = new StatisticsSnapshotMetric.Builder(StatisticsMetric.billed_engagements);
+        for (int i = 0; i < hours; i++) {
+            engagements.addCount(value);
+        }
+        return snapshot(entityId, start, StatisticsGranularity.HOUR, engagements.build());
+    }
+
+    private StatisticsSnapshot snapshot(String entityId, LocalDateTime start, StatisticsGranularity granularity, StatisticsSnapshotMetric metric) {
+        return new StatisticsSnapshot(entityId, null, granularity, Collections.singletonMap(metric.getName(), metric),
+                start, start.plusHours(metric.size()));
+    }
+
+    private List<StatisticsSnapshot> readFixture(String fixture) throws Exception {
+        return TwitterObjectMappers.getObjectMapper()
+                .readValue(new ClassPathResource(fixture, getClass()).getInputStream(), DataStatsHolder.class).getList();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl.basic;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.social.MissingAuthorizationException;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.social.twitter.api.CursoredList;
+import org.springframework.social.twitter.api.Tweet;
+import org.springframework.social.twitter.api.impl.AbstractTwitterApiTest;
+import org.springframework.social.twitter.api.impl.AsyncTwitterTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+public class AsyncTwitterTemplateTest extends AbstractTwitterApiTest {
+
+	private MockAsyncRequestFactory requestFactory;
+
+	private AsyncTwitterTemplate asyncTwitter;
+
+	@Before
+	public void setupAsync() {
+		requestFactory = new MockAsyncRequestFactory();
+		asyncTwitter = new AsyncTwitterTemplate(twitter, requestFactory);
+	}
+
+	@Test
+	public void getUserTimelines_allInFlightAtOnce() throws Exception {
+		List<CompletableFuture<List<Tweet>>> timelines = new ArrayList<CompletableFuture<List<Tweet>>>();
+		for (long userId = 1; userId <= 3; userId++) {
+			timelines.add(asyncTwitter.timelineOperations().getUserTimeline(userId));
+		}
+		assertEquals(3, requestFactory.requests.size());
+		for (CompletableFuture<List<Tweet>> timeline : timelines) {
+			assertFalse(timeline.isDone());
+		}
+		MockAsyncRequest first = requestFactory.requests.get(0);
+		assertEquals(HttpMethod.GET, first.getMethod());
+		assertEquals("https://api.twitter.com/1.1/statuses/user_timeline.json?count=20&user_id=1&include_entities=true", first.getURI().toString());
+		assertTrue(first.getHeaders().getFirst("Authorization").startsWith("OAuth "));
+
+		requestFactory.respondAll(HttpStatus.OK, "timeline");
+		for (CompletableFuture<List<Tweet>> timeline : timelines) {
+			assertTimelineTweets(timeline.get());
+		}
+	}
+
+	@Test
+	public void getFriendIds_cursored() throws Exception {
+		CompletableFuture<CursoredList<Long>> friendIds = asyncTwitter.friendOperations().getFriendIdsInCursor(98765, -1);
+		assertEquals("https://api.twitter.com/1.1/friends/ids.json?cursor=-1&user_id=98765", requestFactory.requests.get(0).getURI().toString());
+		requestFactory.respondAll(HttpStatus.OK, "friend-or-follower-ids");
+		assertEquals(2, friendIds.get().size());
+		assertEquals(14846645L, (long) friendIds.get().get(0));
+		assertEquals(332211, friendIds.get().getNextCursor());
+	}
+
+	@Test
+	public void getUserProfile_notFound() throws Exception {
+		CompletableFuture<?> profile = asyncTwitter.userOperations().getUserProfile("nobody");
+		requestFactory.respondAll(HttpStatus.NOT_FOUND, "error-sharing-notallowed");
+		try {
+			profile.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ResourceNotFoundException);
+		}
+	}
+
+	@Test(expected = MissingAuthorizationException.class)
+	public void getHomeTimeline_appAuthorization() {
+		new AsyncTwitterTemplate(appAuthTwitter, requestFactory).timelineOperations().getHomeTimeline(20, 0, 0);
+	}
+
+	// holds every request's response back until the test sends it, as a non-blocking client would
+	private class MockAsyncRequestFactory implements AsyncClientHttpRequestFactory {
+
+		private final List<MockAsyncRequest> requests = new ArrayList<MockAsyncRequest>();
+
+		public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) {
+			MockAsyncRequest request = new MockAsyncRequest(uri, httpMethod);
+			requests.add(request);
+			return request;
+		}
+
+		void respondAll(HttpStatus status, String fixture) throws IOException {
+			for (MockAsyncRequest request : requests) {
+				request.response = new MockClientHttpResponse(StreamUtils.copyToByteArray(jsonResource(fixture).getInputStream()), status);
+				request.response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+				request.task.run();
+			}
+		}
+
+	}
+
+	private static class MockAsyncRequest implements AsyncClientHttpRequest {
+
+		private final URI uri;
+
+		private final HttpMethod method;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private MockClientHttpResponse response;
+
+		private final ListenableFutureTask<ClientHttpResponse> task = new ListenableFutureTask<ClientHttpResponse>(new Callable<ClientHttpResponse>() {
+			public ClientHttpResponse call() {
+				return response;
+			}
+		});
+
+		MockAsyncRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		public URI getURI() {
+			return uri;
+		}
+
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		public OutputStream getBody() {
+			throw new UnsupportedOperationException();
+		}
+
+		public ListenableFuture<ClientHttpResponse> executeAsync() {
+			return task;
+		}
+
+	}
+
+}
@@ -53,6 +53,22 @@ public class TimelineTemplateTest extends AbstractTwitterApiTest {
 		assertTimelineTweets(timeline);
 	}
 
+	@Test
+	public void getHomeTimeline_profilesSharedAcrossRequests() {
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/statuses/home_timeline.json?count=20&include_entities=true"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess(jsonResource("timeline"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/statuses/home_timeline.json?count=20&include_entities=true"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess(jsonResource("timeline"), APPLICATION_JSON));
+		List<Tweet> first = twitter.timelineOperations().getHomeTimeline();
+		List<Tweet> second = twitter.timelineOperations().getHomeTimeline();
+		for (int i = 0; i < first.size(); i++) {
+			assertSame(first.get(i).getUser(), second.get(i).getUser());
+		}
+		assertTimelineTweets(second);
+	}
+
 	@Test
 	public void getHomeTimeline_paged() {
 		mockServer.expect(requestTo("https://api.twitter.com/1.1/statuses/home_timeline.json?count=100&include_entities=true"))
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl.basic;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.MediaType.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.social.twitter.api.RateLimitPolicy;
+import org.springframework.social.twitter.api.RateLimitStatus;
+import org.springframework.social.twitter.api.ResourceFamily;
+import org.springframework.social.twitter.api.TwitterRateLimitExceededException;
+import org.springframework.social.twitter.api.impl.AbstractTwitterApiTest;
+import org.springframework.social.twitter.api.impl.TwitterRateLimiter;
+
+public class TwitterRateLimiterTest extends AbstractTwitterApiTest {
+
+	private TwitterRateLimiter limiter;
+
+	@Before
+	public void setupLimiter() {
+		limiter = new TwitterRateLimiter();
+		twitter.setRateLimiter(limiter);
+		appAuthTwitter.setRateLimiter(limiter);
+	}
+
+	@Test
+	public void getUserProfile_failsFastOnceExhausted() {
+		limiter.setPolicy(RateLimitPolicy.FAIL_FAST);
+		long reset = System.currentTimeMillis() / 1000 + 60;
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 0, reset)));
+		twitter.userOperations().getUserProfile(12345);
+		try {
+			twitter.userOperations().getUserProfile(12345);
+			fail();
+		} catch (TwitterRateLimitExceededException e) {
+			assertEquals("/users/show", e.getRateLimitStatus().getEndpoint());
+			assertEquals(180, e.getRateLimitStatus().getQuarterOfHourLimit());
+			assertEquals(0, e.getRateLimitStatus().getRemainingHits());
+			assertEquals(reset, e.getRateLimitStatus().getResetTimeInSeconds());
+		}
+		mockServer.verify();
+		assertEquals(1, limiter.getAdmittedCount());
+		assertEquals(1, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void getUserProfile_limitedPerIdentity() {
+		limiter.setPolicy(RateLimitPolicy.FAIL_FAST);
+		long reset = System.currentTimeMillis() / 1000 + 60;
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 0, reset)));
+		appAuthMockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 179, reset)));
+		twitter.userOperations().getUserProfile(12345);
+		appAuthTwitter.userOperations().getUserProfile(12345);
+		mockServer.verify();
+		appAuthMockServer.verify();
+		assertEquals(0, limiter.getRateLimitStatus(twitter, "/users/show").getRemainingHits());
+		assertEquals(179, limiter.getRateLimitStatus(appAuthTwitter, "/users/show").getRemainingHits());
+	}
+
+	@Test
+	public void getUserProfile_waitsForReset() {
+		long reset = System.currentTimeMillis() / 1000;
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 0, reset)));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 179, reset + 900)));
+		twitter.userOperations().getUserProfile(12345);
+		twitter.userOperations().getUserProfile(12345);
+		mockServer.verify();
+		assertTrue(System.currentTimeMillis() >= (reset + 1) * 1000);
+		assertEquals(1, limiter.getDelayedCount());
+		assertEquals(179, limiter.getRateLimitStatus(twitter, "/users/show").getRemainingHits());
+	}
+
+	@Test(expected = TwitterRateLimitExceededException.class)
+	public void getUserProfile_resetTooFarOff() {
+		limiter.setMaxWait(100);
+		long reset = System.currentTimeMillis() / 1000 + 60;
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(rateLimitHeaders(180, 0, reset)));
+		twitter.userOperations().getUserProfile(12345);
+		twitter.userOperations().getUserProfile(12345);
+	}
+
+	@Test
+	public void seed() {
+		limiter.setPolicy(RateLimitPolicy.FAIL_FAST);
+		long reset = System.currentTimeMillis() / 1000 + 60;
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/application/rate_limit_status.json?resources=users%2Csearch"))
+				.andRespond(withSuccess("{\"resources\":{"
+						+ "\"users\":{\"/users/show/:id\":{\"limit\":180,\"remaining\":0,\"reset\":" + reset + "}},"
+						+ "\"search\":{\"/search/tweets\":{\"limit\":180,\"remaining\":42,\"reset\":" + reset + "}}}}", APPLICATION_JSON));
+		limiter.seed(twitter, ResourceFamily.USERS, ResourceFamily.SEARCH);
+		mockServer.verify();
+
+		RateLimitStatus search = limiter.getRateLimitStatus(twitter, "/search/tweets");
+		assertEquals(42, search.getRemainingHits());
+		assertEquals(reset, search.getResetTimeInSeconds());
+		assertNull(limiter.getRateLimitStatus(appAuthTwitter, "/search/tweets"));
+		try {
+			twitter.userOperations().getUserProfile("habuma");
+			fail();
+		} catch (TwitterRateLimitExceededException e) {
+			assertEquals("/users/show/:id", e.getRateLimitStatus().getEndpoint());
+		}
+	}
+
+	private HttpHeaders rateLimitHeaders(int limit, int remaining, long reset) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("x-rate-limit-limit", String.valueOf(limit));
+		headers.set("x-rate-limit-remaining", String.valueOf(remaining));
+		headers.set("x-rate-limit-reset", String.valueOf(reset));
+		return headers;
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.twitter.api.impl.basic;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.http.MediaType.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.social.twitter.api.TwitterProfile;
+import org.springframework.social.twitter.api.impl.AbstractTwitterApiTest;
+import org.springframework.social.twitter.api.impl.TwitterApiUriResourceForStandard;
+import org.springframework.social.twitter.api.impl.TwitterResponseCache;
+
+public class TwitterResponseCacheTest extends AbstractTwitterApiTest {
+
+	private TwitterResponseCache cache;
+
+	@Before
+	public void setupCache() {
+		cache = new TwitterResponseCache();
+		twitter.setResponseCache(cache);
+		appAuthTwitter.setResponseCache(cache);
+	}
+
+	@Test
+	public void getUserProfile_cached() {
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		assertEquals("artnames", twitter.userOperations().getUserProfile(12345).getScreenName());
+		assertEquals("artnames", twitter.userOperations().getUserProfile(12345).getScreenName());
+		mockServer.verify();
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void getUserProfile_cachedPerIdentity() {
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		appAuthMockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andExpect(header("Authorization", "Bearer APP_ACCESS_TOKEN"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		twitter.userOperations().getUserProfile(12345);
+		appAuthTwitter.userOperations().getUserProfile(12345);
+		mockServer.verify();
+		appAuthMockServer.verify();
+		assertEquals(2, cache.getSize());
+	}
+
+	@Test
+	public void getUserProfile_revalidated() throws Exception {
+		cache.setTimeToLive(TwitterApiUriResourceForStandard.USERS_SHOW, 1);
+		HttpHeaders validators = new HttpHeaders();
+		validators.setETag("\"v1\"");
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?screen_name=artnames"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON).headers(validators));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?screen_name=artnames"))
+				.andExpect(header("If-None-Match", "\"v1\""))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+		twitter.userOperations().getUserProfile("artnames");
+		Thread.sleep(5);
+		TwitterProfile profile = twitter.userOperations().getUserProfile("artnames");
+		mockServer.verify();
+		assertEquals(161064614, profile.getId());
+		assertEquals(1, cache.getRevalidationCount());
+	}
+
+	@Test
+	public void getList_invalidatedByAddToList() {
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/lists/show.json?list_id=40841803"))
+				.andRespond(withSuccess(jsonResource("single-list"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/lists/members/create_all.json"))
+				.andExpect(method(POST))
+				.andRespond(withSuccess(jsonResource("single-list"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/lists/show.json?list_id=40841803"))
+				.andRespond(withSuccess(jsonResource("single-list"), APPLICATION_JSON));
+		twitter.listOperations().getList(40841803);
+		twitter.userOperations().getUserProfile(12345);
+		twitter.listOperations().addToList(40841803, 123456);
+		twitter.listOperations().getList(40841803);
+		twitter.userOperations().getUserProfile(12345);
+		mockServer.verify();
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void getHomeTimeline_notCached() {
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/statuses/home_timeline.json?count=20&include_entities=true"))
+				.andRespond(withSuccess(jsonResource("timeline"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/statuses/home_timeline.json?count=20&include_entities=true"))
+				.andRespond(withSuccess(jsonResource("timeline"), APPLICATION_JSON));
+		twitter.timelineOperations().getHomeTimeline();
+		twitter.timelineOperations().getHomeTimeline();
+		mockServer.verify();
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void getUserProfile_leastRecentlyUsedEvicted() {
+		cache.setMaxEntries(1);
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=67890"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		mockServer.expect(requestTo("https://api.twitter.com/1.1/users/show.json?user_id=12345"))
+				.andRespond(withSuccess(jsonResource("twitter-profile"), APPLICATION_JSON));
+		twitter.userOperations().getUserProfile(12345);
+		twitter.userOperations().getUserProfile(67890);
+		twitter.userOperations().getUserProfile(12345);
+		mockServer.verify();
+		assertEquals(2, cache.getEvictionCount());
+		assertEquals(1, cache.getSize());
+	}
+
+}